@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.audit.logging;
+
+import static java.util.stream.Collectors.joining;
+
+import ddf.security.audit.SecurityLogger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.audit.api.AuditItemBasic;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link AuditLogger} that writes its records on a dedicated thread, so that auditing does not
+ * add to the latency of the request being audited. The ids or items of one call are written as a
+ * single record.
+ *
+ * <p>Records wait in a bounded buffer. When the buffer is full, the caller waits up to {@code
+ * maxWaitMillis} for room and then writes its record itself, so records are never dropped. Each
+ * record is written with the Shiro thread context of the request that created it, so it is
+ * attributed to the same subject as a synchronous write would be. Records still buffered when the
+ * logger is destroyed are written before {@link #destroy()} returns.
+ */
+public class AsyncAuditLogger extends AuditLogger {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAuditLogger.class);
+
+  private static final int DEFAULT_CAPACITY = 10000;
+
+  private static final long DEFAULT_MAX_WAIT_MILLIS = 100;
+
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final AuditRecord SHUTDOWN = new AuditRecord(null, null, null);
+
+  private final BlockingQueue<AuditRecord> records;
+
+  private final long maxWaitMillis;
+
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+  private final AtomicLong overflowCount = new AtomicLong();
+
+  final Thread writer;
+
+  private boolean closed;
+
+  public AsyncAuditLogger(SecurityLogger securityLogger) {
+    this(securityLogger, DEFAULT_CAPACITY, DEFAULT_MAX_WAIT_MILLIS);
+  }
+
+  AsyncAuditLogger(SecurityLogger securityLogger, int capacity, long maxWaitMillis) {
+    super(securityLogger);
+    this.records = new ArrayBlockingQueue<>(capacity);
+    this.maxWaitMillis = maxWaitMillis;
+    this.writer =
+        StandardThreadFactoryBuilder.newThreadFactory("auditWriterThread")
+            .newThread(this::writeRecords);
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /** Stops accepting records and writes the ones that are still buffered. */
+  public void destroy() {
+    closeLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+
+    try {
+      records.offer(SHUTDOWN, SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<AuditRecord> remaining = new ArrayList<>();
+    records.drainTo(remaining);
+    remaining.remove(SHUTDOWN);
+    remaining.forEach(this::write);
+  }
+
+  /** @return the number of records that were written by the caller because the buffer was full */
+  long getOverflowCount() {
+    return overflowCount.get();
+  }
+
+  @Override
+  protected void auditIds(String action, String component, String... ids) {
+    audit("{} a {} with ids {}", action, component, String.join(", ", ids));
+  }
+
+  @Override
+  protected void auditItems(String action, String component, List<AuditItemBasic> items) {
+    audit(
+        "{} a {} with ids and sources {}",
+        action,
+        component,
+        items
+            .stream()
+            .map(item -> item.getId() + " from " + item.getSourceId())
+            .collect(joining(", ")));
+  }
+
+  @Override
+  protected void audit(String message, Object... params) {
+    if (!enqueue(new AuditRecord(message, params, ThreadContext.getResources()))) {
+      super.audit(message, params);
+    }
+  }
+
+  private boolean enqueue(AuditRecord record) {
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        return false;
+      }
+      if (records.offer(record, maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      overflowCount.incrementAndGet();
+      LOGGER.debug("The audit buffer is full, writing the record on the calling thread");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    return false;
+  }
+
+  private void writeRecords() {
+    try {
+      AuditRecord record;
+      while ((record = records.take()) != SHUTDOWN) {
+        write(record);
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug("The audit writer was interrupted, buffered records are written on shutdown");
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void write(AuditRecord record) {
+    ThreadContext.setResources(record.context);
+    try {
+      super.audit(record.message, record.params);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Unable to write audit record: {}", record.message, e);
+    } finally {
+      ThreadContext.remove();
+    }
+  }
+
+  private static class AuditRecord {
+
+    private final String message;
+
+    private final Object[] params;
+
+    private final Map<Object, Object> context;
+
+    private AuditRecord(String message, Object[] params, Map<Object, Object> context) {
+      this.message = message;
+      this.params = params;
+      this.context = context;
+    }
+  }
+}
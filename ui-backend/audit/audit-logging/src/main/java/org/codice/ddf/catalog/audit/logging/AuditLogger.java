@@ -42,9 +42,7 @@ public class AuditLogger implements AuditService {
       throw new AuditException(INVALID_PARAM_MSG);
     }
 
-    for (String id : ids) {
-      securityLogger.audit("{} a {} with id {}", action, component, id);
-    }
+    auditIds(action, component, ids);
   }
 
   @Override
@@ -57,10 +55,7 @@ public class AuditLogger implements AuditService {
       throw new AuditException(INVALID_PARAM_MSG);
     }
 
-    for (AuditItemBasic item : items) {
-      securityLogger.audit(
-          "{} a {} with id {} and source {}", action, component, item.getId(), item.getSourceId());
-    }
+    auditItems(action, component, items);
   }
 
   @Override
@@ -70,7 +65,7 @@ public class AuditLogger implements AuditService {
       throw new AuditException(INVALID_PARAM_MSG);
     }
 
-    securityLogger.audit("{} a {}", action, component);
+    audit("{} a {}", action, component);
   }
 
   @Override
@@ -84,7 +79,27 @@ public class AuditLogger implements AuditService {
       throw new AuditException(INVALID_PARAM_MSG);
     }
 
-    securityLogger.audit("{} a {} with error {}", action, component, cause);
+    audit("{} a {} with error {}", action, component, cause);
+  }
+
+  /** Writes the audit records of valid ids. */
+  protected void auditIds(String action, String component, String... ids) {
+    for (String id : ids) {
+      audit("{} a {} with id {}", action, component, id);
+    }
+  }
+
+  /** Writes the audit records of valid items. */
+  protected void auditItems(String action, String component, List<AuditItemBasic> items) {
+    for (AuditItemBasic item : items) {
+      audit(
+          "{} a {} with id {} and source {}", action, component, item.getId(), item.getSourceId());
+    }
+  }
+
+  /** Writes one audit record. */
+  protected void audit(String message, Object... params) {
+    securityLogger.audit(message, params);
   }
 
   private boolean isValidObjects(Object... params) {
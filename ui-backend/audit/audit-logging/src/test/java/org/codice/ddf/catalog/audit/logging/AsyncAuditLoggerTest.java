@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.audit.logging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import ddf.security.audit.SecurityLogger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.audit.api.AuditException;
+import org.codice.ddf.catalog.audit.api.AuditItemBasic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+public class AsyncAuditLoggerTest {
+
+  private static final String ACTION = "action";
+
+  private static final String COMPONENT = "component";
+
+  private SecurityLogger securityLogger;
+
+  private AsyncAuditLogger auditLogger;
+
+  @Before
+  public void setup() {
+    securityLogger = mock(SecurityLogger.class);
+    auditLogger = new AsyncAuditLogger(securityLogger);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.remove();
+    auditLogger.destroy();
+  }
+
+  @Test
+  public void testIdsAreWrittenAsOneRecord() throws AuditException {
+    auditLogger.log(ACTION, COMPONENT, "id1", "id2");
+
+    verify(securityLogger, timeout(1000))
+        .audit("{} a {} with ids {}", ACTION, COMPONENT, "id1, id2");
+  }
+
+  @Test
+  public void testItemsAreWrittenAsOneRecord() throws AuditException {
+    auditLogger.log(
+        ACTION,
+        COMPONENT,
+        ImmutableList.of(new AuditItemBasic("id1", "src1"), new AuditItemBasic("id2", "src2")));
+
+    verify(securityLogger, timeout(1000))
+        .audit(
+            "{} a {} with ids and sources {}", ACTION, COMPONENT, "id1 from src1, id2 from src2");
+  }
+
+  @Test
+  public void testRecordIsWrittenWithCallersSubject() throws Exception {
+    Subject subject = mock(Subject.class);
+    AtomicReference<Subject> writerSubject = new AtomicReference<>();
+    CountDownLatch written = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              writerSubject.set(ThreadContext.getSubject());
+              written.countDown();
+              return null;
+            })
+        .when(securityLogger)
+        .audit(any(String.class), ArgumentMatchers.<String>any());
+
+    ThreadContext.bind(subject);
+    auditLogger.log(ACTION, COMPONENT);
+
+    assertThat(written.await(1, TimeUnit.SECONDS), is(true));
+    assertThat(writerSubject.get(), is(subject));
+  }
+
+  @Test
+  public void testWriterSurvivesFailedWrite() throws AuditException {
+    doThrow(new IllegalStateException()).when(securityLogger).audit("{} a {}", "failed", COMPONENT);
+
+    auditLogger.log("failed", COMPONENT);
+    auditLogger.log(ACTION, COMPONENT);
+
+    verify(securityLogger, timeout(1000)).audit("{} a {}", ACTION, COMPONENT);
+  }
+
+  @Test
+  public void testFullBufferIsWrittenByCaller() throws Exception {
+    auditLogger.destroy();
+    auditLogger = new AsyncAuditLogger(securityLogger, 1, 0);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              blocked.countDown();
+              release.await();
+              return null;
+            })
+        .when(securityLogger)
+        .audit("{} a {}", "blocking", COMPONENT);
+
+    auditLogger.log("blocking", COMPONENT);
+    assertThat(blocked.await(1, TimeUnit.SECONDS), is(true));
+    auditLogger.log("buffered", COMPONENT);
+    auditLogger.log(ACTION, COMPONENT);
+
+    verify(securityLogger).audit("{} a {}", ACTION, COMPONENT);
+    assertThat(auditLogger.getOverflowCount(), is(1L));
+
+    release.countDown();
+    verify(securityLogger, timeout(1000)).audit("{} a {}", "buffered", COMPONENT);
+  }
+
+  @Test
+  public void testBufferedRecordsAreWrittenOnDestroy() throws AuditException {
+    auditLogger.writer.interrupt();
+    verifyWriterStopped();
+
+    auditLogger.log(ACTION, COMPONENT);
+    auditLogger.destroy();
+
+    verify(securityLogger).audit("{} a {}", ACTION, COMPONENT);
+  }
+
+  @Test
+  public void testRecordsAfterDestroyAreWrittenByCaller() throws AuditException {
+    auditLogger.destroy();
+    auditLogger.log(ACTION, COMPONENT);
+
+    verify(securityLogger).audit("{} a {}", ACTION, COMPONENT);
+  }
+
+  @Test
+  public void testInterruptedCallerWritesItself() throws AuditException {
+    Thread.currentThread().interrupt();
+    auditLogger.log(ACTION, COMPONENT);
+
+    assertThat(Thread.interrupted(), is(true));
+    verify(securityLogger).audit("{} a {}", ACTION, COMPONENT);
+  }
+
+  @Test
+  public void testInterruptedDestroy() throws AuditException {
+    Thread.currentThread().interrupt();
+    auditLogger.destroy();
+
+    assertThat(Thread.interrupted(), is(true));
+  }
+
+  private void verifyWriterStopped() {
+    try {
+      auditLogger.writer.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    assertThat(auditLogger.writer.isAlive(), is(false));
+  }
+}
@@ -0,0 +1,40 @@
+/* Copyright (c) Connexta, LLC */
+package org.codice.ddf.catalog.search.models;
+
+import java.util.List;
+
+/**
+ * One operand of a {@link BooleanExpression}: either a run of search terms, which are implicitly
+ * OR'd, or a parenthesized expression that may be negated.
+ */
+public class BooleanComponent {
+
+  private final List<BooleanTextFilter> terms;
+
+  private final BooleanExpression group;
+
+  private final boolean negated;
+
+  private BooleanComponent(
+      final List<BooleanTextFilter> terms, final BooleanExpression group, final boolean negated) {
+    this.terms = terms;
+    this.group = group;
+    this.negated = negated;
+  }
+
+  public static BooleanComponent terms(final List<BooleanTextFilter> terms) {
+    return new BooleanComponent(terms, null, false);
+  }
+
+  public static BooleanComponent group(final BooleanExpression group, final boolean negated) {
+    return new BooleanComponent(null, group, negated);
+  }
+
+  String toCql() {
+    if (terms != null) {
+      return BooleanTextFilter.implicitOr(terms);
+    }
+    return negated ? "(NOT (" + group.toCql() + "))" : "(" + group.toCql() + ")";
+  }
+
+}
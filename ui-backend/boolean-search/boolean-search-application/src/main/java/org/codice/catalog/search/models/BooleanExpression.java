@@ -0,0 +1,35 @@
+/* Copyright (c) Connexta, LLC */
+package org.codice.ddf.catalog.search.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parsed search expression: {@link BooleanComponent}s joined left to right by {@code AND} or
+ * {@code OR}, as written.
+ */
+public class BooleanExpression {
+
+  private final List<BooleanComponent> components = new ArrayList<>();
+
+  private final List<String> operators = new ArrayList<>();
+
+  public BooleanExpression(final BooleanComponent component) {
+    components.add(component);
+  }
+
+  /** Appends {@code rest} to this expression, joined by {@code operator}. */
+  public void append(final String operator, final BooleanExpression rest) {
+    operators.add(operator);
+    operators.addAll(rest.operators);
+    components.addAll(rest.components);
+  }
+
+  public String toCql() {
+    final StringBuilder cql = new StringBuilder(components.get(0).toCql());
+    for (int i = 0; i < operators.size(); i++) {
+      cql.append(' ').append(operators.get(i)).append(' ').append(components.get(i + 1).toCql());
+    }
+    return cql.toString();
+  }
+}
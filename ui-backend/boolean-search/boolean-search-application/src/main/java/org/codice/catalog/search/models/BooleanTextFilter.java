@@ -19,11 +19,11 @@ public class BooleanTextFilter {
   }
 
   public BooleanTextFilter(final String value) {
-    this("ILIKE", "anyText", value);
+    this("anyText", "ILIKE", value);
   }
 
   public BooleanTextFilter(String property, String value) {
-    this("ILIKE", property, value);
+    this(property, "ILIKE", value);
   }
 
   public String getProperty() {
@@ -52,7 +52,7 @@ public class BooleanTextFilter {
 
   @Override
   public String toString() { // ("anyText" ILIKE 'a1')
-    return "(" + type + " " + property + " " + "'" + value + "'" + ")";
+    return "(" + property + " " + type + " " + "'" + value.replace("'", "''") + "'" + ")";
   }
 
   public static String implicitOr(List<BooleanTextFilter> filters) {
@@ -0,0 +1,47 @@
+/* Copyright (c) Connexta, LLC */
+package org.codice.ddf.catalog.search.suggest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/** A thread-safe map that evicts its least recently used entry once it holds too many. */
+class LruCache<K, V> {
+
+  private final Map<K, V> entries;
+
+  LruCache(final int maxSize) {
+    this.entries =
+        new LinkedHashMap<K, V>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Returns the cached value for {@code key}, computing and caching it if absent. The value is
+   * computed outside the lock, so two threads may compute the same value at once.
+   */
+  V get(final K key, final Function<K, V> compute) {
+    synchronized (entries) {
+      final V value = entries.get(key);
+      if (value != null) {
+        return value;
+      }
+    }
+
+    final V value = compute.apply(key);
+    synchronized (entries) {
+      entries.put(key, value);
+    }
+    return value;
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+}
@@ -10,6 +10,7 @@ import static java.util.stream.Collectors.toMap;
 import com.google.common.collect.ImmutableMap;
 import java.io.StringReader;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,14 @@ import org.codice.ddf.catalog.search.javacc.TokenMgrError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Suggests what may come next in a search expression by parsing it and, if it is valid, parsing
+ * it again with a trailing space to collect the tokens the grammar expects.
+ *
+ * <p>Parse outcomes and suggestions are cached by expression in bounded LRU caches shared by all
+ * instances. While an expression is typed, the same expressions, and the expression without its
+ * last word, come up again and again, so most of those parses are answered from the cache.
+ */
 public class Suggester {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Suggester.class);
@@ -45,6 +54,15 @@ public class Suggester {
           .put("not", LOGICAL)
           .build();
 
+  private static final int MAX_CACHED_SUGGESTIONS = 1024;
+
+  private static final int MAX_CACHED_PARSES = 4096;
+
+  private static final LruCache<String, Map<String, Object>> SUGGESTIONS =
+      new LruCache<>(MAX_CACHED_SUGGESTIONS);
+
+  private static final LruCache<String, ParseOutcome> PARSES = new LruCache<>(MAX_CACHED_PARSES);
+
   private final String originalSearchExpression;
 
   public Suggester(final String originalSearchExpression) {
@@ -56,6 +74,12 @@ public class Suggester {
       return emptyMap();
     }
 
+    return SUGGESTIONS.get(
+        originalSearchExpression,
+        key -> Collections.unmodifiableMap(computeSuggestions()));
+  }
+
+  private Map<String, Object> computeSuggestions() {
     if (!originalSearchExpression.contains(" ")) {
       try {
         parse("\n");
@@ -107,8 +131,7 @@ public class Suggester {
   }
 
   private void parse(final String searchExpression) throws ParseException {
-    final Parser parser = new Parser(new StringReader(searchExpression));
-    parser.SearchExpression();
+    PARSES.get(searchExpression, ParseOutcome::of).rethrow();
   }
 
   private Map<String, List<String>> getCategorizedSuggestionsForFirstWord(final ParseException e) {
@@ -180,4 +203,43 @@ public class Suggester {
         .filter(entry -> !entry.getValue().isEmpty())
         .collect(toMap(Entry::getKey, Entry::getValue));
   }
+
+  /**
+   * The result of parsing an expression: nothing if it is valid, otherwise the {@link
+   * ParseException} or {@link TokenMgrError} the parser threw. The exceptions are only read after
+   * they are cached, so they can be rethrown to any number of callers.
+   */
+  private static class ParseOutcome {
+
+    private static final ParseOutcome VALID = new ParseOutcome(null, null);
+
+    private final ParseException parseException;
+
+    private final TokenMgrError tokenMgrError;
+
+    private ParseOutcome(final ParseException parseException, final TokenMgrError tokenMgrError) {
+      this.parseException = parseException;
+      this.tokenMgrError = tokenMgrError;
+    }
+
+    private static ParseOutcome of(final String searchExpression) {
+      try {
+        new Parser(new StringReader(searchExpression)).SearchExpression();
+        return VALID;
+      } catch (ParseException e) {
+        return new ParseOutcome(e, null);
+      } catch (TokenMgrError e) {
+        return new ParseOutcome(null, e);
+      }
+    }
+
+    private void rethrow() throws ParseException {
+      if (parseException != null) {
+        throw parseException;
+      }
+      if (tokenMgrError != null) {
+        throw tokenMgrError;
+      }
+    }
+  }
 }
@@ -57,4 +57,15 @@ public class ParserTest {
 
     assertEquals(result, expectedQuery);
   }
+
+  @Test
+  public void testEscapedQuoteInPhrase() throws ParseException {
+    String searchExpression = "\"it's\"";
+    String expectedQuery = "(anyText ILIKE 'it''s')";
+
+    final Parser parser = new Parser(new StringReader(searchExpression));
+    String result = parser.SearchExpression();
+
+    assertEquals(expectedQuery, result);
+  }
 }
@@ -94,4 +94,13 @@ public class SuggesterTest {
 
     assertEquals(9, errorLocation);
   }
+
+  @Test
+  public void testRepeatedExpressionGivesSameSuggestions() {
+    final Map<String, Object> first = new Suggester("a and b )").getSuggestions();
+    final Map<String, Object> second = new Suggester("a and b )").getSuggestions();
+
+    assertEquals(first, second);
+    assertEquals(9, (int) second.get("error"));
+  }
 }
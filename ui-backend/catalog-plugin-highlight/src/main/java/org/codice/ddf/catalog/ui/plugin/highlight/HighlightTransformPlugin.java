@@ -25,7 +25,9 @@ import ddf.catalog.operation.ResultHighlight;
 import ddf.catalog.plugin.PostQueryPlugin;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -35,15 +37,26 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
 
   public static final String ORIGINAL_SOURCE_PROPERTIES = "originalSourceProperties";
 
+  private static final String HIGHLIGHT_START = "<span class=\"highlight\">";
+
+  private static final String HIGHLIGHT_END = "</span>";
+
+  private static final String ELLIPSIS = "...";
+
+  private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
   private int bufferSize;
 
   private Pattern redactedPattern;
 
+  /** The redacted pattern itself when it has no regex syntax, so it can be compared directly. */
+  private String redactedLiteral;
+
   public HighlightTransformPlugin() {
     // Create a 80 char buffer around the string
     bufferSize = 80;
 
-    redactedPattern = Pattern.compile("REDACTED");
+    setRedactedPattern("REDACTED");
   }
 
   @VisibleForTesting
@@ -82,6 +95,35 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
     }
   }
 
+  /** The range of a value to highlight. */
+  @VisibleForTesting
+  static class Span {
+
+    private final int beginIndex;
+
+    private int endIndex;
+
+    private final int valueIndex;
+
+    private Span(Highlight highlight) {
+      this.beginIndex = highlight.getBeginIndex();
+      this.endIndex = highlight.getEndIndex();
+      this.valueIndex = highlight.getValueIndex();
+    }
+
+    int getBeginIndex() {
+      return beginIndex;
+    }
+
+    int getEndIndex() {
+      return endIndex;
+    }
+
+    private boolean isWithin(String value) {
+      return beginIndex >= 0 && beginIndex <= endIndex && endIndex <= value.length();
+    }
+  }
+
   @Override
   public QueryResponse process(QueryResponse input) {
     ArrayList<ProcessedHighlight> processedHighlights = new ArrayList<>();
@@ -111,17 +153,12 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
     }
 
     if (!resultHighlights.isEmpty()) {
-      List<Result> results = input.getResults();
+      Map<String, Result> resultsById = indexById(input.getResults());
       for (ResultHighlight resultHighlight : resultHighlights) {
         String id = resultHighlight.getResultId();
         ProcessedHighlight processedHighlight = new ProcessedHighlight(id);
 
-        Result matchingResult =
-            results
-                .stream()
-                .filter(result -> result.getMetacard().getId().equals(id))
-                .findAny()
-                .orElse(null);
+        Result matchingResult = resultsById.get(id);
         if (matchingResult != null) {
           List<ResultAttributeHighlight> resultAttributeHighlights =
               resultHighlight.getAttributeHighlights();
@@ -130,8 +167,8 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
             String attributeName = resultAttributeHighlight.getAttributeName();
             List<Highlight> highlights = resultAttributeHighlight.getHighlights();
 
-            for (Highlight highlight : highlights) {
-              processHighlight(processedHighlight, matchingResult, attributeName, highlight);
+            for (Span span : mergeOverlapping(highlights)) {
+              processHighlight(processedHighlight, matchingResult, attributeName, span);
             }
           }
         }
@@ -143,29 +180,80 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
     return input;
   }
 
+  /** Maps each metacard id to the first result with that id. */
+  private static Map<String, Result> indexById(List<Result> results) {
+    Map<String, Result> resultsById = new HashMap<>(results.size() * 2);
+    for (Result result : results) {
+      Metacard metacard = result.getMetacard();
+      if (metacard != null && metacard.getId() != null) {
+        resultsById.putIfAbsent(metacard.getId(), result);
+      }
+    }
+    return resultsById;
+  }
+
+  /**
+   * Merges the highlights of the same value that overlap or touch, so that each part of a value is
+   * shown in at most one snippet. Highlights are otherwise kept in their original order.
+   */
+  @VisibleForTesting
+  static List<Span> mergeOverlapping(List<Highlight> highlights) {
+    Map<Integer, List<Span>> byValueIndex = new LinkedHashMap<>();
+    for (Highlight highlight : highlights) {
+      byValueIndex
+          .computeIfAbsent(highlight.getValueIndex(), valueIndex -> new ArrayList<>())
+          .add(new Span(highlight));
+    }
+
+    List<Span> merged = new ArrayList<>(highlights.size());
+    for (List<Span> valueSpans : byValueIndex.values()) {
+      valueSpans.sort(Comparator.comparingInt(span -> span.beginIndex));
+      Span current = valueSpans.get(0);
+      for (Span next : valueSpans.subList(1, valueSpans.size())) {
+        if (next.beginIndex <= current.endIndex) {
+          current.endIndex = Math.max(current.endIndex, next.endIndex);
+        } else {
+          merged.add(current);
+          current = next;
+        }
+      }
+      merged.add(current);
+    }
+    return merged;
+  }
+
   private void processHighlight(
       ProcessedHighlight processedHighlight,
       Result matchingResult,
       String attributeName,
-      Highlight highlight) {
+      Span span) {
     Attribute attribute = matchingResult.getMetacard().getAttribute(attributeName);
     String value = null;
-    int index = highlight.getValueIndex();
+    int index = span.valueIndex;
     if (attribute != null
         && !attribute.getValues().isEmpty()
-        && index < attribute.getValues().size()) {
+        && index < attribute.getValues().size()
+        && attribute.getValues().get(index) instanceof String) {
       value = (String) attribute.getValues().get(index);
     }
 
-    if (value != null && (redactedPattern == null || !redactedPattern.matcher(value).matches())) {
-      String highlightedString = createHighlightString(highlight, value, attributeName);
+    if (value != null && span.isWithin(value) && !isRedacted(value)) {
+      String highlightedString =
+          createHighlightString(span.beginIndex, span.endIndex, value, attributeName);
       processedHighlight.addHighlight(
           attributeName,
           highlightedString,
-          String.valueOf(highlight.getBeginIndex()),
-          String.valueOf(highlight.getEndIndex()),
-          String.valueOf(highlight.getValueIndex()));
+          String.valueOf(span.beginIndex),
+          String.valueOf(span.endIndex),
+          String.valueOf(span.valueIndex));
+    }
+  }
+
+  private boolean isRedacted(String value) {
+    if (redactedLiteral != null) {
+      return redactedLiteral.equals(value);
     }
+    return redactedPattern != null && redactedPattern.matcher(value).matches();
   }
 
   private void addToProcessedHighlights(
@@ -177,62 +265,90 @@ public class HighlightTransformPlugin implements PostQueryPlugin {
 
   @VisibleForTesting
   protected String createHighlightString(Highlight highlight, String value, String attribute) {
-    String startBuffer = getStartBuffer(highlight, value, attribute);
-    String endBuffer = getEndBuffer(highlight, value, attribute);
+    return createHighlightString(
+        highlight.getBeginIndex(), highlight.getEndIndex(), value, attribute);
+  }
+
+  private String createHighlightString(int begin, int end, String value, String attribute) {
+    StringBuilder highlightString =
+        new StringBuilder(
+            end
+                - begin
+                + HIGHLIGHT_START.length()
+                + HIGHLIGHT_END.length()
+                + 2 * (bufferSize + ELLIPSIS.length()));
 
-    String substring =
-        "<span class=\"highlight\">"
-            + value.substring(highlight.getBeginIndex(), highlight.getEndIndex())
-            + "</span>";
+    appendStartBuffer(highlightString, begin, value, attribute);
+    highlightString.append(HIGHLIGHT_START).append(value, begin, end).append(HIGHLIGHT_END);
+    appendEndBuffer(highlightString, end, value, attribute);
 
-    return startBuffer + substring + endBuffer;
+    return highlightString.toString();
   }
 
   @VisibleForTesting
   protected String getStartBuffer(Highlight highlight, String value, String attribute) {
-    String startBuffer = "";
+    return appendStartBuffer(new StringBuilder(), highlight.getBeginIndex(), value, attribute)
+        .toString();
+  }
+
+  @VisibleForTesting
+  protected String getEndBuffer(Highlight highlight, String value, String attribute) {
+    return appendEndBuffer(new StringBuilder(), highlight.getEndIndex(), value, attribute)
+        .toString();
+  }
 
+  private StringBuilder appendStartBuffer(
+      StringBuilder builder, int begin, String value, String attribute) {
     // A special case for title is that we want the whole string
     if (attribute.equals(Metacard.TITLE)) {
-      return value.substring(0, highlight.getBeginIndex());
+      return builder.append(value, 0, begin);
     }
     // if the highlighted section is at the beginning, don't add a start buffer
-    if (highlight.getBeginIndex() > 0) {
-      int startIndex = highlight.getBeginIndex() - bufferSize;
+    if (begin > 0) {
+      int startIndex = begin - bufferSize;
       if (startIndex <= 0) {
-        startBuffer = value.substring(0, highlight.getBeginIndex());
+        builder.append(value, 0, begin);
       } else {
-        startBuffer = "...".concat(value.substring(startIndex, highlight.getBeginIndex()));
+        builder.append(ELLIPSIS).append(value, startIndex, begin);
       }
     }
-    return startBuffer;
+    return builder;
   }
 
-  @VisibleForTesting
-  protected String getEndBuffer(Highlight highlight, String value, String attribute) {
-    String endBuffer = "";
-
+  private StringBuilder appendEndBuffer(
+      StringBuilder builder, int end, String value, String attribute) {
     // A special case for title is that we want the whole string
     if (attribute.equals(Metacard.TITLE)) {
-      return value.substring(highlight.getEndIndex());
+      return builder.append(value, end, value.length());
     }
     // if the highlighted section is at the end, don't add an end buffer
-    if (highlight.getEndIndex() != value.length()) {
-      int endIndex = highlight.getEndIndex() + bufferSize;
+    if (end != value.length()) {
+      int endIndex = end + bufferSize;
       if (endIndex >= value.length()) {
-        endBuffer = value.substring(highlight.getEndIndex());
+        builder.append(value, end, value.length());
       } else {
-        endBuffer = value.substring(highlight.getEndIndex(), endIndex).concat("...");
+        builder.append(value, end, endIndex).append(ELLIPSIS);
       }
     }
-    return endBuffer;
+    return builder;
   }
 
   public void setRedactedPattern(String redactedPattern) {
     if (redactedPattern == null || redactedPattern.trim().isEmpty()) {
       this.redactedPattern = null;
+      this.redactedLiteral = null;
     } else {
       this.redactedPattern = Pattern.compile(redactedPattern);
+      this.redactedLiteral = isLiteral(redactedPattern) ? redactedPattern : null;
+    }
+  }
+
+  private static boolean isLiteral(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      if (REGEX_META_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+        return false;
+      }
     }
+    return true;
   }
 }
@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -269,4 +270,55 @@ public class HighlightTransformPluginTest {
     assertThat(
         resultString, equalTo("Lorem ipsum <span class=\"highlight\">dolor</span> sit amet"));
   }
+
+  @Test
+  public void testMergeOverlappingHighlights() {
+    List<HighlightTransformPlugin.Span> spans =
+        HighlightTransformPlugin.mergeOverlapping(
+            Arrays.asList(
+                new HighlightImpl(12, 17),
+                new HighlightImpl(0, 5),
+                new HighlightImpl(3, 11),
+                new HighlightImpl(0, 4, 1)));
+
+    assertThat(spans.size(), is(3));
+    assertThat(spans.get(0).getBeginIndex(), is(0));
+    assertThat(spans.get(0).getEndIndex(), is(11));
+    assertThat(spans.get(1).getBeginIndex(), is(12));
+    assertThat(spans.get(1).getEndIndex(), is(17));
+    assertThat(spans.get(2).getBeginIndex(), is(0));
+    assertThat(spans.get(2).getEndIndex(), is(4));
+  }
+
+  @Test
+  public void testLiteralRedactedPattern() {
+    HighlightTransformPlugin highlightPlugin = new HighlightTransformPlugin();
+
+    String id = "123456789";
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl("title", "REDACTED"));
+    metacard.setAttribute(new AttributeImpl("description", "REDACTED DATA"));
+    metacard.setAttribute(new AttributeImpl("id", id));
+    Result result = new ResultImpl(metacard);
+
+    QueryResponse response = new QueryResponseImpl(request, Arrays.asList(result), 1);
+    ResultHighlight resultHighlight =
+        new ResultHighlightImpl(
+            id,
+            Arrays.asList(
+                new ResultAttributeHighlightImpl("title", Arrays.asList(new HighlightImpl(0, 8))),
+                new ResultAttributeHighlightImpl(
+                    "description", Arrays.asList(new HighlightImpl(9, 13)))));
+
+    response
+        .getProperties()
+        .put(Constants.QUERY_HIGHLIGHT_KEY, (Serializable) Arrays.asList(resultHighlight));
+
+    ArrayList<HighlightTransformPlugin.ProcessedHighlight> highlights =
+        (ArrayList<HighlightTransformPlugin.ProcessedHighlight>)
+            highlightPlugin.process(response).getProperties().get(Constants.QUERY_HIGHLIGHT_KEY);
+    assertThat(highlights.size(), is(1));
+    assertThat(highlights.get(0).getHighlights().size(), is(1));
+    assertThat(highlights.get(0).getHighlights().get(0).get("attribute"), is("description"));
+  }
 }
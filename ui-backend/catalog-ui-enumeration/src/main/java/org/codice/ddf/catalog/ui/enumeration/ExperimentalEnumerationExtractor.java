@@ -15,14 +15,19 @@ package org.codice.ddf.catalog.ui.enumeration;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
-import com.google.common.collect.Sets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeInjector;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.validation.AttributeValidator;
 import ddf.catalog.validation.AttributeValidatorRegistry;
+import ddf.catalog.validation.report.AttributeValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,12 +35,28 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.codice.ddf.catalog.ui.enumeration.api.DeprecatableEnumeration;
 
-/** This class is Experimental and subject to change */
+/**
+ * This class is Experimental and subject to change
+ *
+ * <p>Enumerations are computed once per metacard type or attribute and kept until a validator
+ * registry, metacard type, attribute injector or deprecatable enumeration is bound or unbound. A
+ * registry can change its validators without being rebound, so they are also recomputed after a
+ * few minutes. The returned maps are sorted and immutable.
+ */
 public class ExperimentalEnumerationExtractor {
+  private static final int MAX_CACHED_NAMES = 1000;
+
+  private static final long REFRESH_MINUTES = 5;
+
   private final AttributeValidatorRegistry attributeValidatorRegistry;
 
   private final List<MetacardType> metacardTypes;
@@ -44,6 +65,15 @@ public class ExperimentalEnumerationExtractor {
 
   private final List<DeprecatableEnumeration> deprecatableEnumerations;
 
+  /** Counts the binds and unbinds of the services the enumerations are built from. */
+  private final ServiceGeneration generation;
+
+  /**
+   * The enumerations built so far. A snapshot built before the last bind or unbind, or more than
+   * {@link #REFRESH_MINUTES} ago, is replaced by a new, empty one.
+   */
+  @Nullable private volatile Snapshot snapshot;
+
   /**
    * @deprecated This constructor does not take into account injected attributes. The other
    *     constructor {@link #ExperimentalEnumerationExtractor(AttributeValidatorRegistry, List,
@@ -69,125 +99,160 @@ public class ExperimentalEnumerationExtractor {
       List<MetacardType> metacardTypes,
       List<AttributeInjector> attributeInjectors,
       List<DeprecatableEnumeration> deprecatableEnumerations) {
+    this(
+        attributeValidatorRegistry,
+        metacardTypes,
+        attributeInjectors,
+        deprecatableEnumerations,
+        new ServiceGeneration());
+  }
+
+  /**
+   * @param attributeValidatorRegistry validators to build enumerations from
+   * @param metacardTypes metacard types to associate attributes with types
+   * @param attributeInjectors injected attributes
+   * @param generation counts the binds and unbinds of the other arguments' services
+   */
+  public ExperimentalEnumerationExtractor(
+      AttributeValidatorRegistry attributeValidatorRegistry,
+      List<MetacardType> metacardTypes,
+      List<AttributeInjector> attributeInjectors,
+      List<DeprecatableEnumeration> deprecatableEnumerations,
+      ServiceGeneration generation) {
     this.attributeValidatorRegistry = attributeValidatorRegistry;
     this.metacardTypes = metacardTypes;
     this.attributeInjectors = attributeInjectors;
     this.deprecatableEnumerations = deprecatableEnumerations;
+    this.generation = generation;
+  }
+
+  private Snapshot getSnapshot() {
+    long current = generation.get();
+    Snapshot cached = snapshot;
+    if (cached != null && cached.generation == current && !cached.isExpired()) {
+      return cached;
+    }
+
+    Snapshot fresh = new Snapshot(current, buildTypesByName());
+    // Not published if a service changed meanwhile; a stale snapshot that slips through anyway is
+    // caught by the generation check above
+    if (generation.get() == current) {
+      snapshot = fresh;
+    }
+    return fresh;
   }
 
   public Map<String, Set<String>> getAttributeEnumerations(String attribute) {
-    return attributeValidatorRegistry
-        .getValidators(attribute)
-        .stream()
-        .map(av -> av.validate(new AttributeImpl(attribute, "null")))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(avr -> !avr.getSuggestedValues().isEmpty())
-        .map(
-            avr ->
-                avr.getAttributeValidationViolations()
-                    .stream()
-                    .map(ValidationViolation::getAttributes)
-                    .flatMap(Set::stream)
-                    .distinct()
-                    .collect(Collectors.toMap(o -> o, o -> avr.getSuggestedValues())))
-        .reduce(this::union)
-        .orElseGet(HashMap::new);
+    return get(
+        getSnapshot().attributeEnumerations,
+        attribute,
+        () -> {
+          SortedMap<String, Set<String>> enumerations = new TreeMap<>();
+          addSuggestedValues(attribute, enumerations);
+          return freeze(enumerations);
+        });
   }
 
   public Map<String, Set<String>> getDeprecatedEnumerations(@Nullable String metacardType) {
+    TypeEnumerations enumerations = getTypeEnumerations(metacardType);
+    return enumerations == null ? new HashMap<>() : enumerations.deprecated;
+  }
+
+  public Map<String, Set<String>> getEnumerations(@Nullable String metacardType) {
+    TypeEnumerations enumerations = getTypeEnumerations(metacardType);
+    return enumerations == null ? new HashMap<>() : enumerations.suggested;
+  }
+
+  @Nullable
+  private TypeEnumerations getTypeEnumerations(@Nullable String metacardType) {
     if (isBlank(metacardType)) {
       metacardType = MetacardImpl.BASIC_METACARD.getName();
     }
-    MetacardType type = getTypeFromName(metacardType);
+    Snapshot current = getSnapshot();
+    MetacardType type = current.typesByName.get(metacardType);
 
     if (type == null) {
-      return new HashMap<>();
+      return null;
     }
 
-    type = applyInjectors(type, attributeInjectors);
-
-    return type.getAttributeDescriptors()
-        .stream()
-        .map(this::toDeprecatedEnumeration)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(this::isNotEmpty)
-        .map(this::toMap)
-        .reduce(this::union)
-        .orElseGet(HashMap::new);
+    return get(current.typeEnumerations, metacardType, () -> buildTypeEnumerations(type));
   }
 
-  public Map<String, Set<String>> getEnumerations(@Nullable String metacardType) {
-    if (isBlank(metacardType)) {
-      metacardType = MetacardImpl.BASIC_METACARD.getName();
-    }
-    MetacardType type = getTypeFromName(metacardType);
+  private TypeEnumerations buildTypeEnumerations(MetacardType original) {
+    MetacardType type = applyInjectors(original, attributeInjectors);
 
-    if (type == null) {
-      return new HashMap<>();
+    Map<String, DeprecatableEnumeration> deprecatableByAttribute = new HashMap<>();
+    for (DeprecatableEnumeration deprecatableEnumeration : deprecatableEnumerations) {
+      deprecatableByAttribute.putIfAbsent(
+          deprecatableEnumeration.getAttribute(), deprecatableEnumeration);
     }
 
-    type = applyInjectors(type, attributeInjectors);
+    SortedMap<String, Set<String>> suggested = new TreeMap<>();
+    SortedMap<String, Set<String>> deprecated = new TreeMap<>();
+    for (AttributeDescriptor descriptor : type.getAttributeDescriptors()) {
+      addSuggestedValues(descriptor.getName(), suggested);
 
-    return type.getAttributeDescriptors()
-        .stream()
-        .flatMap(
-            ad ->
-                attributeValidatorRegistry
-                    .getValidators(ad.getName())
-                    .stream()
-                    .map(av -> av.validate(new AttributeImpl(ad.getName(), "null"))))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(avr -> !avr.getSuggestedValues().isEmpty())
-        .map(
-            avr ->
-                avr.getAttributeValidationViolations()
-                    .stream()
-                    .map(ValidationViolation::getAttributes)
-                    .flatMap(Set::stream)
-                    .distinct()
-                    .collect(Collectors.toMap(o -> o, o -> avr.getSuggestedValues())))
-        .reduce(this::union)
-        .orElseGet(HashMap::new);
-  }
+      DeprecatableEnumeration deprecatableEnumeration =
+          deprecatableByAttribute.get(descriptor.getName());
+      if (deprecatableEnumeration != null
+          && !deprecatableEnumeration.getDeprecatedValues().isEmpty()) {
+        addValues(
+            deprecated,
+            deprecatableEnumeration.getAttribute(),
+            deprecatableEnumeration.getDeprecatedValues());
+      }
+    }
 
-  private Optional<DeprecatableEnumeration> toDeprecatedEnumeration(
-      AttributeDescriptor attributeDescriptor) {
-    return getDeprecatedAttributeEnumerations(attributeDescriptor.getName());
+    return new TypeEnumerations(freeze(suggested), freeze(deprecated));
   }
 
-  private boolean isNotEmpty(DeprecatableEnumeration deprecatableEnumeration) {
-    return !deprecatableEnumeration.getDeprecatedValues().isEmpty();
+  /**
+   * Validates a placeholder value of the attribute with each of its validators to collect the
+   * values they suggest, keyed by the attributes their violations name.
+   */
+  private void addSuggestedValues(String attribute, Map<String, Set<String>> enumerations) {
+    for (AttributeValidator validator : attributeValidatorRegistry.getValidators(attribute)) {
+      Optional<AttributeValidationReport> report =
+          validator.validate(new AttributeImpl(attribute, "null"));
+      if (!report.isPresent() || report.get().getSuggestedValues().isEmpty()) {
+        continue;
+      }
+
+      Set<String> suggestedValues = report.get().getSuggestedValues();
+      for (ValidationViolation violation : report.get().getAttributeValidationViolations()) {
+        for (String violationAttribute : violation.getAttributes()) {
+          addValues(enumerations, violationAttribute, suggestedValues);
+        }
+      }
+    }
   }
 
-  private Map<String, Set<String>> union(
-      Map<String, Set<String>> firstMap, Map<String, Set<String>> secondMap) {
-    secondMap.forEach((key, value) -> firstMap.merge(key, value, Sets::union));
-    return firstMap;
+  private static void addValues(
+      Map<String, Set<String>> enumerations, String attribute, Set<String> values) {
+    enumerations.computeIfAbsent(attribute, key -> new TreeSet<>()).addAll(values);
   }
 
-  private Map<String, Set<String>> toMap(DeprecatableEnumeration deprecatableEnumeration) {
-    Map<String, Set<String>> map = new HashMap<>();
-    map.put(deprecatableEnumeration.getAttribute(), deprecatableEnumeration.getDeprecatedValues());
-    return map;
+  private static Map<String, Set<String>> freeze(SortedMap<String, Set<String>> enumerations) {
+    ImmutableSortedMap.Builder<String, Set<String>> frozen = ImmutableSortedMap.naturalOrder();
+    enumerations.forEach(
+        (attribute, values) -> frozen.put(attribute, ImmutableSortedSet.copyOf(values)));
+    return frozen.build();
   }
 
-  private Optional<DeprecatableEnumeration> getDeprecatedAttributeEnumerations(String attribute) {
-    return deprecatableEnumerations
-        .stream()
-        .filter(deprecatableEnumeration -> deprecatableEnumeration.getAttribute().equals(attribute))
-        .findFirst();
+  private static <T> T get(Cache<String, T> cache, String key, Callable<T> loader) {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not build enumerations for " + key, e.getCause());
+    }
   }
 
-  @Nullable
-  private MetacardType getTypeFromName(String metacardType) {
-    return metacardTypes
-        .stream()
-        .filter(mt -> mt.getName().equals(metacardType))
-        .findFirst()
-        .orElse(null);
+  private Map<String, MetacardType> buildTypesByName() {
+    Map<String, MetacardType> types = new HashMap<>();
+    for (MetacardType type : metacardTypes) {
+      types.putIfAbsent(type.getName(), type);
+    }
+    return types;
   }
 
   private MetacardType applyInjectors(MetacardType original, List<AttributeInjector> injectors) {
@@ -197,4 +262,38 @@ public class ExperimentalEnumerationExtractor {
     }
     return metacard.getMetacardType();
   }
+
+  private static class Snapshot {
+    private final long generation;
+
+    private final long expiresAt = System.nanoTime() + TimeUnit.MINUTES.toNanos(REFRESH_MINUTES);
+
+    private final Map<String, MetacardType> typesByName;
+
+    private final Cache<String, TypeEnumerations> typeEnumerations =
+        CacheBuilder.newBuilder().maximumSize(MAX_CACHED_NAMES).build();
+
+    private final Cache<String, Map<String, Set<String>>> attributeEnumerations =
+        CacheBuilder.newBuilder().maximumSize(MAX_CACHED_NAMES).build();
+
+    Snapshot(long generation, Map<String, MetacardType> typesByName) {
+      this.generation = generation;
+      this.typesByName = typesByName;
+    }
+
+    boolean isExpired() {
+      return System.nanoTime() - expiresAt > 0;
+    }
+  }
+
+  private static class TypeEnumerations {
+    private final Map<String, Set<String>> suggested;
+
+    private final Map<String, Set<String>> deprecated;
+
+    TypeEnumerations(Map<String, Set<String>> suggested, Map<String, Set<String>> deprecated) {
+      this.suggested = suggested;
+      this.deprecated = deprecated;
+    }
+  }
 }
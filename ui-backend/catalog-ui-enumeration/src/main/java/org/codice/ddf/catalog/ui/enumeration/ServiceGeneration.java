@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.enumeration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Counts the binds and unbinds of the services some cached data is built from. It is registered as
+ * the reference listener of those services in place of the bean that caches the data, so that the
+ * bean can still take the services as constructor arguments. The bean compares the generation its
+ * data was built at with {@link #get()} to tell whether the data is stale.
+ */
+public class ServiceGeneration {
+
+  private final AtomicLong generation = new AtomicLong();
+
+  /** @param service the bound service */
+  public void bindService(@Nullable Object service) {
+    generation.incrementAndGet();
+  }
+
+  /** @param service the unbound service */
+  public void unbindService(@Nullable Object service) {
+    generation.incrementAndGet();
+  }
+
+  /** @return the number of binds and unbinds so far */
+  public long get() {
+    return generation.get();
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.enumeration;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.validation.AttributeValidator;
+import ddf.catalog.validation.AttributeValidatorRegistry;
+import ddf.catalog.validation.report.AttributeValidationReport;
+import ddf.catalog.validation.violation.ValidationViolation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExperimentalEnumerationExtractorTest {
+
+  private static final String ATTRIBUTE = "color";
+
+  private static final String TYPE = "paint";
+
+  private static final String OTHER_TYPE = "ink";
+
+  private AttributeValidator validator;
+
+  private List<MetacardType> metacardTypes;
+
+  private ServiceGeneration generation;
+
+  private ExperimentalEnumerationExtractor extractor;
+
+  @Before
+  public void setUp() {
+    ValidationViolation violation = mock(ValidationViolation.class);
+    when(violation.getAttributes()).thenReturn(ImmutableSet.of(ATTRIBUTE));
+    AttributeValidationReport report = mock(AttributeValidationReport.class);
+    when(report.getSuggestedValues()).thenReturn(ImmutableSet.of("red", "blue"));
+    when(report.getAttributeValidationViolations()).thenReturn(ImmutableSet.of(violation));
+
+    validator = mock(AttributeValidator.class);
+    when(validator.validate(any(Attribute.class))).thenReturn(Optional.of(report));
+    AttributeValidatorRegistry registry = mock(AttributeValidatorRegistry.class);
+    when(registry.getValidators(anyString())).thenReturn(Collections.emptySet());
+    when(registry.getValidators(ATTRIBUTE)).thenReturn(ImmutableSet.of(validator));
+
+    metacardTypes = new CopyOnWriteArrayList<>();
+    metacardTypes.add(metacardType(TYPE));
+    generation = new ServiceGeneration();
+    extractor =
+        new ExperimentalEnumerationExtractor(
+            registry, metacardTypes, new ArrayList<>(), new ArrayList<>(), generation);
+  }
+
+  @Test
+  public void testEnumerationsAreSortedAndBuiltOncePerType() {
+    Map<String, Set<String>> enumerations = extractor.getEnumerations(TYPE);
+
+    assertThat(enumerations.get(ATTRIBUTE), contains("blue", "red"));
+    assertThat(extractor.getEnumerations(TYPE), is(sameInstance(enumerations)));
+    verify(validator, times(1)).validate(any(Attribute.class));
+  }
+
+  @Test
+  public void testAttributeEnumerationsAreBuiltOncePerAttribute() {
+    Map<String, Set<String>> enumerations = extractor.getAttributeEnumerations(ATTRIBUTE);
+
+    assertThat(enumerations.get(ATTRIBUTE), contains("blue", "red"));
+    assertThat(extractor.getAttributeEnumerations(ATTRIBUTE), is(sameInstance(enumerations)));
+    verify(validator, times(1)).validate(any(Attribute.class));
+  }
+
+  @Test
+  public void testUnknownTypeHasNoEnumerations() {
+    assertThat(extractor.getEnumerations(OTHER_TYPE).isEmpty(), is(true));
+    assertThat(extractor.getDeprecatedEnumerations(OTHER_TYPE).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testBoundServiceRebuildsEnumerations() {
+    extractor.getEnumerations(TYPE);
+    metacardTypes.add(metacardType(OTHER_TYPE));
+    assertThat(extractor.getEnumerations(OTHER_TYPE).isEmpty(), is(true));
+
+    generation.bindService(null);
+
+    assertThat(extractor.getEnumerations(OTHER_TYPE), hasKey(ATTRIBUTE));
+    extractor.getEnumerations(TYPE);
+    verify(validator, times(3)).validate(any(Attribute.class));
+  }
+
+  @Test
+  public void testUnboundServiceRebuildsEnumerations() {
+    extractor.getEnumerations(TYPE);
+    metacardTypes.clear();
+
+    generation.unbindService(null);
+
+    assertThat(extractor.getEnumerations(TYPE).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testServiceBoundWhileTypesAreReadIsNotLost() {
+    // Binds OTHER_TYPE the first time the extractor reads the name of this type
+    MetacardType bindingType = mock(MetacardType.class);
+    when(bindingType.getName())
+        .thenAnswer(
+            invocation -> {
+              metacardTypes.add(metacardType(OTHER_TYPE));
+              generation.bindService(null);
+              return "binding";
+            })
+        .thenReturn("binding");
+    metacardTypes.clear();
+    metacardTypes.add(bindingType);
+
+    assertThat(extractor.getEnumerations(OTHER_TYPE).isEmpty(), is(true));
+    assertThat(extractor.getEnumerations(OTHER_TYPE), hasKey(ATTRIBUTE));
+  }
+
+  private static MetacardType metacardType(String name) {
+    Set<AttributeDescriptor> descriptors =
+        ImmutableSet.of(
+            new AttributeDescriptorImpl(
+                ATTRIBUTE, true, true, false, false, BasicTypes.STRING_TYPE));
+    return new MetacardTypeImpl(name, descriptors);
+  }
+}
@@ -23,7 +23,9 @@ import java.util.stream.Collectors;
 
 /**
  * This partial implementation of {@link WorkspaceTransformation} is intended to transform embedded
- * metacard data in XML strings into JSON-style data maps.
+ * metacard data in strings, either XML or {@link
+ * WorkspaceTransformer#metacardToEmbeddedValue(Metacard) the transformer's embedded form}, into
+ * JSON-style data maps.
  *
  * <p><b> This code is experimental. While this interface is functional and tested, it may change or
  * be removed in a future version of the library. </b>
@@ -67,7 +69,7 @@ public abstract class EmbeddedMetacardsHandler extends WorkspaceValueTransformat
             .stream()
             .filter(String.class::isInstance)
             .map(String.class::cast)
-            .map(transformer::xmlToMetacard)
+            .map(transformer::embeddedValueToMetacard)
             .map(this::setMetacardType)
             .map(metacard -> transformer.transform(workspaceMetacard, metacard))
             .collect(Collectors.toList()));
@@ -87,7 +89,7 @@ public abstract class EmbeddedMetacardsHandler extends WorkspaceValueTransformat
                   transformer.transformIntoMetacard((Map<String, Object>) queryJson, metacard);
                   return metacard;
                 })
-            .map(transformer::metacardToXml)
+            .map(transformer::metacardToEmbeddedValue)
             .collect(Collectors.toList()));
   }
 
@@ -90,4 +90,27 @@ public interface WorkspaceTransformer {
    * @return a new {@link Metacard} containing all of the data available in the given XML string
    */
   Metacard xmlToMetacard(String xml);
+
+  /**
+   * Serializes a {@link Metacard} that will be embedded as an attribute value of a workspace.
+   * Implementations may choose a more compact form than XML, as long as {@link
+   * #embeddedValueToMetacard(String)} can read it back.
+   *
+   * @param metacard the {@link Metacard} to be serialized
+   * @return a string representing all data contained within the given {@link Metacard}
+   */
+  default String metacardToEmbeddedValue(Metacard metacard) {
+    return metacardToXml(metacard);
+  }
+
+  /**
+   * Deserializes a {@link Metacard} embedded as an attribute value of a workspace, whether it was
+   * written by {@link #metacardToEmbeddedValue(Metacard)} or is legacy XML.
+   *
+   * @param value the string to parse into a {@link Metacard} object
+   * @return a new {@link Metacard} containing all of the data available in the given string
+   */
+  default Metacard embeddedValueToMetacard(String value) {
+    return xmlToMetacard(value);
+  }
 }
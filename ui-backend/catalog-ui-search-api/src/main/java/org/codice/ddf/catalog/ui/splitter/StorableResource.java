@@ -15,6 +15,7 @@ package org.codice.ddf.catalog.ui.splitter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Optional;
 
 /** Call {@link #close()} if {@link #isError()} returns {@code false}. */
@@ -29,6 +30,17 @@ public interface StorableResource extends AutoCloseable {
    */
   InputStream getInputStream() throws IOException;
 
+  /**
+   * Splitters that need random access to the content, such as reading a ZIP file through its
+   * central directory, can read this file instead of copying {@link #getInputStream()}. The file
+   * belongs to the resource and must not be modified or deleted.
+   *
+   * @return the file that holds the content of this resource, if there is one
+   */
+  default Optional<Path> getPath() {
+    return Optional.empty();
+  }
+
   Optional<String> getMimeType();
 
   String getFilename();
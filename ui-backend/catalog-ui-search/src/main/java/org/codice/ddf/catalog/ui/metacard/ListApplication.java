@@ -15,8 +15,10 @@ package org.codice.ddf.catalog.ui.metacard;
 
 import static spark.Spark.post;
 
+import com.google.common.annotations.VisibleForTesting;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.Constants;
+import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
@@ -28,12 +30,20 @@ import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
@@ -44,15 +54,15 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
 import org.codice.ddf.attachment.AttachmentInfo;
 import org.codice.ddf.catalog.ui.splitter.Splitter;
 import org.codice.ddf.catalog.ui.splitter.SplitterLocator;
 import org.codice.ddf.catalog.ui.splitter.StopSplitterExecutionException;
 import org.codice.ddf.catalog.ui.splitter.StorableResource;
-import org.codice.ddf.catalog.ui.splitter.impl.StorableResourceImpl;
-import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
+import org.codice.ddf.catalog.ui.splitter.impl.FileStorableResource;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.codice.ddf.rest.api.CatalogService;
 import org.slf4j.Logger;
@@ -68,6 +78,10 @@ public class ListApplication implements SparkApplication {
 
   private static final String LIST_TYPE_HEADER = "List-Type";
 
+  private static final int DEFAULT_IMPORT_BATCH_SIZE = 50;
+
+  private static final int MAX_PENDING_BATCHES = 4;
+
   private final MimeTypeMapper mimeTypeMapper;
 
   private final CatalogFramework catalogFramework;
@@ -78,17 +92,28 @@ public class ListApplication implements SparkApplication {
 
   private CatalogService catalogService;
 
+  private final ExecutorService importExecutor;
+
+  private int importBatchSize = DEFAULT_IMPORT_BATCH_SIZE;
+
   public ListApplication(
       MimeTypeMapper mimeTypeMapper,
       CatalogFramework catalogFramework,
       UuidGenerator uuidGenerator,
       SplitterLocator splitterLocator,
-      CatalogService catalogService) {
+      CatalogService catalogService,
+      ExecutorService importExecutor) {
     this.mimeTypeMapper = mimeTypeMapper;
     this.catalogFramework = catalogFramework;
     this.uuidGenerator = uuidGenerator;
     this.splitterLocator = splitterLocator;
     this.catalogService = catalogService;
+    this.importExecutor = importExecutor;
+  }
+
+  /** Sets how many split items are stored with each create request. */
+  public void setImportBatchSize(int importBatchSize) {
+    this.importBatchSize = Math.max(1, importBatchSize);
   }
 
   @Override
@@ -120,16 +145,19 @@ public class ListApplication implements SparkApplication {
             return null;
           }
 
-          try (TemporaryFileBackedOutputStream temporaryFileBackedOutputStream =
-              new TemporaryFileBackedOutputStream()) {
-
-            IOUtils.copy(attachmentInfo.getKey().getStream(), temporaryFileBackedOutputStream);
+          // The upload is spooled to disk once and every splitter reads that same file.
+          Path spooledFile = Files.createTempFile("list-import", null);
+          try {
+            try (InputStream inputStream = attachmentInfo.getKey().getStream()) {
+              Files.copy(inputStream, spooledFile, StandardCopyOption.REPLACE_EXISTING);
+            }
 
             for (Splitter splitter : lookupSplitters(attachmentInfo.getKey().getContentType())) {
               try {
                 if (attemptToSplitAndStore(
-                    response, listType, attachmentInfo, temporaryFileBackedOutputStream, splitter))
+                    response, listType, attachmentInfo, spooledFile, splitter)) {
                   break;
+                }
               } catch (StopSplitterExecutionException e) {
                 LOGGER.debug("Failed to split file.", e);
                 createBadRequestResponse(
@@ -137,10 +165,10 @@ public class ListApplication implements SparkApplication {
                 return null;
               }
             }
+          } finally {
+            Files.deleteIfExists(spooledFile);
           }
 
-          IOUtils.closeQuietly(attachmentInfo.getKey().getStream());
-
           return "";
         });
   }
@@ -149,80 +177,131 @@ public class ListApplication implements SparkApplication {
       Response response,
       String listType,
       Map.Entry<AttachmentInfo, Metacard> attachmentInfo,
-      TemporaryFileBackedOutputStream temporaryFileBackedOutputStream,
+      Path spooledFile,
       Splitter splitter)
-      throws IOException, StopSplitterExecutionException {
-    List<String> ids = new LinkedList<>();
-    List<String> errorMessages = new LinkedList<>();
-
-    boolean isSplitSuccessful = false;
-
-    try (InputStream temporaryInputStream =
-        temporaryFileBackedOutputStream.asByteSource().openStream()) {
-
-      AttachmentInfo temporaryAttachmentInfo =
-          new AttachmentInfoImpl(
-              temporaryInputStream,
-              attachmentInfo.getKey().getFilename(),
-              attachmentInfo.getKey().getContentType());
-
-      try (Stream<StorableResource> stream =
-          createStream(temporaryAttachmentInfo, splitter, listType)) {
-        isSplitSuccessful = true;
-        stream
-            .sequential()
-            .map(storableResource -> appendMessageIfError(errorMessages, storableResource))
-            .filter(storableResource -> !storableResource.isError())
-            .forEach(
-                storableResource ->
-                    storeAndClose(
-                        ids::add, errorMessages::add, storableResource, attachmentInfo.getValue()));
-      } catch (IOException e) {
-        LOGGER.debug("Failed to split the incoming data. Trying the next splitter.", e);
-      }
+      throws StopSplitterExecutionException {
+    List<String> ids = new ArrayList<>();
+    List<String> errorMessages = new ArrayList<>();
+
+    try (FileStorableResource storableResource =
+            new FileStorableResource(
+                spooledFile,
+                attachmentInfo.getKey().getContentType(),
+                attachmentInfo.getKey().getFilename());
+        Stream<StorableResource> stream =
+            splitter.split(
+                storableResource, Collections.singletonMap(LIST_TYPE_HEADER, listType))) {
+      storeInBatches(stream, attachmentInfo.getValue(), ids, errorMessages);
+    } catch (IOException e) {
+      LOGGER.debug("Failed to split the incoming data. Trying the next splitter.", e);
+      return false;
+    }
+
+    /** TODO: DDF-3800 - Display these error messages in the UI. */
+    errorMessages.forEach(s -> LOGGER.debug("Unable to ingest split item: {}", s));
+
+    response.header("Added-IDs", String.join(",", ids));
+    return true;
+  }
+
+  /**
+   * Stores the split items in batches of {@link #importBatchSize}, with up to {@link
+   * #MAX_PENDING_BATCHES} batches being stored at once. IDs are added in the order of the items.
+   */
+  @VisibleForTesting
+  void storeInBatches(
+      Stream<StorableResource> stream,
+      Metacard metacard,
+      List<String> ids,
+      List<String> errorMessages) {
+    Deque<Future<BatchResult>> pendingBatches = new ArrayDeque<>();
+    List<StorableResource> batch = new ArrayList<>(importBatchSize);
 
-      if (isSplitSuccessful) {
-        /** TODO: DDF-3800 - Display these error messages in the UI. */
-        errorMessages.forEach(s -> LOGGER.debug("Unable to ingest split item: {}", s));
+    try {
+      Iterator<StorableResource> storableResources = stream.iterator();
+      while (storableResources.hasNext()) {
+        StorableResource storableResource =
+            appendMessageIfError(errorMessages, storableResources.next());
+        if (storableResource.isError()) {
+          continue;
+        }
+
+        batch.add(storableResource);
+        if (batch.size() == importBatchSize) {
+          awaitPendingBatchSlot(pendingBatches, ids, errorMessages);
+          pendingBatches.add(submit(batch, metacard));
+          batch = new ArrayList<>(importBatchSize);
+        }
+      }
 
-        response.header("Added-IDs", String.join(",", ids));
-        return true;
+      if (!batch.isEmpty()) {
+        awaitPendingBatchSlot(pendingBatches, ids, errorMessages);
+        pendingBatches.add(submit(batch, metacard));
+        batch = Collections.emptyList();
+      }
+      while (!pendingBatches.isEmpty()) {
+        pendingBatches.removeFirst().get().addTo(ids, errorMessages);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InternalServerErrorException("Interrupted while storing the split items.");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
+      throw new InternalServerErrorException("Unable to store the split items.");
+    } finally {
+      batch.forEach(this::closeQuietly);
+      // The items are read from the split stream, so it must not be closed under a pending batch.
+      pendingBatches.forEach(this::awaitQuietly);
+    }
+  }
+
+  /** Waits for the oldest pending batch while {@link #MAX_PENDING_BATCHES} are being stored. */
+  private void awaitPendingBatchSlot(
+      Deque<Future<BatchResult>> pendingBatches, List<String> ids, List<String> errorMessages)
+      throws InterruptedException, ExecutionException {
+    while (pendingBatches.size() >= MAX_PENDING_BATCHES) {
+      pendingBatches.removeFirst().get().addTo(ids, errorMessages);
     }
-    return false;
   }
 
-  private void storeAndClose(
-      Consumer<String> idConsumer,
-      Consumer<String> errorMessageConsumer,
-      StorableResource storableResource,
-      Metacard metacard) {
+  private Future<BatchResult> submit(List<StorableResource> batch, Metacard metacard) {
+    return importExecutor.submit(withCurrentSubject(() -> storeAndClose(batch, metacard)));
+  }
+
+  /** Runs the task as the subject of the calling thread, which the catalog needs for access. */
+  private static <T> Callable<T> withCurrentSubject(Callable<T> task) {
+    Subject subject = ThreadContext.getSubject();
+    return subject == null ? task : subject.associateWith(task);
+  }
 
+  private BatchResult storeAndClose(List<StorableResource> batch, Metacard metacard) {
+    BatchResult batchResult = new BatchResult();
     try {
-      store(getAttachmentInfo(storableResource), idConsumer, errorMessageConsumer, metacard);
-    } catch (IOException e) {
-      LOGGER.debug("Unable to create AttachmentInfo: ", e);
+      store(batch, metacard, batchResult);
     } finally {
-      try {
-        storableResource.close();
-      } catch (Exception e) {
-        LOGGER.trace("Unable to close resource. Will continue.", e);
-      }
+      batch.forEach(this::closeQuietly);
     }
+    return batchResult;
   }
 
-  private Stream<StorableResource> createStream(
-      AttachmentInfo attachmentInfo, Splitter splitter, String listType)
-      throws IOException, StopSplitterExecutionException {
-    return splitter.split(
-        createStorableResource(attachmentInfo),
-        Collections.singletonMap(LIST_TYPE_HEADER, listType));
+  private void closeQuietly(StorableResource storableResource) {
+    try {
+      storableResource.close();
+    } catch (Exception e) {
+      LOGGER.trace("Unable to close resource. Will continue.", e);
+    }
   }
 
-  private StorableResource createStorableResource(AttachmentInfo attachmentInfo)
-      throws IOException {
-    return new StorableResourceImpl(
-        attachmentInfo.getStream(), attachmentInfo.getContentType(), attachmentInfo.getFilename());
+  private void awaitQuietly(Future<BatchResult> pendingBatch) {
+    try {
+      pendingBatch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOGGER.trace("Unable to store a batch of split items.", e);
+    }
   }
 
   private StorableResource appendMessageIfError(
@@ -262,32 +341,52 @@ public class ListApplication implements SparkApplication {
     return splitters;
   }
 
-  private void store(
-      AttachmentInfo createInfo,
-      Consumer<String> idConsumer,
-      Consumer<String> errorMessageConsumer,
-      Metacard metacard) {
-
-    CreateStorageRequest streamCreateRequest =
-        new CreateStorageRequestImpl(
-            Collections.singletonList(
-                new IncomingContentItem(
-                    uuidGenerator,
-                    createInfo.getStream(),
-                    createInfo.getContentType(),
-                    createInfo.getFilename(),
-                    metacard)),
-            null);
+  /**
+   * Stores the batch with one create request. If that request fails, the items are stored one at a
+   * time so that a single bad item does not fail the others.
+   */
+  private void store(List<StorableResource> batch, Metacard metacard, BatchResult batchResult) {
+    List<ContentItem> contentItems = new ArrayList<>(batch.size());
+    for (StorableResource storableResource : batch) {
+      try {
+        AttachmentInfo createInfo = getAttachmentInfo(storableResource);
+        contentItems.add(
+            new IncomingContentItem(
+                uuidGenerator,
+                createInfo.getStream(),
+                createInfo.getContentType(),
+                createInfo.getFilename(),
+                metacard));
+      } catch (IOException e) {
+        LOGGER.debug("Unable to create AttachmentInfo: ", e);
+      }
+    }
+    if (contentItems.isEmpty()) {
+      return;
+    }
+
+    CreateStorageRequest streamCreateRequest = new CreateStorageRequestImpl(contentItems, null);
     try {
       CreateResponse createResponse = catalogFramework.create(streamCreateRequest);
 
-      createResponse.getCreatedMetacards().stream().map(Metacard::getId).forEach(idConsumer);
+      createResponse
+          .getCreatedMetacards()
+          .stream()
+          .map(Metacard::getId)
+          .forEach(batchResult.ids::add);
 
     } catch (IngestException e) {
+      if (batch.size() > 1) {
+        LOGGER.debug("Unable to store a batch of split items, storing them one at a time.", e);
+        batch.forEach(
+            storableResource ->
+                store(Collections.singletonList(storableResource), metacard, batchResult));
+        return;
+      }
       String errorMessage = "Error while storing entry in catalog.";
       LOGGER.info(errorMessage, e);
       INGEST_LOGGER.warn(errorMessage, e);
-      errorMessageConsumer.accept(errorMessage);
+      batchResult.errorMessages.add(errorMessage);
     } catch (SourceUnavailableException e) {
       String exceptionMessage = "Cannot create catalog entry because source is unavailable.";
       LOGGER.info(exceptionMessage, e);
@@ -322,6 +421,19 @@ public class ListApplication implements SparkApplication {
     }
   }
 
+  /** The IDs created and the errors hit while storing one batch. */
+  private static class BatchResult {
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final List<String> errorMessages = new ArrayList<>();
+
+    private void addTo(List<String> allIds, List<String> allErrorMessages) {
+      allIds.addAll(ids);
+      allErrorMessages.addAll(errorMessages);
+    }
+  }
+
   private static class AttachmentInfoImpl implements AttachmentInfo {
 
     private InputStream inputStream;
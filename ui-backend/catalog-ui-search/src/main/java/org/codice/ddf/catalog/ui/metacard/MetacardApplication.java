@@ -15,6 +15,8 @@ package org.codice.ddf.catalog.ui.metacard;
 
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -29,10 +31,12 @@ import static spark.Spark.patch;
 import static spark.Spark.post;
 import static spark.Spark.put;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -87,6 +91,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -108,6 +113,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.ws.rs.NotFoundException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -140,6 +146,8 @@ import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
 import spark.servlet.SparkApplication;
 
 public class MetacardApplication implements SparkApplication {
@@ -170,6 +178,8 @@ public class MetacardApplication implements SparkApplication {
 
   private static final int PAGE_SIZE = 250;
 
+  private static final int MAX_VALIDATED_METACARDS = 250;
+
   private static final Gson GSON =
       new GsonBuilder()
           .disableHtmlEscaping()
@@ -200,6 +210,8 @@ public class MetacardApplication implements SparkApplication {
 
   private final AssociatedQueryMetacardsHandler queryMetacardsHandler;
 
+  private final TransformedWorkspaceCache transformedWorkspaces;
+
   private final Security security;
 
   private OperationPropertySupplier operationPropertySupplier;
@@ -231,6 +243,7 @@ public class MetacardApplication implements SparkApplication {
     this.util = endpointUtil;
     this.validator = validator;
     this.transformer = transformer;
+    this.transformedWorkspaces = new TransformedWorkspaceCache(transformer);
     this.enumExtractor = enumExtractor;
     this.subscriptions = subscriptions;
     this.types = types;
@@ -302,6 +315,16 @@ public class MetacardApplication implements SparkApplication {
           String storeId = req.params(":storeId");
           return util.getJson(validator.getFullValidation(util.getMetacardById(id, storeId)));
         });
+    post(
+        "/metacards/attribute/validation",
+        APPLICATION_JSON,
+        (req, res) -> validateMetacards(req, res, validator::getValidations));
+
+    post(
+        "/metacards/validation",
+        APPLICATION_JSON,
+        (req, res) -> validateMetacards(req, res, validator::getFullValidations));
+
     post(
         "/prevalidate",
         APPLICATION_JSON,
@@ -489,7 +512,7 @@ public class MetacardApplication implements SparkApplication {
               !isEmpty(email) && subscriptions.getEmails(metacard.getId()).contains(email);
 
           return ImmutableMap.builder()
-              .putAll(transformer.transform(metacard))
+              .putAll(transformedWorkspaces.transform(metacard, Collections.emptySet()))
               .put("subscribed", isSubscribed)
               .build();
         },
@@ -503,29 +526,41 @@ public class MetacardApplication implements SparkApplication {
           Set<String> ids =
               isEmpty(email) ? Collections.emptySet() : subscriptions.getSubscriptions(email);
 
-          return util.getMetacardsByTag(WorkspaceConstants.WORKSPACE_TAG)
-              .values()
-              .stream()
-              .map(Result::getMetacard)
-              .map(
-                  metacard -> {
-                    boolean isSubscribed = ids.contains(metacard.getId());
-                    try {
-                      return ImmutableMap.builder()
-                          .putAll(transformer.transform(metacard))
-                          .put("subscribed", isSubscribed)
-                          .build();
-                    } catch (RuntimeException e) {
-                      LOGGER.debug(
-                          "Could not transform metacard. WARNING: This indicates there is invalid data in the system. Metacard title: '{}', id:'{}'",
-                          metacard.getTitle(),
-                          metacard.getId(),
-                          e);
-                    }
-                    return null;
-                  })
-              .filter(Objects::nonNull)
-              .collect(Collectors.toList());
+          RetrieveWorkspacesRequest request = new RetrieveWorkspacesRequest(req, filterBuilder);
+          Set<String> fields = request.getFields();
+          List<Metacard> workspaces = getWorkspaces(request);
+
+          List<Map<Object, Object>> workspacesJson =
+              workspaces
+                  .stream()
+                  .map(
+                      metacard -> {
+                        boolean isSubscribed = ids.contains(metacard.getId());
+                        try {
+                          return ImmutableMap.builder()
+                              .putAll(transformedWorkspaces.transform(metacard, fields))
+                              .put("subscribed", isSubscribed)
+                              .build();
+                        } catch (RuntimeException e) {
+                          LOGGER.debug(
+                              "Could not transform metacard. WARNING: This indicates there is invalid data in the system. Metacard title: '{}', id:'{}'",
+                              metacard.getTitle(),
+                              metacard.getId(),
+                              e);
+                        }
+                        return null;
+                      })
+                  .filter(Objects::nonNull)
+                  .collect(Collectors.toList());
+
+          if (!request.isPaged()) {
+            return workspacesJson;
+          }
+
+          Map<String, Object> page = new HashMap<>();
+          page.put("workspaces", workspacesJson);
+          page.put("nextCursor", request.getNextCursor(workspaces));
+          return page;
         },
         util::getJson);
 
@@ -639,18 +674,27 @@ public class MetacardApplication implements SparkApplication {
     get(
         "/enumerations/deprecated/:type",
         APPLICATION_JSON,
-        (req, res) -> util.getJson(enumExtractor.getDeprecatedEnumerations(req.params(":type"))));
+        (req, res) ->
+            withEntityTag(
+                req,
+                res,
+                util.getJson(enumExtractor.getDeprecatedEnumerations(req.params(":type")))));
 
     get(
         "/enumerations/metacardtype/:type",
         APPLICATION_JSON,
-        (req, res) -> util.getJson(enumExtractor.getEnumerations(req.params(":type"))));
+        (req, res) ->
+            withEntityTag(
+                req, res, util.getJson(enumExtractor.getEnumerations(req.params(":type")))));
 
     get(
         "/enumerations/attribute/:attribute",
         APPLICATION_JSON,
         (req, res) ->
-            util.getJson(enumExtractor.getAttributeEnumerations(req.params(":attribute"))));
+            withEntityTag(
+                req,
+                res,
+                util.getJson(enumExtractor.getAttributeEnumerations(req.params(":attribute")))));
 
     get(
         "/localcatalogid",
@@ -872,6 +916,91 @@ public class MetacardApplication implements SparkApplication {
     exception(RuntimeException.class, util::handleRuntimeException);
   }
 
+  /**
+   * Tags the response with a hash of its body. The enumerations are sorted, so the tag only changes
+   * when their content does, and a request that already has the current body gets a 304 instead.
+   * The If-None-Match header may list several tags or {@code *}, and tags are compared weakly.
+   */
+  @VisibleForTesting
+  static String withEntityTag(Request req, Response res, String body) {
+    String entityTag =
+        "\"" + Hashing.sha256().hashString(body, StandardCharsets.UTF_8).toString() + "\"";
+    res.header(ETAG, entityTag);
+
+    if (matchesEntityTag(req.headers(IF_NONE_MATCH), entityTag)) {
+      res.status(304);
+      return "";
+    }
+    return body;
+  }
+
+  private static boolean matchesEntityTag(@Nullable String ifNoneMatch, String entityTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.equals("*")) {
+        return true;
+      }
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals(entityTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Validates the metacards whose IDs are listed in the request body, which are fetched with a
+   * single query. The optional storeId query parameters restrict the query to those stores. A
+   * request for more than {@link #MAX_VALIDATED_METACARDS} metacards is rejected with a 400.
+   */
+  @VisibleForTesting
+  String validateMetacards(Request req, Response res, Function<List<Metacard>, ?> validation)
+      throws IOException {
+    List<String> ids = GSON.fromJson(util.safeGetBody(req), LIST_STRING);
+    if (ids == null) {
+      ids = Collections.emptyList();
+    }
+    if (ids.size() > MAX_VALIDATED_METACARDS) {
+      res.status(400);
+      return util.getResponseWrapper(
+          ERROR_RESPONSE_TYPE,
+          String.format("At most %d metacards can be validated at once", MAX_VALIDATED_METACARDS));
+    }
+
+    String[] storeIds = req.queryParamsValues("storeId");
+    List<Metacard> metacards =
+        util.getMetacardsWithTagByAttributes(
+                Core.ID, ids, "*", storeIds == null ? null : ImmutableSet.copyOf(storeIds))
+            .values()
+            .stream()
+            .map(Result::getMetacard)
+            .collect(Collectors.toList());
+    return util.getJson(validation.apply(metacards));
+  }
+
+  private List<Metacard> getWorkspaces(RetrieveWorkspacesRequest request)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    if (request.isPaged()) {
+      return catalogFramework
+          .query(request.getQueryRequest())
+          .getResults()
+          .stream()
+          .map(Result::getMetacard)
+          .collect(Collectors.toList());
+    }
+
+    return util.getMetacardsByTag(WorkspaceConstants.WORKSPACE_TAG)
+        .values()
+        .stream()
+        .map(Result::getMetacard)
+        .collect(Collectors.toList());
+  }
+
   private Metacard revert(String id, String revertId, String storeId)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException,
           IngestException, ResourceNotFoundException, IOException, ResourceNotSupportedException {
@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard;
+
+import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceConstants;
+import org.geotools.factory.CommonFactoryFinder;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import spark.Request;
+
+/**
+ * The parameters of a request for the workspaces visible to the current user.
+ *
+ * <p>The cursor query parameter is the opaque {@code nextCursor} of the previous page, and the
+ * count query parameter is the size of the page. When neither is given every workspace is returned
+ * at once. The attr and sort_by query parameters choose the order of the pages, and the fields
+ * query parameter is a comma-separated list of the workspace attributes to return.
+ *
+ * <p>The cursor holds the sort value and ID of the last workspace of the previous page, and the
+ * next page starts strictly after that workspace. Workspaces that are created, deleted or modified
+ * between requests therefore do not shift the pages the way an offset would.
+ */
+class RetrieveWorkspacesRequest {
+  private static final FilterFactory FILTER_FACTORY = CommonFactoryFinder.getFilterFactory(null);
+
+  private static final int DEFAULT_PAGE_SIZE = 50;
+
+  private static final int MAX_PAGE_SIZE = 250;
+
+  private static final String CURSOR = "cursor";
+
+  private static final String COUNT = "count";
+
+  private static final String ATTR = "attr";
+
+  private static final String ASCENDING = "asc";
+
+  private static final String SORT_BY = "sort_by";
+
+  private static final String FIELDS = "fields";
+
+  private static final String CURSOR_SEPARATOR = ".";
+
+  /** Marks a missing sort value in a cursor; it is not a character of the URL-safe alphabet. */
+  private static final String NO_VALUE = "~";
+
+  private static final Set<String> SORTABLE_ATTRIBUTES =
+      ImmutableSet.of(Core.MODIFIED, Core.METACARD_MODIFIED, Core.CREATED, Core.TITLE);
+
+  private final boolean paged;
+
+  private final int count;
+
+  private final String attr;
+
+  private final Set<String> fields;
+
+  private final QueryRequest queryRequest;
+
+  RetrieveWorkspacesRequest(Request req, FilterBuilder filterBuilder) {
+    String cursor = req.queryParams(CURSOR);
+    String countParam = req.queryParams(COUNT);
+
+    this.paged = cursor != null || countParam != null;
+    this.count =
+        countParam == null
+            ? DEFAULT_PAGE_SIZE
+            : Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(countParam)));
+    this.fields = parseFields(req.queryParams(FIELDS));
+
+    String attrParam = req.queryParams(ATTR);
+    this.attr =
+        attrParam == null || !SORTABLE_ATTRIBUTES.contains(attrParam) ? Core.MODIFIED : attrParam;
+    SortOrder sort =
+        ASCENDING.equals(req.queryParams(SORT_BY)) ? SortOrder.ASCENDING : SortOrder.DESCENDING;
+
+    Filter filter =
+        filterBuilder
+            .attribute(Core.METACARD_TAGS)
+            .is()
+            .like()
+            .text(WorkspaceConstants.WORKSPACE_TAG);
+    if (cursor != null) {
+      filter = filterBuilder.allOf(filter, afterCursor(cursor, sort));
+    }
+
+    // Ties are broken by ID so that every workspace has a distinct position to resume after
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        ADDITIONAL_SORT_BYS, new SortBy[] {new SortByImpl(Core.ID, SortOrder.ASCENDING)});
+
+    this.queryRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                filter,
+                1,
+                count,
+                new SortByImpl(attr, sort),
+                false,
+                TimeUnit.SECONDS.toMillis(10)),
+            false,
+            null,
+            properties);
+  }
+
+  /** @return whether the caller asked for a single page rather than every workspace */
+  boolean isPaged() {
+    return paged;
+  }
+
+  /** @return the attributes to return, or an empty set to return all of them */
+  Set<String> getFields() {
+    return fields;
+  }
+
+  QueryRequest getQueryRequest() {
+    return queryRequest;
+  }
+
+  /**
+   * @param page the workspaces of the current page, in order
+   * @return the cursor of the page after this one, or null if this is the last page
+   */
+  @Nullable
+  String getNextCursor(List<Metacard> page) {
+    if (page.size() < count) {
+      return null;
+    }
+    Metacard last = page.get(page.size() - 1);
+    Attribute attribute = last.getAttribute(attr);
+    Serializable value = attribute == null ? null : attribute.getValue();
+
+    String encodedValue;
+    if (value instanceof Date) {
+      encodedValue = encode(String.valueOf(((Date) value).getTime()));
+    } else if (value != null) {
+      encodedValue = encode(value.toString());
+    } else {
+      encodedValue = NO_VALUE;
+    }
+    return encodedValue + CURSOR_SEPARATOR + encode(last.getId());
+  }
+
+  /**
+   * Matches the workspaces that sort after the one the cursor points at: those with a later sort
+   * value, and those with the same sort value and a greater ID. Workspaces without a sort value
+   * sort last.
+   */
+  private Filter afterCursor(String cursor, SortOrder sort) {
+    int separator = cursor.indexOf(CURSOR_SEPARATOR);
+    if (separator < 0) {
+      throw new NumberFormatException("Invalid cursor " + cursor);
+    }
+    String encodedValue = cursor.substring(0, separator);
+    Literal id = FILTER_FACTORY.literal(decode(cursor.substring(separator + 1), cursor));
+
+    PropertyName sortProperty = FILTER_FACTORY.property(attr);
+    Filter laterId = FILTER_FACTORY.greater(FILTER_FACTORY.property(Core.ID), id);
+
+    if (NO_VALUE.equals(encodedValue)) {
+      return FILTER_FACTORY.and(FILTER_FACTORY.isNull(sortProperty), laterId);
+    }
+
+    Literal value = FILTER_FACTORY.literal(decodeSortValue(decode(encodedValue, cursor), cursor));
+    Filter laterValue =
+        sort == SortOrder.ASCENDING
+            ? FILTER_FACTORY.greater(sortProperty, value)
+            : FILTER_FACTORY.less(sortProperty, value);
+
+    return FILTER_FACTORY.or(
+        FILTER_FACTORY.isNull(sortProperty),
+        FILTER_FACTORY.or(
+            laterValue,
+            FILTER_FACTORY.and(FILTER_FACTORY.equals(sortProperty, value), laterId)));
+  }
+
+  private Serializable decodeSortValue(String value, String cursor) {
+    if (Core.TITLE.equals(attr)) {
+      return value;
+    }
+    try {
+      return new Date(Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException("Invalid cursor " + cursor);
+    }
+  }
+
+  private static String encode(String value) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String value, String cursor) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new NumberFormatException("Invalid cursor " + cursor);
+    }
+  }
+
+  private static Set<String> parseFields(@Nullable String fields) {
+    if (fields == null) {
+      return ImmutableSet.of();
+    }
+    return ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(fields));
+  }
+}
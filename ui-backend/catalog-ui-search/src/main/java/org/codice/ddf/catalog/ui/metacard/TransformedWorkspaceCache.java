@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceTransformer;
+
+/**
+ * Transforms workspace metacards into JSON-style data maps, remembering the result for each
+ * workspace until it is modified. A workspace without a {@link Core#METACARD_MODIFIED} date is
+ * transformed every time.
+ */
+class TransformedWorkspaceCache {
+
+  private static final int MAX_WORKSPACES = 1000;
+
+  private final WorkspaceTransformer transformer;
+
+  private final Cache<String, Map<String, Object>> transformed =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_WORKSPACES)
+          .expireAfterAccess(1, TimeUnit.HOURS)
+          .build();
+
+  TransformedWorkspaceCache(WorkspaceTransformer transformer) {
+    this.transformer = transformer;
+  }
+
+  /**
+   * @param workspace the workspace metacard to transform
+   * @param fields the attributes to transform, or an empty set to transform all of them; the
+   *     workspace ID is always included
+   * @return an immutable JSON-style data map of the workspace
+   */
+  Map<String, Object> transform(Metacard workspace, Set<String> fields) {
+    Serializable modified = getValue(workspace, Core.METACARD_MODIFIED);
+    if (!(modified instanceof Date)) {
+      return transformNow(workspace, fields);
+    }
+
+    String key = workspace.getId() + ":" + ((Date) modified).getTime() + ":" + fields;
+    Map<String, Object> json = transformed.getIfPresent(key);
+    if (json == null) {
+      json = transformNow(workspace, fields);
+      transformed.put(key, json);
+    }
+    return json;
+  }
+
+  private Map<String, Object> transformNow(Metacard workspace, Set<String> fields) {
+    if (fields.isEmpty()) {
+      return ImmutableMap.copyOf(transformer.transform(workspace));
+    }
+
+    // Only the requested attributes are transformed, so embedded lists and queries are only
+    // decoded when they are asked for
+    Metacard projected = new MetacardImpl(workspace.getMetacardType());
+    for (String field : Sets.union(ImmutableSet.of(Core.ID), fields)) {
+      Attribute attribute = workspace.getAttribute(field);
+      if (attribute != null) {
+        projected.setAttribute(attribute);
+      }
+    }
+    return ImmutableMap.copyOf(transformer.transform(workspace, projected));
+  }
+
+  @Nullable
+  private static Serializable getValue(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    return attribute == null ? null : attribute.getValue();
+  }
+}
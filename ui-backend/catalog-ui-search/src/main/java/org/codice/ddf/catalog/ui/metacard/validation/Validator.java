@@ -13,11 +13,12 @@
  */
 package org.codice.ddf.catalog.ui.metacard.validation;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
-import ddf.catalog.federation.FederationException;
-import ddf.catalog.source.SourceUnavailableException;
-import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.validation.AttributeValidator;
 import ddf.catalog.validation.AttributeValidatorRegistry;
 import ddf.catalog.validation.ReportingMetacardValidator;
@@ -25,28 +26,126 @@ import ddf.catalog.validation.report.AttributeValidationReport;
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.ui.enumeration.ServiceGeneration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Validator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(Validator.class);
+
+  private static final int MAX_RESOLVED_ATTRIBUTES = 1000;
+
   private final List<ReportingMetacardValidator> validators;
 
   private final List<AttributeValidatorRegistry> attributeValidatorRegistry;
 
+  private final ExecutorService executor;
+
+  /** Counts the binds and unbinds of the attribute validator registries. */
+  private final ServiceGeneration registryGeneration;
+
+  /** The registry generation that {@link #attributeValidators} was resolved at. */
+  private volatile long resolvedGeneration;
+
+  /**
+   * The attribute validators of every registry, combined per attribute name. Registries can change
+   * their validators without being rebound, so entries also expire after a short time.
+   */
+  private final Cache<String, Set<AttributeValidator>> attributeValidators =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_RESOLVED_ATTRIBUTES)
+          .expireAfterWrite(1, TimeUnit.MINUTES)
+          .build();
+
   public Validator(
       List<ReportingMetacardValidator> validators,
       List<AttributeValidatorRegistry> attributeValidatorRegistry) {
+    this(validators, attributeValidatorRegistry, MoreExecutors.newDirectExecutorService());
+  }
+
+  public Validator(
+      List<ReportingMetacardValidator> validators,
+      List<AttributeValidatorRegistry> attributeValidatorRegistry,
+      ExecutorService executor) {
+    this(validators, attributeValidatorRegistry, executor, new ServiceGeneration());
+  }
+
+  public Validator(
+      List<ReportingMetacardValidator> validators,
+      List<AttributeValidatorRegistry> attributeValidatorRegistry,
+      ExecutorService executor,
+      ServiceGeneration registryGeneration) {
     this.validators = validators;
     this.attributeValidatorRegistry = attributeValidatorRegistry;
+    this.executor = executor;
+    this.registryGeneration = registryGeneration;
+    this.resolvedGeneration = registryGeneration.get();
+  }
+
+  /**
+   * Validates the metacards concurrently.
+   *
+   * @return the {@link #getValidation(Metacard)} result of each metacard, keyed by metacard ID
+   */
+  public Map<String, List<ViolationResult>> getValidations(Collection<Metacard> metacards) {
+    return validateAll(metacards, this::getValidation);
+  }
+
+  /**
+   * Validates the metacards concurrently.
+   *
+   * @return the {@link #getFullValidation(Metacard)} result of each metacard, keyed by metacard ID
+   */
+  public Map<String, List<ValidationViolation>> getFullValidations(Collection<Metacard> metacards) {
+    return validateAll(metacards, this::getFullValidation);
   }
 
-  public List<ViolationResult> getValidation(Metacard metacard)
-      throws SourceUnavailableException, UnsupportedQueryException, FederationException {
+  private <T> Map<String, List<T>> validateAll(
+      Collection<Metacard> metacards, Function<Metacard, List<T>> validation) {
+    // Validators may query the catalog, so they run as the requesting subject
+    Subject subject = ThreadContext.getSubject();
+    Map<String, Future<List<T>>> futures = new LinkedHashMap<>();
+    for (Metacard metacard : metacards) {
+      Callable<List<T>> task = () -> validation.apply(metacard);
+      futures.put(
+          metacard.getId(), executor.submit(subject == null ? task : subject.associateWith(task)));
+    }
+
+    Map<String, List<T>> results = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<String, Future<List<T>>> future : futures.entrySet()) {
+        results.put(future.getKey(), future.getValue().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while validating metacards", e);
+    } catch (ExecutionException e) {
+      LOGGER.debug("Could not validate metacards", e);
+      throw new IllegalStateException("Could not validate metacards", e.getCause());
+    } finally {
+      futures.values().forEach(future -> future.cancel(true));
+    }
+    return results;
+  }
+
+  public List<ViolationResult> getValidation(Metacard metacard) {
     Set<ValidationViolation> attributeValidationViolations =
         validators
             .stream()
@@ -92,20 +191,9 @@ public class Validator {
   }
 
   public AttributeValidationResponse validateAttribute(String attribute, String value) {
-    Set<AttributeValidator> attributeValidators =
-        attributeValidatorRegistry
-            .stream()
-            .map(avr -> avr.getValidators(attribute))
-            .reduce(
-                (left, right) -> {
-                  left.addAll(right);
-                  return left;
-                })
-            .orElse(new HashSet<>());
-
     Set<String> suggestedValues = new HashSet<>();
     Set<ValidationViolation> violations = new HashSet<>();
-    for (AttributeValidator validator : attributeValidators) {
+    for (AttributeValidator validator : getAttributeValidators(attribute)) {
       Optional<AttributeValidationReport> validationReport =
           validator.validate(new AttributeImpl(attribute, value));
       if (validationReport.isPresent()) {
@@ -120,6 +208,28 @@ public class Validator {
     return new AttributeValidationResponse(violations, suggestedValues);
   }
 
+  private Set<AttributeValidator> getAttributeValidators(String attribute) {
+    long current = registryGeneration.get();
+    if (current != resolvedGeneration) {
+      attributeValidators.invalidateAll();
+      resolvedGeneration = current;
+    }
+
+    Set<AttributeValidator> resolved = attributeValidators.getIfPresent(attribute);
+    if (resolved == null) {
+      // The registries' sets are copied rather than merged into, since registries may return their
+      // own internal sets
+      Set<AttributeValidator> merged = new HashSet<>();
+      attributeValidatorRegistry.forEach(avr -> merged.addAll(avr.getValidators(attribute)));
+      resolved = ImmutableSet.copyOf(merged);
+      // Not cached if a registry was bound or unbound meanwhile
+      if (registryGeneration.get() == current) {
+        attributeValidators.put(attribute, resolved);
+      }
+    }
+    return resolved;
+  }
+
   private Map<String, ViolationResult> getViolationsResult(
       Set<ValidationViolation> attributeValidationViolations) {
     Map<String, ViolationResult> violationsResult = new HashMap<>();
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard.workspace.transformer.impl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Encodes metacards embedded in a workspace, such as its lists, into a compact form that is much
+ * cheaper to read and write than the full metacard XML.
+ *
+ * <p>An encoded metacard is a single {@code embedded-metacard} element carrying a format version
+ * and a JSON object that maps each attribute name to its {@link AttributeFormat} and values, so it
+ * is still well-formed XML wherever the attribute is treated as such. Strings that do not start
+ * with that element are legacy metacard XML and are left to the XML input transformer.
+ */
+final class EmbeddedMetacardCodec {
+
+  static final int VERSION = 1;
+
+  private static final String ELEMENT_PREFIX = "<embedded-metacard version=\"";
+
+  private static final String ELEMENT_SUFFIX = "</embedded-metacard>";
+
+  private static final String FORMAT_KEY = "f";
+
+  private static final String VALUES_KEY = "v";
+
+  private static final String MULTIVALUED_KEY = "m";
+
+  private static final String DECODED_TYPE_NAME = "embedded-metacard";
+
+  private static final Map<AttributeFormat, AttributeType<?>> TYPES =
+      new EnumMap<>(AttributeFormat.class);
+
+  static {
+    TYPES.put(AttributeFormat.STRING, BasicTypes.STRING_TYPE);
+    TYPES.put(AttributeFormat.XML, BasicTypes.XML_TYPE);
+    TYPES.put(AttributeFormat.GEOMETRY, BasicTypes.GEO_TYPE);
+    TYPES.put(AttributeFormat.DATE, BasicTypes.DATE_TYPE);
+    TYPES.put(AttributeFormat.BOOLEAN, BasicTypes.BOOLEAN_TYPE);
+    TYPES.put(AttributeFormat.SHORT, BasicTypes.SHORT_TYPE);
+    TYPES.put(AttributeFormat.INTEGER, BasicTypes.INTEGER_TYPE);
+    TYPES.put(AttributeFormat.LONG, BasicTypes.LONG_TYPE);
+    TYPES.put(AttributeFormat.FLOAT, BasicTypes.FLOAT_TYPE);
+    TYPES.put(AttributeFormat.DOUBLE, BasicTypes.DOUBLE_TYPE);
+    TYPES.put(AttributeFormat.BINARY, BasicTypes.BINARY_TYPE);
+  }
+
+  private EmbeddedMetacardCodec() {}
+
+  /** @return whether {@code value} was written by {@link #encode(Metacard)} */
+  static boolean isEncoded(String value) {
+    return value.startsWith(ELEMENT_PREFIX);
+  }
+
+  /**
+   * @return the encoded form of the attributes described by {@code metacard}'s type, or null if
+   *     any of them holds a value that can only be serialized as an object
+   */
+  @Nullable
+  static String encode(Metacard metacard) {
+    JsonObject attributes = new JsonObject();
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      Attribute attribute = metacard.getAttribute(descriptor.getName());
+      if (attribute == null || attribute.getValues() == null) {
+        continue;
+      }
+
+      AttributeFormat format = descriptor.getType().getAttributeFormat();
+      JsonArray values = new JsonArray();
+      for (Serializable value : attribute.getValues()) {
+        JsonPrimitive encoded = encodeValue(format, value);
+        if (encoded == null) {
+          return null;
+        }
+        values.add(encoded);
+      }
+
+      JsonObject encodedAttribute = new JsonObject();
+      encodedAttribute.addProperty(FORMAT_KEY, format.name());
+      if (descriptor.isMultiValued()) {
+        encodedAttribute.addProperty(MULTIVALUED_KEY, true);
+      }
+      encodedAttribute.add(VALUES_KEY, values);
+      attributes.add(descriptor.getName(), encodedAttribute);
+    }
+
+    return ELEMENT_PREFIX + VERSION + "\">" + escape(attributes.toString()) + ELEMENT_SUFFIX;
+  }
+
+  /**
+   * Decodes a string written by {@link #encode(Metacard)}. The returned metacard's type describes
+   * exactly the encoded attributes; callers that need a particular metacard type are expected to
+   * copy the attributes into a metacard of that type.
+   *
+   * @throws WorkspaceTransformException if {@code value} is malformed or was written by an
+   *     unsupported version of this codec
+   */
+  static Metacard decode(String value) {
+    int versionEnd = value.indexOf("\">", ELEMENT_PREFIX.length());
+    if (versionEnd < 0 || !value.endsWith(ELEMENT_SUFFIX)) {
+      throw new WorkspaceTransformException("Malformed embedded metacard");
+    }
+
+    String version = value.substring(ELEMENT_PREFIX.length(), versionEnd);
+    if (!String.valueOf(VERSION).equals(version)) {
+      throw new WorkspaceTransformException(
+          "Unsupported embedded metacard version \"" + version + "\"");
+    }
+
+    String json =
+        unescape(value.substring(versionEnd + 2, value.length() - ELEMENT_SUFFIX.length()));
+    Set<AttributeDescriptor> descriptors = new HashSet<>();
+    List<Attribute> attributes = new ArrayList<>();
+    try {
+      for (Map.Entry<String, JsonElement> entry :
+          new JsonParser().parse(json).getAsJsonObject().entrySet()) {
+        JsonObject encodedAttribute = entry.getValue().getAsJsonObject();
+        AttributeFormat format =
+            AttributeFormat.valueOf(encodedAttribute.get(FORMAT_KEY).getAsString());
+        AttributeType<?> type = TYPES.get(format);
+        if (type == null) {
+          throw new WorkspaceTransformException("Unsupported attribute format " + format);
+        }
+
+        List<Serializable> values = new ArrayList<>();
+        for (JsonElement encoded : encodedAttribute.getAsJsonArray(VALUES_KEY)) {
+          values.add(decodeValue(format, encoded));
+        }
+        descriptors.add(
+            new AttributeDescriptorImpl(
+                entry.getKey(),
+                false /* indexed */,
+                true /* stored */,
+                false /* tokenized */,
+                encodedAttribute.has(MULTIVALUED_KEY),
+                type));
+        attributes.add(new AttributeImpl(entry.getKey(), values));
+      }
+    } catch (JsonParseException
+        | IllegalStateException
+        | IllegalArgumentException
+        | UnsupportedOperationException e) {
+      throw new WorkspaceTransformException(e);
+    }
+
+    Metacard metacard = new MetacardImpl(new MetacardTypeImpl(DECODED_TYPE_NAME, descriptors));
+    attributes.forEach(metacard::setAttribute);
+    return metacard;
+  }
+
+  @Nullable
+  private static JsonPrimitive encodeValue(AttributeFormat format, Serializable value) {
+    switch (format) {
+      case STRING:
+      case XML:
+      case GEOMETRY:
+        return new JsonPrimitive(value.toString());
+      case DATE:
+        return value instanceof Date ? new JsonPrimitive(((Date) value).getTime()) : null;
+      case BOOLEAN:
+        return value instanceof Boolean ? new JsonPrimitive((Boolean) value) : null;
+      case SHORT:
+      case INTEGER:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return value instanceof Number ? new JsonPrimitive((Number) value) : null;
+      case BINARY:
+        return value instanceof byte[]
+            ? new JsonPrimitive(Base64.getEncoder().encodeToString((byte[]) value))
+            : null;
+      default:
+        return null;
+    }
+  }
+
+  private static Serializable decodeValue(AttributeFormat format, JsonElement value) {
+    switch (format) {
+      case DATE:
+        return new Date(value.getAsLong());
+      case BOOLEAN:
+        return value.getAsBoolean();
+      case SHORT:
+        return value.getAsShort();
+      case INTEGER:
+        return value.getAsInt();
+      case LONG:
+        return value.getAsLong();
+      case FLOAT:
+        return value.getAsFloat();
+      case DOUBLE:
+        return value.getAsDouble();
+      case BINARY:
+        return Base64.getDecoder().decode(value.getAsString());
+      default:
+        return value.getAsString();
+    }
+  }
+
+  private static String escape(String text) {
+    return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  private static String unescape(String text) {
+    return text.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+  }
+}
@@ -18,4 +18,8 @@ public class WorkspaceTransformException extends RuntimeException {
   public WorkspaceTransformException(Exception e) {
     super(e);
   }
+
+  public WorkspaceTransformException(String message) {
+    super(message);
+  }
 }
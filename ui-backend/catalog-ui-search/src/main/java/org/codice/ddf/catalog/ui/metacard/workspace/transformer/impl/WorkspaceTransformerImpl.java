@@ -13,24 +13,33 @@
  */
 package org.codice.ddf.catalog.ui.metacard.workspace.transformer.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
@@ -44,6 +53,8 @@ import org.slf4j.LoggerFactory;
 public class WorkspaceTransformerImpl implements WorkspaceTransformer {
   private static final Logger LOGGER = LoggerFactory.getLogger(WorkspaceTransformerImpl.class);
 
+  private static final int MAX_DECODED_METACARDS = 1000;
+
   private final CatalogFramework catalogFramework;
 
   private final InputTransformer inputTransformer;
@@ -52,6 +63,25 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
 
   private final List<WorkspaceTransformation> transformations;
 
+  /**
+   * Embedded metacards decoded so far, keyed by a hash of their stored string. A workspace's
+   * embedded metacards rarely change between reads, so most reads are served from here.
+   */
+  private final Cache<HashCode, Metacard> decodedMetacards =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_DECODED_METACARDS)
+          .expireAfterAccess(1, TimeUnit.HOURS)
+          .build();
+
+  /**
+   * The transformations keyed by the metacard and JSON keys they handle, built lazily from {@link
+   * #transformations}. A table built before the last bind or unbind is stale and is rebuilt.
+   */
+  @Nullable private volatile DispatchTable dispatchTable;
+
+  /** Counts the binds and unbinds of transformations. */
+  private final AtomicLong generation = new AtomicLong();
+
   public WorkspaceTransformerImpl(
       CatalogFramework catalogFramework,
       InputTransformer inputTransformer,
@@ -63,6 +93,37 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
     this.transformations = transformations;
   }
 
+  /**
+   * Called when a {@link WorkspaceTransformation} service is bound so the dispatch table is rebuilt
+   * from the updated transformation list.
+   */
+  public void bindTransformation(WorkspaceTransformation transformation) {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Called when a {@link WorkspaceTransformation} service is unbound so the dispatch table is
+   * rebuilt from the updated transformation list.
+   */
+  public void unbindTransformation(WorkspaceTransformation transformation) {
+    generation.incrementAndGet();
+  }
+
+  private DispatchTable getDispatchTable() {
+    long current = generation.get();
+    DispatchTable table = dispatchTable;
+    if (table == null || table.generation != current) {
+      table = new DispatchTable(transformations, current);
+      // A transformation bound or unbound while building may be missing from the table, so it is
+      // only published if the generation is unchanged. Its generation is checked on every read as
+      // well, in case a bind lands between this check and the write.
+      if (generation.get() == current) {
+        dispatchTable = table;
+      }
+    }
+    return table;
+  }
+
   private Optional<Map.Entry<String, Object>> metacardEntryToJsonEntry(
       final Map.Entry<String, Object> entry,
       WorkspaceTransformation transformation,
@@ -83,16 +144,6 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
     }
   }
 
-  private Optional<Map.Entry<String, Object>> metacardEntryToJsonEntry(
-      final Map.Entry<String, Object> entry, Metacard workspaceMetacard) {
-    return transformations
-        .stream()
-        .filter(transformation -> entry.getKey().equals(transformation.getMetacardKey()))
-        .findFirst()
-        .map(transformation -> metacardEntryToJsonEntry(entry, transformation, workspaceMetacard))
-        .orElse(Optional.of(entry));
-  }
-
   private Optional<Map.Entry<String, Object>> jsonEntryToMetacardEntry(
       Map.Entry<String, Object> entry, WorkspaceTransformation transformation) {
     if (transformation.getJsonValueType().isInstance(entry.getValue())) {
@@ -110,16 +161,6 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
     }
   }
 
-  private Optional<Map.Entry<String, Object>> jsonEntryToMetacardEntry(
-      Map.Entry<String, Object> entry) {
-    return transformations
-        .stream()
-        .filter(transformation -> entry.getKey().equals(transformation.getJsonKey()))
-        .findFirst()
-        .map(transformation -> jsonEntryToMetacardEntry(entry, transformation))
-        .orElse(Optional.of(entry));
-  }
-
   private void addAttributeValue(Metacard metacard, Map.Entry<String, Object> entry) {
     final Object value = entry.getValue();
 
@@ -145,14 +186,23 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
 
   @Override
   public void transformIntoMetacard(Map<String, Object> json, Metacard init) {
-    json.entrySet()
-        .stream()
-        .map(this::jsonEntryToMetacardEntry)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(endpointUtil::convertDateEntries)
-        .filter(Objects::nonNull)
-        .forEach(entry -> addAttributeValue(init, entry));
+    Map<String, WorkspaceTransformation> byJsonKey = getDispatchTable().byJsonKey;
+
+    for (Map.Entry<String, Object> entry : json.entrySet()) {
+      WorkspaceTransformation transformation = byJsonKey.get(entry.getKey());
+      Map.Entry<String, Object> metacardEntry = entry;
+      if (transformation != null) {
+        metacardEntry = jsonEntryToMetacardEntry(entry, transformation).orElse(null);
+        if (metacardEntry == null) {
+          continue;
+        }
+      }
+
+      metacardEntry = endpointUtil.convertDateEntries(metacardEntry);
+      if (metacardEntry != null) {
+        addAttributeValue(init, metacardEntry);
+      }
+    }
   }
 
   @Override
@@ -167,34 +217,44 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
     return transform(workspaceMetacard, workspaceMetacard);
   }
 
-  @Nullable
-  private Map.Entry<String, Object> getEntryFromDescriptor(
-      Metacard metacard, AttributeDescriptor descriptor) {
-    Attribute attribute = metacard.getAttribute(descriptor.getName());
-    if (attribute == null) {
-      return null;
-    } else if (descriptor.isMultiValued()) {
-      return new AbstractMap.SimpleEntry<>(attribute.getName(), attribute.getValues());
-    } else {
-      return new AbstractMap.SimpleEntry<>(attribute.getName(), attribute.getValue());
-    }
-  }
-
   @Override
   public Map<String, Object> transform(Metacard workspaceMetacard, Metacard metacard) {
-    return Optional.of(metacard)
-        .map(Metacard::getMetacardType)
-        .map(MetacardType::getAttributeDescriptors)
-        .orElseGet(Collections::emptySet)
-        .stream()
-        .map(descriptor -> getEntryFromDescriptor(metacard, descriptor))
-        .filter(Objects::nonNull)
-        .map(entry -> this.metacardEntryToJsonEntry(entry, workspaceMetacard))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(entry -> entry.getKey() != null)
-        .filter(entry -> entry.getValue() != null)
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (left, right) -> left));
+    MetacardType metacardType = metacard.getMetacardType();
+    if (metacardType == null) {
+      return new HashMap<>();
+    }
+
+    Map<String, WorkspaceTransformation> byMetacardKey = getDispatchTable().byMetacardKey;
+    Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+    Map<String, Object> json = Maps.newHashMapWithExpectedSize(descriptors.size());
+
+    for (AttributeDescriptor descriptor : descriptors) {
+      Attribute attribute = metacard.getAttribute(descriptor.getName());
+      if (attribute == null) {
+        continue;
+      }
+
+      String key = attribute.getName();
+      Object value = descriptor.isMultiValued() ? attribute.getValues() : attribute.getValue();
+      WorkspaceTransformation transformation = key == null ? null : byMetacardKey.get(key);
+      if (transformation != null) {
+        Map.Entry<String, Object> jsonEntry =
+            metacardEntryToJsonEntry(
+                    new AbstractMap.SimpleEntry<>(key, value), transformation, workspaceMetacard)
+                .orElse(null);
+        if (jsonEntry == null) {
+          continue;
+        }
+        key = jsonEntry.getKey();
+        value = jsonEntry.getValue();
+      }
+
+      if (key != null && value != null) {
+        json.putIfAbsent(key, value);
+      }
+    }
+
+    return json;
   }
 
   @Override
@@ -219,4 +279,45 @@ public class WorkspaceTransformerImpl implements WorkspaceTransformer {
       throw new WorkspaceTransformException(ex);
     }
   }
+
+  @Override
+  public String metacardToEmbeddedValue(Metacard metacard) {
+    String encoded = EmbeddedMetacardCodec.encode(metacard);
+    return encoded == null ? metacardToXml(metacard) : encoded;
+  }
+
+  @Override
+  public Metacard embeddedValueToMetacard(String value) {
+    HashCode key = Hashing.sha256().hashString(value, StandardCharsets.UTF_8);
+    Metacard decoded = decodedMetacards.getIfPresent(key);
+    if (decoded == null) {
+      decoded =
+          EmbeddedMetacardCodec.isEncoded(value)
+              ? EmbeddedMetacardCodec.decode(value)
+              : xmlToMetacard(value);
+      decodedMetacards.put(key, decoded);
+    }
+    // The cached metacard is shared, so callers get a copy they are free to modify
+    return new MetacardImpl(decoded);
+  }
+
+  /**
+   * Looks up the transformation for a metacard or JSON key. When several transformations share a
+   * key, the first one in the transformation list is used.
+   */
+  private static class DispatchTable {
+    private final long generation;
+
+    private final Map<String, WorkspaceTransformation> byMetacardKey = new HashMap<>();
+
+    private final Map<String, WorkspaceTransformation> byJsonKey = new HashMap<>();
+
+    DispatchTable(List<WorkspaceTransformation> transformations, long generation) {
+      this.generation = generation;
+      for (WorkspaceTransformation transformation : transformations) {
+        byMetacardKey.putIfAbsent(transformation.getMetacardKey(), transformation);
+        byJsonKey.putIfAbsent(transformation.getJsonKey(), transformation);
+      }
+    }
+  }
 }
@@ -27,27 +27,26 @@ import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.plugin.OAuthPluginException;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.codice.ddf.catalog.ui.CqlParseException;
 import org.codice.ddf.catalog.ui.metacard.EntityTooLargeException;
+import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponseImpl;
+import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponseWriter;
 import org.codice.ddf.catalog.ui.query.cql.CqlRequestImpl;
 import org.codice.ddf.catalog.ui.query.cql.SourceWarningsFilterManager;
 import org.codice.ddf.catalog.ui.query.geofeature.FeatureService;
 import org.codice.ddf.catalog.ui.query.handlers.CqlTransformHandler;
-import org.codice.ddf.catalog.ui.query.suggestion.DmsCoordinateProcessor;
-import org.codice.ddf.catalog.ui.query.suggestion.LatLonCoordinateProcessor;
-import org.codice.ddf.catalog.ui.query.suggestion.MgrsCoordinateProcessor;
-import org.codice.ddf.catalog.ui.query.suggestion.UtmUpsCoordinateProcessor;
+import org.codice.ddf.catalog.ui.query.suggestion.SuggestionService;
 import org.codice.ddf.catalog.ui.query.utility.CqlQueryResponse;
 import org.codice.ddf.catalog.ui.query.validate.CqlValidationHandler;
 import org.codice.ddf.catalog.ui.util.CqlQueriesImpl;
 import org.codice.ddf.catalog.ui.util.EndpointUtil;
 import org.codice.ddf.catalog.ui.ws.JsonRpc;
-import org.codice.ddf.spatial.geocoding.Suggestion;
 import org.codice.gsonsupport.GsonTypeAdapters.DateLongFormatTypeAdapter;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
 import org.geotools.geojson.feature.FeatureJSON;
@@ -70,6 +69,9 @@ public class QueryApplication implements SparkApplication, Function {
           .registerTypeAdapter(Date.class, new DateLongFormatTypeAdapter())
           .create();
 
+  private static final CqlQueryResponseWriter CQL_RESPONSE_WRITER =
+      new CqlQueryResponseWriter(GSON);
+
   private static final String MESSAGE = "message";
 
   private static final String QUERY_ENDPOINT_FAILED = "Query endpoint failed";
@@ -78,13 +80,7 @@ public class QueryApplication implements SparkApplication, Function {
 
   private static final String URL_KEY = "url";
 
-  private final LatLonCoordinateProcessor latLonCoordinateProcessor;
-
-  private final DmsCoordinateProcessor dmsCoordinateProcessor;
-
-  private final MgrsCoordinateProcessor mgrsCoordinateProcessor;
-
-  private final UtmUpsCoordinateProcessor utmUpsCoordinateProcessor;
+  private final SuggestionService suggestionService;
 
   private final SourceWarningsFilterManager sourceWarningsFilterManager;
 
@@ -101,15 +97,9 @@ public class QueryApplication implements SparkApplication, Function {
   public QueryApplication(
       CqlTransformHandler cqlTransformHandler,
       CqlValidationHandler cqlValidationHandler,
-      LatLonCoordinateProcessor latLonCoordinateProcessor,
-      DmsCoordinateProcessor dmsCoordinateProcessor,
-      MgrsCoordinateProcessor mgrsCoordinateProcessor,
-      UtmUpsCoordinateProcessor utmUpsCoordinateProcessor,
+      SuggestionService suggestionService,
       SourceWarningsFilterManager sourceWarningsFilterManager) {
-    this.latLonCoordinateProcessor = latLonCoordinateProcessor;
-    this.dmsCoordinateProcessor = dmsCoordinateProcessor;
-    this.mgrsCoordinateProcessor = mgrsCoordinateProcessor;
-    this.utmUpsCoordinateProcessor = utmUpsCoordinateProcessor;
+    this.suggestionService = suggestionService;
     this.cqlTransformHandler = cqlTransformHandler;
     this.cqlValidationHandler = cqlValidationHandler;
     this.sourceWarningsFilterManager = sourceWarningsFilterManager;
@@ -125,9 +115,12 @@ public class QueryApplication implements SparkApplication, Function {
         (req, res) -> {
           try {
             CqlRequestImpl cqlRequest = GSON.fromJson(util.safeGetBody(req), CqlRequestImpl.class);
-            CqlQueryResponse cqlQueryResponse = cqlQueryUtil.executeCqlQuery(cqlRequest);
+            CqlQueryResponseImpl cqlQueryResponse = cqlQueryUtil.executeCqlQuery(cqlRequest, true);
             addApplicableWarningsTo(cqlQueryResponse);
-            return GSON.toJson(cqlQueryResponse);
+            try (OutputStream servletOutputStream = res.raw().getOutputStream()) {
+              CQL_RESPONSE_WRITER.write(cqlQueryResponse, servletOutputStream);
+            }
+            return "";
           } catch (OAuthPluginException e) {
             res.status(e.getErrorType().getStatusCode());
             return GSON.toJson(ImmutableMap.of(ID_KEY, e.getSourceId(), URL_KEY, e.getUrl()));
@@ -144,22 +137,14 @@ public class QueryApplication implements SparkApplication, Function {
 
     get(
         "/geofeature/suggestions",
-        (req, res) -> {
-          String query = req.queryParams("q");
-          List<Suggestion> results = this.featureService.getSuggestedFeatureNames(query, 10);
-          List<Suggestion> efficientPrependingResults = new LinkedList<>(results);
-          this.utmUpsCoordinateProcessor.enhanceResults(efficientPrependingResults, query);
-          this.mgrsCoordinateProcessor.enhanceResults(efficientPrependingResults, query);
-          this.dmsCoordinateProcessor.enhanceResults(efficientPrependingResults, query);
-          this.latLonCoordinateProcessor.enhanceResults(efficientPrependingResults, query);
-          return GSON.toJson(efficientPrependingResults);
-        });
+        (req, res) -> GSON.toJson(suggestionService.getSuggestions(req.queryParams("q"))));
 
     get(
         "/geofeature",
         (req, res) -> {
           String id = req.queryParams("id");
-          SimpleFeature feature = this.featureService.getFeatureById(id);
+          double tolerance = NumberUtils.toDouble(req.queryParams("tolerance"), 0);
+          SimpleFeature feature = this.featureService.getFeatureById(id, tolerance);
           if (feature == null) {
             res.status(404);
             return GSON.toJson(ImmutableMap.of(MESSAGE, "Feature not found"));
@@ -40,6 +40,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTermMatcher;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTermsDelegate;
 import org.codice.ddf.catalog.ui.query.utility.CqlQueryResponse;
 import org.codice.ddf.catalog.ui.query.utility.CqlResult;
@@ -60,7 +61,7 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
   public static final String SHOWING_RESULTS_FOR = "showingResultsFor";
   public static final String SPELLCHECK = "spellcheck";
 
-  private final List<CqlResult> results;
+  private List<CqlResult> results;
 
   private final String id;
 
@@ -81,6 +82,16 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
   // Transient so as not to be serialized to/from JSON
   private final transient QueryResponse queryResponse;
 
+  private final transient SearchTermMatcher termMatcher;
+
+  private final transient QuerySpatialContext spatialContext;
+
+  private final transient boolean normalize;
+
+  private final transient ActionRegistry actionRegistry;
+
+  private final transient TransformerDescriptors descriptors;
+
   public CqlQueryResponseImpl(
       String id,
       QueryRequest request,
@@ -90,9 +101,39 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
       FilterAdapter filterAdapter,
       ActionRegistry actionRegistry,
       TransformerDescriptors descriptors) {
+    this(
+        id,
+        request,
+        queryResponse,
+        source,
+        normalize,
+        filterAdapter,
+        actionRegistry,
+        descriptors,
+        false);
+  }
+
+  /**
+   * @param lazyResults when {@code true} the {@link CqlResult}s are not built up front. They are
+   *     either converted one at a time by {@link CqlQueryResponseWriter} or materialized on the
+   *     first call to {@link #getResults()}.
+   */
+  public CqlQueryResponseImpl(
+      String id,
+      QueryRequest request,
+      QueryResponse queryResponse,
+      String source,
+      boolean normalize,
+      FilterAdapter filterAdapter,
+      ActionRegistry actionRegistry,
+      TransformerDescriptors descriptors,
+      boolean lazyResults) {
     this.id = id;
 
     this.queryResponse = queryResponse;
+    this.normalize = normalize;
+    this.actionRegistry = actionRegistry;
+    this.descriptors = descriptors;
 
     AtomicBoolean logOnceState = new AtomicBoolean(false);
     Consumer<String> logOnce =
@@ -136,22 +177,13 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
                       return mt1;
                     }));
 
-    final Set<SearchTerm> searchTerms = extractSearchTerms(request.getQuery(), filterAdapter);
-    results =
-        queryResponse
-            .getResults()
-            .stream()
-            .map(
-                result ->
-                    new CqlResultImpl(
-                        result,
-                        searchTerms,
-                        queryResponse.getRequest(),
-                        normalize,
-                        filterAdapter,
-                        actionRegistry))
-            .map(cqlResult -> new CqlResultImpl(cqlResult, descriptors))
-            .collect(Collectors.toList());
+    this.termMatcher =
+        SearchTermMatcher.compile(extractSearchTerms(request.getQuery(), filterAdapter));
+    this.spatialContext =
+        QuerySpatialContext.create(queryResponse.getRequest().getQuery(), filterAdapter);
+    if (!lazyResults) {
+      results = convertResults();
+    }
 
     this.facets = getFacetResults(queryResponse.getPropertyValue(EXPERIMENTAL_FACET_RESULTS_KEY));
     this.didYouMeanFields = (List<String>) queryResponse.getProperties().get(DID_YOU_MEAN);
@@ -163,6 +195,24 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
     this.statusBySource = (Map<String, Status>) queryResponse.getProperties().get("statusBySource");
   }
 
+  /**
+   * Converts a single catalog {@link Result} of this response into the {@link CqlResult} the UI
+   * expects. Used to serialize results one at a time without holding the whole page in memory.
+   */
+  CqlResult toCqlResult(Result result) {
+    return new CqlResultImpl(
+        new CqlResultImpl(result, termMatcher, spatialContext, normalize, actionRegistry),
+        descriptors);
+  }
+
+  private List<CqlResult> convertResults() {
+    return queryResponse
+        .getResults()
+        .stream()
+        .map(this::toCqlResult)
+        .collect(Collectors.toList());
+  }
+
   private Map<String, List<FacetValueCount>> getFacetResults(Serializable facetResults) {
     if (!(facetResults instanceof List)) {
       return Collections.emptyMap();
@@ -193,6 +243,9 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
   }
 
   public List<CqlResult> getResults() {
+    if (results == null) {
+      results = convertResults();
+    }
     return results;
   }
 
@@ -207,4 +260,28 @@ public class CqlQueryResponseImpl implements CqlQueryResponse {
   public Set<String> getWarnings() {
     return warnings;
   }
+
+  public Map<String, List<FacetValueCount>> getFacets() {
+    return facets;
+  }
+
+  public List<String> getShowingResultsForFields() {
+    return showingResultsForFields;
+  }
+
+  public List<String> getDidYouMeanFields() {
+    return didYouMeanFields;
+  }
+
+  public Boolean getUserSpellcheckIsOn() {
+    return userSpellcheckIsOn;
+  }
+
+  public Map<String, Status> getStatusBySource() {
+    return statusBySource;
+  }
+
+  public List<ResultHighlight> getHighlights() {
+    return highlights;
+  }
 }
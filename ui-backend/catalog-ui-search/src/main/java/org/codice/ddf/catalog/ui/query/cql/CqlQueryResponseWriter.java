@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.FacetValueCount;
+import ddf.catalog.operation.ResultHighlight;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.codice.ddf.catalog.ui.query.utility.CqlResult;
+import org.codice.ddf.catalog.ui.query.utility.MetacardAttribute;
+import org.codice.ddf.catalog.ui.query.utility.Status;
+
+/**
+ * Streams a {@link CqlQueryResponseImpl} as JSON. Each catalog result is converted to a {@link
+ * CqlResult} and written immediately, so at most one converted result is held in memory at a time.
+ *
+ * <p>The output has the same shape as serializing the response with {@link Gson#toJson(Object)}.
+ * Once writing has started the HTTP status can no longer be changed, so any error after that point
+ * results in a truncated body.
+ */
+public class CqlQueryResponseWriter {
+
+  private static final Type TYPES_TYPE =
+      new TypeToken<Map<String, Map<String, MetacardAttribute>>>() {}.getType();
+
+  private static final Type FACETS_TYPE =
+      new TypeToken<Map<String, List<FacetValueCount>>>() {}.getType();
+
+  private static final Type STRING_LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+
+  private static final Type STATUS_BY_SOURCE_TYPE =
+      new TypeToken<Map<String, Status>>() {}.getType();
+
+  private static final Type HIGHLIGHTS_TYPE = new TypeToken<List<ResultHighlight>>() {}.getType();
+
+  private static final Type WARNINGS_TYPE = new TypeToken<Set<String>>() {}.getType();
+
+  private final Gson gson;
+
+  public CqlQueryResponseWriter(Gson gson) {
+    this.gson = gson;
+  }
+
+  public void write(CqlQueryResponseImpl response, OutputStream outputStream) throws IOException {
+    JsonWriter writer =
+        gson.newJsonWriter(
+            new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+
+    writer.beginObject();
+
+    writer.name("results");
+    writer.beginArray();
+    for (Result result : response.getQueryResponse().getResults()) {
+      CqlResult cqlResult = response.toCqlResult(result);
+      gson.toJson(cqlResult, cqlResult.getClass(), writer);
+    }
+    writer.endArray();
+
+    writeField(writer, "id", response.getId(), String.class);
+    writeField(writer, "types", response.getTypes(), TYPES_TYPE);
+    writeField(writer, "facets", response.getFacets(), FACETS_TYPE);
+    writeField(
+        writer, "showingResultsForFields", response.getShowingResultsForFields(), STRING_LIST_TYPE);
+    writeField(writer, "didYouMeanFields", response.getDidYouMeanFields(), STRING_LIST_TYPE);
+    writeField(writer, "userSpellcheckIsOn", response.getUserSpellcheckIsOn(), Boolean.class);
+    writeField(writer, "statusBySource", response.getStatusBySource(), STATUS_BY_SOURCE_TYPE);
+    writeField(writer, "highlights", response.getHighlights(), HIGHLIGHTS_TYPE);
+    writeField(writer, "warnings", response.getWarnings(), WARNINGS_TYPE);
+
+    writer.endObject();
+    writer.flush();
+  }
+
+  private void writeField(JsonWriter writer, String name, Object value, Type type)
+      throws IOException {
+    writer.name(name);
+    gson.toJson(value, type, writer);
+  }
+}
@@ -14,7 +14,6 @@
 package org.codice.ddf.catalog.ui.query.cql;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import ddf.action.Action;
 import ddf.action.ActionRegistry;
 import ddf.catalog.data.Attribute;
@@ -24,37 +23,23 @@ import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.filter.FilterAdapter;
-import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
-import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transformer.metacard.propertyjson.PropertyJsonMetacardTransformer;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
-import java.text.ParseException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.StringUtils;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
-import org.codice.ddf.catalog.ui.query.delegate.WktQueryDelegate;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTermMatcher;
 import org.codice.ddf.catalog.ui.query.utility.CqlResult;
 import org.codice.ddf.catalog.ui.transformer.TransformerDescriptors;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
-import org.locationtech.spatial4j.context.SpatialContext;
-import org.locationtech.spatial4j.context.SpatialContextFactory;
-import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
-import org.locationtech.spatial4j.context.jts.ValidationRule;
-import org.locationtech.spatial4j.distance.DistanceUtils;
-import org.locationtech.spatial4j.io.ShapeReader;
-import org.locationtech.spatial4j.shape.Shape;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,25 +47,6 @@ public class CqlResultImpl implements CqlResult {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CqlResultImpl.class);
 
-  // For queries we use repairConvexHull which my cause false positives to be returned but this
-  // is better than potentially missing some results due to false negatives.
-  private static final Map<String, String> SPATIAL_CONTEXT_ARGUMENTS =
-      ImmutableMap.of(
-          "spatialContextFactory",
-          JtsSpatialContextFactory.class.getName(),
-          "validationRule",
-          ValidationRule.repairConvexHull.name(),
-          "allowMultiOverlap",
-          "true");
-
-  private static final SpatialContext SPATIAL_CONTEXT =
-      SpatialContextFactory.makeSpatialContext(
-          SPATIAL_CONTEXT_ARGUMENTS, CqlResultImpl.class.getClassLoader());
-
-  private static final ShapeReader WKT_READER = SPATIAL_CONTEXT.getFormats().getWktReader();
-
-  private static final WktQueryDelegate WKT_QUERY_DELEGATE = new WktQueryDelegate();
-
   private static final String CACHED = "cached";
 
   private static final DateTimeFormatter ISO_8601_DATE_FORMAT =
@@ -125,6 +91,25 @@ public class CqlResultImpl implements CqlResult {
       boolean normalize,
       FilterAdapter filterAdapter,
       ActionRegistry actionRegistry) {
+    this(
+        result,
+        SearchTermMatcher.compile(
+            searchTerms == null ? Collections.<SearchTerm>emptySet() : searchTerms),
+        QuerySpatialContext.create(queryRequest.getQuery(), filterAdapter),
+        normalize,
+        actionRegistry);
+  }
+
+  /**
+   * @param termMatcher the compiled search terms, shared by all results of the same request
+   * @param spatialContext the compiled query geometry, shared by all results of the same request
+   */
+  public CqlResultImpl(
+      Result result,
+      SearchTermMatcher termMatcher,
+      QuerySpatialContext spatialContext,
+      boolean normalize,
+      ActionRegistry actionRegistry) {
 
     Metacard mc = result.getMetacard();
 
@@ -139,11 +124,11 @@ public class CqlResultImpl implements CqlResult {
             .map(Boolean.class::cast)
             .orElse(false);
 
-    distance = normalizeDistance(result, queryRequest.getQuery(), filterAdapter);
+    distance = normalizeDistance(result, spatialContext);
 
     relevance = result.getRelevanceScore();
     if (normalize) {
-      countMatches(searchTerms, mc);
+      countMatches(termMatcher, mc);
     }
 
     actions =
@@ -172,48 +157,18 @@ public class CqlResultImpl implements CqlResult {
         .anyMatch(s -> id.endsWith(s));
   }
 
-  private void countMatches(Set<SearchTerm> searchTerms, Metacard mc) {
-    List<String> textAttributes =
-        mc.getMetacardType()
-            .getAttributeDescriptors()
-            .stream()
-            .filter(Objects::nonNull)
-            .filter(CqlResultImpl::isTextAttribute)
-            .map(descriptor -> mc.getAttribute(descriptor.getName()))
-            .filter(Objects::nonNull)
-            .map(attribute -> Optional.ofNullable(attribute.getValue()))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .map(Object::toString)
-            .collect(Collectors.toList());
-
-    List<SearchTerm> terms =
-        searchTerms
-            .stream()
-            .filter(term -> !"*".equals(term.getTerm()))
-            .collect(Collectors.toList());
-
-    int totalTokens = 0;
-    for (String value : textAttributes) {
-      BufferedReader reader = new BufferedReader(new StringReader(value.toLowerCase()));
-      String line;
-      try {
-        while ((line = reader.readLine()) != null) {
-          String[] tokens = line.split("[\\s\\p{Punct}]+");
-          for (String token : tokens) {
-            totalTokens++;
-            for (SearchTerm term : terms) {
-              if (term.match(token)) {
-                matches.put(term.getTerm(), matches.getOrDefault(term.getTerm(), 0) + 1);
-              }
-            }
-          }
-        }
-      } catch (IOException e) {
-        LOGGER.debug("Unable to read line", e);
+  private void countMatches(SearchTermMatcher termMatcher, Metacard mc) {
+    SearchTermMatcher.Counter counter = termMatcher.newCounter();
+    for (AttributeDescriptor descriptor : mc.getMetacardType().getAttributeDescriptors()) {
+      if (descriptor == null || !isTextAttribute(descriptor)) {
+        continue;
+      }
+      Attribute attribute = mc.getAttribute(descriptor.getName());
+      if (attribute != null && attribute.getValue() != null) {
+        counter.scan(attribute.getValue().toString());
       }
-      matches.put("*", totalTokens);
     }
+    matches = counter.toMap();
   }
 
   private void addCachedDate(Metacard metacard, Map<String, Object> json) {
@@ -225,27 +180,14 @@ public class CqlResultImpl implements CqlResult {
     }
   }
 
-  private Double normalizeDistance(Result result, Query query, FilterAdapter filterAdapter) {
+  private Double normalizeDistance(Result result, QuerySpatialContext spatialContext) {
     Double resultDistance = result.getDistanceInMeters();
 
-    try {
-      String queryWkt = filterAdapter.adapt(query, WKT_QUERY_DELEGATE);
-      if (StringUtils.isNotBlank(queryWkt)) {
-        Shape queryShape = WKT_READER.read(queryWkt);
-        if (result.getMetacard() != null
-            && StringUtils.isNotBlank(result.getMetacard().getLocation())) {
-          Shape locationShape = WKT_READER.read(result.getMetacard().getLocation());
-
-          resultDistance =
-              DistanceUtils.degrees2Dist(
-                      SPATIAL_CONTEXT.calcDistance(
-                          locationShape.getCenter(), queryShape.getCenter()),
-                      DistanceUtils.EARTH_MEAN_RADIUS_KM)
-                  * 1000;
-        }
+    if (result.getMetacard() != null) {
+      Double queryDistance = spatialContext.distanceInMeters(result.getMetacard().getLocation());
+      if (queryDistance != null) {
+        resultDistance = queryDistance;
       }
-    } catch (IOException | ParseException | UnsupportedQueryException e) {
-      LOGGER.debug("Unable to parse query wkt", e);
     }
 
     if (resultDistance != null && (resultDistance < 0 || resultDistance > Double.MAX_VALUE)) {
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import com.google.common.collect.ImmutableMap;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.ui.query.delegate.WktQueryDelegate;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.context.jts.ValidationRule;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.io.ShapeReader;
+import org.locationtech.spatial4j.shape.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The spatial portion of a query, compiled once per request. Holds the center of the query
+ * geometry and caches the centers of result locations by WKT so that computing the distance of
+ * every result does not re-walk the filter or re-parse the same geometries.
+ *
+ * <p>Instances are not thread-safe and are meant to live for a single request.
+ */
+public class QuerySpatialContext {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QuerySpatialContext.class);
+
+  // For queries we use repairConvexHull which my cause false positives to be returned but this
+  // is better than potentially missing some results due to false negatives.
+  private static final Map<String, String> SPATIAL_CONTEXT_ARGUMENTS =
+      ImmutableMap.of(
+          "spatialContextFactory",
+          JtsSpatialContextFactory.class.getName(),
+          "validationRule",
+          ValidationRule.repairConvexHull.name(),
+          "allowMultiOverlap",
+          "true");
+
+  private static final SpatialContext SPATIAL_CONTEXT =
+      SpatialContextFactory.makeSpatialContext(
+          SPATIAL_CONTEXT_ARGUMENTS, QuerySpatialContext.class.getClassLoader());
+
+  private static final ShapeReader WKT_READER = SPATIAL_CONTEXT.getFormats().getWktReader();
+
+  private static final WktQueryDelegate WKT_QUERY_DELEGATE = new WktQueryDelegate();
+
+  private static final QuerySpatialContext NON_SPATIAL = new QuerySpatialContext(null);
+
+  private final Point queryCenter;
+
+  private final Map<String, Point> locationCenters = new HashMap<>();
+
+  private QuerySpatialContext(@Nullable Point queryCenter) {
+    this.queryCenter = queryCenter;
+  }
+
+  /**
+   * Extracts and parses the query geometry.
+   *
+   * @return a context that never computes distances if the query has no usable geometry
+   */
+  public static QuerySpatialContext create(Query query, FilterAdapter filterAdapter) {
+    try {
+      String queryWkt = filterAdapter.adapt(query, WKT_QUERY_DELEGATE);
+      if (StringUtils.isNotBlank(queryWkt)) {
+        return new QuerySpatialContext(WKT_READER.read(queryWkt).getCenter());
+      }
+    } catch (IOException | ParseException | UnsupportedQueryException e) {
+      LOGGER.debug("Unable to parse query wkt", e);
+    }
+    return NON_SPATIAL;
+  }
+
+  /**
+   * @param locationWkt the location of a result
+   * @return the distance in meters between the centers of the query geometry and the location, or
+   *     {@code null} if either is missing or cannot be parsed
+   */
+  @Nullable
+  public Double distanceInMeters(@Nullable String locationWkt) {
+    if (queryCenter == null || StringUtils.isBlank(locationWkt)) {
+      return null;
+    }
+
+    Point locationCenter = getLocationCenter(locationWkt);
+    if (locationCenter == null) {
+      return null;
+    }
+
+    return DistanceUtils.degrees2Dist(
+            SPATIAL_CONTEXT.calcDistance(locationCenter, queryCenter),
+            DistanceUtils.EARTH_MEAN_RADIUS_KM)
+        * 1000;
+  }
+
+  @Nullable
+  private Point getLocationCenter(String locationWkt) {
+    if (locationCenters.containsKey(locationWkt)) {
+      return locationCenters.get(locationWkt);
+    }
+
+    Point center = null;
+    try {
+      center = WKT_READER.read(locationWkt).getCenter();
+    } catch (IOException | ParseException e) {
+      LOGGER.debug("Unable to parse result location wkt", e);
+    }
+    // unparseable locations are cached too so they are only attempted once
+    locationCenters.put(locationWkt, center);
+    return center;
+  }
+}
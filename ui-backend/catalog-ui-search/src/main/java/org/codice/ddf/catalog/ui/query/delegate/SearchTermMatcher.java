@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.delegate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts occurrences of a fixed set of {@link SearchTerm}s in text. The terms are compiled once
+ * into a trie that is walked while the text is tokenized, so scanning does not allocate substrings
+ * or run regular expressions for plain terms.
+ *
+ * <p>Text is tokenized the same way as lower-casing it, reading it line by line and splitting each
+ * line on {@code [\s\p{Punct}]+}. The {@code *} term is ignored, and the total number of tokens is
+ * reported under the {@code *} key.
+ *
+ * <p>Instances are immutable and may be shared between threads. A {@link Counter} is not
+ * thread-safe.
+ */
+public class SearchTermMatcher {
+
+  private static final String ALL_TERMS = "*";
+
+  private static final String REGEX_META_CHARACTERS = "\\^$.|?+()[]{}";
+
+  private static final boolean[] SEPARATORS = new boolean[128];
+
+  static {
+    for (char c : " \t\n\u000B\f\r".toCharArray()) {
+      SEPARATORS[c] = true;
+    }
+    for (char c : "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~".toCharArray()) {
+      SEPARATORS[c] = true;
+    }
+  }
+
+  private static final int ROOT = 0;
+
+  private static final int NO_NODE = -1;
+
+  private final String[] slotTerms;
+
+  private final char[][] childChars;
+
+  private final int[][] childNodes;
+
+  private final int[] nodeSlots;
+
+  private final int[] nodeWeights;
+
+  private final WildcardTerm[] wildcardTerms;
+
+  private SearchTermMatcher(
+      String[] slotTerms,
+      char[][] childChars,
+      int[][] childNodes,
+      int[] nodeSlots,
+      int[] nodeWeights,
+      WildcardTerm[] wildcardTerms) {
+    this.slotTerms = slotTerms;
+    this.childChars = childChars;
+    this.childNodes = childNodes;
+    this.nodeSlots = nodeSlots;
+    this.nodeWeights = nodeWeights;
+    this.wildcardTerms = wildcardTerms;
+  }
+
+  public static SearchTermMatcher compile(Collection<SearchTerm> searchTerms) {
+    Map<String, Integer> slots = new LinkedHashMap<>();
+    List<TreeMap<Character, Integer>> children = new ArrayList<>();
+    children.add(new TreeMap<>());
+    Map<Integer, Integer> terminalSlots = new HashMap<>();
+    Map<Integer, Integer> terminalWeights = new HashMap<>();
+    Map<String, WildcardTerm> wildcards = new LinkedHashMap<>();
+
+    for (SearchTerm searchTerm : searchTerms) {
+      String term = searchTerm.getTerm();
+      if (ALL_TERMS.equals(term)) {
+        continue;
+      }
+
+      int slot = slots.computeIfAbsent(term, t -> slots.size());
+
+      if (term.indexOf('*') >= 0) {
+        wildcards
+            .computeIfAbsent(term, t -> new WildcardTerm(searchTerm, slot, isGlob(term)))
+            .weight++;
+        continue;
+      }
+
+      int node = ROOT;
+      for (int i = 0; i < term.length(); i++) {
+        Integer child = children.get(node).get(term.charAt(i));
+        if (child == null) {
+          child = children.size();
+          children.add(new TreeMap<>());
+          children.get(node).put(term.charAt(i), child);
+        }
+        node = child;
+      }
+      terminalSlots.put(node, slot);
+      terminalWeights.merge(node, 1, Integer::sum);
+    }
+
+    int nodeCount = children.size();
+    char[][] childChars = new char[nodeCount][];
+    int[][] childNodes = new int[nodeCount][];
+    int[] nodeSlots = new int[nodeCount];
+    int[] nodeWeights = new int[nodeCount];
+    for (int node = 0; node < nodeCount; node++) {
+      TreeMap<Character, Integer> nodeChildren = children.get(node);
+      childChars[node] = new char[nodeChildren.size()];
+      childNodes[node] = new int[nodeChildren.size()];
+      int i = 0;
+      for (Map.Entry<Character, Integer> child : nodeChildren.entrySet()) {
+        childChars[node][i] = child.getKey();
+        childNodes[node][i] = child.getValue();
+        i++;
+      }
+      nodeSlots[node] = terminalSlots.getOrDefault(node, NO_NODE);
+      nodeWeights[node] = terminalWeights.getOrDefault(node, 0);
+    }
+
+    return new SearchTermMatcher(
+        slots.keySet().toArray(new String[0]),
+        childChars,
+        childNodes,
+        nodeSlots,
+        nodeWeights,
+        wildcards.values().toArray(new WildcardTerm[0]));
+  }
+
+  public Counter newCounter() {
+    return new Counter();
+  }
+
+  private static boolean isGlob(String term) {
+    for (int i = 0; i < term.length(); i++) {
+      if (REGEX_META_CHARACTERS.indexOf(term.charAt(i)) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSeparator(char c) {
+    return c < SEPARATORS.length && SEPARATORS[c];
+  }
+
+  private int childOf(int node, char c) {
+    if (node == NO_NODE) {
+      return NO_NODE;
+    }
+    int index = Arrays.binarySearch(childChars[node], c);
+    return index < 0 ? NO_NODE : childNodes[node][index];
+  }
+
+  /**
+   * Matches {@code *} against any run of characters, comparing the remaining characters of the
+   * already lower-cased pattern with the lower-cased text in {@code [from, to)}.
+   */
+  private static boolean globMatches(char[] pattern, String text, int from, int to) {
+    int p = 0;
+    int t = from;
+    int star = -1;
+    int mark = from;
+    while (t < to) {
+      char c = Character.toLowerCase(text.charAt(t));
+      if (p < pattern.length && pattern[p] == '*') {
+        star = p++;
+        mark = t;
+      } else if (p < pattern.length && pattern[p] == c) {
+        p++;
+        t++;
+      } else if (star >= 0) {
+        p = star + 1;
+        t = ++mark;
+      } else {
+        return false;
+      }
+    }
+    while (p < pattern.length && pattern[p] == '*') {
+      p++;
+    }
+    return p == pattern.length;
+  }
+
+  private static class WildcardTerm {
+
+    private final SearchTerm searchTerm;
+
+    private final int slot;
+
+    private final char[] glob;
+
+    private int weight;
+
+    WildcardTerm(SearchTerm searchTerm, int slot, boolean isGlob) {
+      this.searchTerm = searchTerm;
+      this.slot = slot;
+      this.glob = isGlob ? searchTerm.getTerm().toCharArray() : null;
+    }
+
+    boolean matches(String text, int from, int to) {
+      if (glob != null) {
+        return globMatches(glob, text, from, to);
+      }
+      return searchTerm.match(text.substring(from, to).toLowerCase());
+    }
+  }
+
+  /** Accumulates term counts across any number of text values, typically those of one metacard. */
+  public class Counter {
+
+    private final int[] counts = new int[slotTerms.length];
+
+    private int totalTokens;
+
+    private boolean scanned;
+
+    public void scan(String text) {
+      scanned = true;
+      int length = text.length();
+      int lineStart = 0;
+      while (lineStart < length) {
+        int lineEnd = lineStart;
+        while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+          lineEnd++;
+        }
+
+        scanLine(text, lineStart, lineEnd);
+
+        lineStart = lineEnd;
+        if (lineStart < length) {
+          boolean crlf =
+              text.charAt(lineStart) == '\r'
+                  && lineStart + 1 < length
+                  && text.charAt(lineStart + 1) == '\n';
+          lineStart += crlf ? 2 : 1;
+        }
+      }
+    }
+
+    /** Mirrors {@code String.split}, which keeps a leading empty token but no trailing ones. */
+    private void scanLine(String text, int lineStart, int lineEnd) {
+      if (lineStart == lineEnd) {
+        token(text, lineStart, lineEnd, ROOT);
+        return;
+      }
+
+      int tokens = 0;
+      int tokenStart = NO_NODE;
+      int node = ROOT;
+      for (int i = lineStart; i < lineEnd; i++) {
+        char c = Character.toLowerCase(text.charAt(i));
+        if (isSeparator(c)) {
+          if (tokenStart != NO_NODE) {
+            token(text, tokenStart, i, node);
+            tokens++;
+            tokenStart = NO_NODE;
+          }
+        } else {
+          if (tokenStart == NO_NODE) {
+            tokenStart = i;
+            node = ROOT;
+          }
+          node = childOf(node, c);
+        }
+      }
+      if (tokenStart != NO_NODE) {
+        token(text, tokenStart, lineEnd, node);
+        tokens++;
+      }
+
+      if (tokens > 0 && isSeparator(text.charAt(lineStart))) {
+        token(text, lineStart, lineStart, ROOT);
+      }
+    }
+
+    private void token(String text, int from, int to, int node) {
+      totalTokens++;
+      if (node != NO_NODE && nodeSlots[node] != NO_NODE) {
+        counts[nodeSlots[node]] += nodeWeights[node];
+      }
+      for (WildcardTerm wildcardTerm : wildcardTerms) {
+        if (wildcardTerm.matches(text, from, to)) {
+          counts[wildcardTerm.slot] += wildcardTerm.weight;
+        }
+      }
+    }
+
+    /**
+     * @return the number of matches per matched term, plus the total number of tokens under {@code
+     *     *} if any text was scanned
+     */
+    public Map<String, Integer> toMap() {
+      Map<String, Integer> matches = new HashMap<>();
+      for (int slot = 0; slot < counts.length; slot++) {
+        if (counts[slot] > 0) {
+          matches.put(slotTerms[slot], counts[slot]);
+        }
+      }
+      if (scanned) {
+        matches.put(ALL_TERMS, totalTokens);
+      }
+      return matches;
+    }
+  }
+}
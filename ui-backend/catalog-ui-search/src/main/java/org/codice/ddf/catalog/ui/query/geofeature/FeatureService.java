@@ -40,4 +40,16 @@ public interface FeatureService {
    * @return the feature if found, otherwise null
    */
   SimpleFeature getFeatureById(String id);
+
+  /**
+   * Retrieves a specific geographic feature by its exact id, with its geometry simplified so that
+   * no detail finer than {@code tolerance} is kept. Intended for display at a given map resolution.
+   *
+   * @param id id of a geographic feature
+   * @param tolerance the simplification distance tolerance in degrees; 0 for the full geometry
+   * @return the feature if found, otherwise null
+   */
+  default SimpleFeature getFeatureById(String id, double tolerance) {
+    return getFeatureById(id);
+  }
 }
@@ -16,8 +16,14 @@ package org.codice.ddf.catalog.ui.query.geofeature;
 import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.COUNTRY_FEATURE_CODES;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.collections.CollectionUtils;
 import org.codice.ddf.spatial.geocoder.GeoResult;
 import org.codice.ddf.spatial.geocoder.GeoResultCreator;
@@ -34,6 +40,7 @@ import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.geometry.primitive.Point;
@@ -49,22 +56,64 @@ import org.slf4j.LoggerFactory;
 public class GazetteerFeatureService implements FeatureService {
   private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerFeatureService.class);
 
+  private static final int MAX_CACHED_SUGGESTIONS = 1000;
+
+  private static final long SUGGESTION_EXPIRATION_MINUTES = 10;
+
+  private static final int MAX_CACHED_FEATURES = 500;
+
+  private static final long FEATURE_EXPIRATION_HOURS = 12;
+
+  /**
+   * The tolerances, in degrees, at which simplified variants of a feature are kept. A requested
+   * tolerance is rounded down to one of these so that only a few variants exist per feature.
+   */
+  private static final double[] SIMPLIFICATION_TOLERANCES = {0.0001, 0.001, 0.01, 0.1};
+
+  private static final Map<Class<?>, SimpleFeatureType> FEATURE_TYPES = new ConcurrentHashMap<>();
+
+  // Autocompletion asks for the same prefixes over and over as users type and retype place names
+  private final Cache<String, List<Suggestion>> suggestionCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_SUGGESTIONS)
+          .expireAfterWrite(SUGGESTION_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  // Country shapes are large and never change, but are requested whenever a country is selected
+  private final Cache<FeatureKey, SimpleFeature> featureCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_FEATURES)
+          .expireAfterWrite(FEATURE_EXPIRATION_HOURS, TimeUnit.HOURS)
+          .build();
+
   private GeoEntryQueryable geoEntryQueryable;
 
   private FeatureQueryable featureQueryable;
 
   public void setGeoEntryQueryable(GeoEntryQueryable geoEntryQueryable) {
     this.geoEntryQueryable = geoEntryQueryable;
+    suggestionCache.invalidateAll();
+    featureCache.invalidateAll();
   }
 
   public void setFeatureQueryable(FeatureQueryable featureQueryable) {
     this.featureQueryable = featureQueryable;
+    featureCache.invalidateAll();
   }
 
   @Override
   public List<Suggestion> getSuggestedFeatureNames(String query, int maxResults) {
+    String key = maxResults + ":" + query;
+    List<Suggestion> suggestions = suggestionCache.getIfPresent(key);
+    if (suggestions != null) {
+      return suggestions;
+    }
+
     try {
-      return geoEntryQueryable.getSuggestedNames(query, maxResults);
+      suggestions =
+          Collections.unmodifiableList(geoEntryQueryable.getSuggestedNames(query, maxResults));
+      suggestionCache.put(key, suggestions);
+      return suggestions;
     } catch (GeoEntryQueryException e) {
       LOGGER.debug("Suggestion query failed", e);
     }
@@ -73,6 +122,32 @@ public class GazetteerFeatureService implements FeatureService {
 
   @Override
   public SimpleFeature getFeatureById(String id) {
+    return getFeatureById(id, 0);
+  }
+
+  @Override
+  public SimpleFeature getFeatureById(String id, double tolerance) {
+    double level = 0;
+    for (double candidate : SIMPLIFICATION_TOLERANCES) {
+      if (candidate <= tolerance) {
+        level = candidate;
+      }
+    }
+    FeatureKey key = new FeatureKey(id, level);
+
+    SimpleFeature feature = featureCache.getIfPresent(key);
+    if (feature != null) {
+      return feature;
+    }
+
+    feature = level == 0 ? queryFeature(id) : simplify(getFeatureById(id, 0), level);
+    if (feature != null) {
+      featureCache.put(key, feature);
+    }
+    return feature;
+  }
+
+  private SimpleFeature queryFeature(String id) {
     GeoEntry entry;
     try {
       entry = this.geoEntryQueryable.queryById(id);
@@ -114,6 +189,17 @@ public class GazetteerFeatureService implements FeatureService {
     return null;
   }
 
+  private static SimpleFeature simplify(SimpleFeature feature, double tolerance) {
+    if (feature == null || !(feature.getDefaultGeometry() instanceof Geometry)) {
+      return feature;
+    }
+    Geometry simplified =
+        TopologyPreservingSimplifier.simplify((Geometry) feature.getDefaultGeometry(), tolerance);
+    SimpleFeature copy = SimpleFeatureBuilder.copy(feature);
+    copy.setDefaultGeometry(simplified);
+    return copy;
+  }
+
   private static SimpleFeature getFeatureFromGeoResult(GeoResult geoResult) {
     Polygon polygon = getPolygonFromBBox(geoResult.getBbox());
     SimpleFeatureBuilder builder = getSimpleFeatureBuilder(polygon);
@@ -122,16 +208,21 @@ public class GazetteerFeatureService implements FeatureService {
 
   @VisibleForTesting
   static SimpleFeatureBuilder getSimpleFeatureBuilder(Geometry geometry) {
-    SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
-    typeBuilder.setName("featureType");
-    typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
-    typeBuilder.add("coordinates", geometry.getClass());
-    SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+    SimpleFeatureType featureType =
+        FEATURE_TYPES.computeIfAbsent(geometry.getClass(), GazetteerFeatureService::featureType);
     SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
     builder.add(geometry);
     return builder;
   }
 
+  private static SimpleFeatureType featureType(Class<?> geometryClass) {
+    SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("featureType");
+    typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+    typeBuilder.add("coordinates", geometryClass);
+    return typeBuilder.buildFeatureType();
+  }
+
   private static Polygon getPolygonFromBBox(List<Point> bbox) {
     double[] p0 = bbox.get(0).getDirectPosition().getCoordinate();
     double[] p1 = bbox.get(1).getDirectPosition().getCoordinate();
@@ -140,4 +231,29 @@ public class GazetteerFeatureService implements FeatureService {
     envelope.expandToInclude(p1[0], p1[1]);
     return JTS.toGeometry(envelope);
   }
+
+  private static class FeatureKey {
+    private final String id;
+
+    private final double tolerance;
+
+    private FeatureKey(String id, double tolerance) {
+      this.id = id;
+      this.tolerance = tolerance;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof FeatureKey)) {
+        return false;
+      }
+      FeatureKey other = (FeatureKey) obj;
+      return Objects.equals(id, other.id) && tolerance == other.tolerance;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, tolerance);
+    }
+  }
 }
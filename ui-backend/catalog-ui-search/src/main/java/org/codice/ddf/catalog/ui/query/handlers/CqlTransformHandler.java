@@ -49,17 +49,23 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.HttpHeaders;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
 import org.apache.tika.mime.MimeTypeException;
 import org.apache.tika.mime.MimeTypes;
 import org.codice.ddf.catalog.ui.CqlParseException;
 import org.codice.ddf.catalog.ui.metacard.transformer.CsvTransformImpl;
 import org.codice.ddf.catalog.ui.query.cql.CqlRequestImpl;
-import org.codice.ddf.catalog.ui.query.utility.CqlQueryResponse;
 import org.codice.ddf.catalog.ui.query.utility.CqlRequest;
 import org.codice.ddf.catalog.ui.util.CqlQueriesImpl;
 import org.codice.ddf.catalog.ui.util.CswConstants;
@@ -97,18 +103,21 @@ public class CqlTransformHandler implements Route {
   private BundleContext bundleContext;
   private CqlQueriesImpl cqlQueryUtil;
   private SecurityLogger securityLogger;
+  private ExecutorService exportExecutor;
 
   public CqlTransformHandler(
       List<ServiceReference> queryResponseTransformers,
       BundleContext bundleContext,
       EndpointUtil endpointUtil,
       CqlQueriesImpl cqlQueryUtil,
-      SecurityLogger securityLogger) {
+      SecurityLogger securityLogger,
+      ExecutorService exportExecutor) {
     this.queryResponseTransformers = queryResponseTransformers;
     this.bundleContext = bundleContext;
     this.util = endpointUtil;
     this.cqlQueryUtil = cqlQueryUtil;
     this.securityLogger = securityLogger;
+    this.exportExecutor = exportExecutor;
   }
 
   public class Arguments {
@@ -259,32 +268,10 @@ public class CqlTransformHandler implements Route {
     }
 
     List<Result> results =
-        cqlRequests
-            .stream()
-            .map(
-                cqlRequest -> {
-                  CqlQueryResponse cqlQueryResponse = null;
-                  try {
-                    cqlQueryResponse = cqlQueryUtil.executeCqlQuery(cqlRequest);
-                  } catch (UnsupportedQueryException
-                      | SourceUnavailableException
-                      | FederationException
-                      | CqlParseException e) {
-                    LOGGER.debug("Error fetching cql request for {}", cqlRequest.getSrc());
-                    return null;
-                  }
-                  return cqlQueryResponse.getQueryResponse().getResults();
-                })
-            .filter(cqlResults -> CollectionUtils.isNotEmpty(cqlResults))
-            .flatMap(cqlResults -> cqlResults.stream())
-            .collect(toList());
-
-    results.sort(getResultComparators(cqlTransformRequest.getSorts()));
-
-    results =
-        results.size() > cqlTransformRequest.getCount()
-            ? results.subList(0, cqlTransformRequest.getCount())
-            : results;
+        topResults(
+            executeSearches(cqlRequests),
+            getResultComparators(cqlTransformRequest.getSorts()),
+            cqlTransformRequest.getCount());
 
     results =
         CollectionUtils.isEmpty(cqlTransformRequest.getHiddenResults())
@@ -341,6 +328,106 @@ public class CqlTransformHandler implements Route {
     return "";
   }
 
+  /**
+   * Runs the searches concurrently on the export executor. Searches that fail with a query error
+   * are skipped, matching the behavior of running them one after another.
+   *
+   * @return the results of each search, in the order of the searches
+   */
+  private List<List<Result>> executeSearches(List<CqlRequest> cqlRequests)
+      throws InterruptedException {
+    List<Future<List<Result>>> futures = new ArrayList<>(cqlRequests.size());
+    for (CqlRequest cqlRequest : cqlRequests) {
+      futures.add(exportExecutor.submit(withCurrentSubject(() -> executeSearch(cqlRequest))));
+    }
+
+    List<List<Result>> resultsPerSearch = new ArrayList<>(futures.size());
+    try {
+      for (Future<List<Result>> future : futures) {
+        resultsPerSearch.add(getSearchResults(future));
+      }
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return resultsPerSearch;
+  }
+
+  private List<Result> executeSearch(CqlRequest cqlRequest) {
+    try {
+      return cqlQueryUtil.executeRawCqlQuery(cqlRequest).getResults();
+    } catch (UnsupportedQueryException
+        | SourceUnavailableException
+        | FederationException
+        | CqlParseException e) {
+      LOGGER.debug("Error fetching cql request for {}", cqlRequest.getSrc());
+      return Collections.emptyList();
+    }
+  }
+
+  private static List<Result> getSearchResults(Future<List<Result>> future)
+      throws InterruptedException {
+    try {
+      List<Result> results = future.get();
+      return results == null ? Collections.emptyList() : results;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Export search failed", e.getCause());
+    }
+  }
+
+  /** Runs the task as the subject of the calling thread, which the catalog needs for access. */
+  private static <T> Callable<T> withCurrentSubject(Callable<T> task) {
+    Subject subject = ThreadContext.getSubject();
+    return subject == null ? task : subject.associateWith(task);
+  }
+
+  /**
+   * Selects the first {@code count} results across all searches by keeping a bounded heap, instead
+   * of sorting every result. Ties keep the order of the searches, like a stable sort would.
+   */
+  static List<Result> topResults(
+      List<List<Result>> resultsPerSearch, Comparator<Result> comparator, int count) {
+    if (count <= 0) {
+      return new ArrayList<>();
+    }
+
+    Comparator<IndexedResult> order =
+        Comparator.<IndexedResult, Result>comparing(indexed -> indexed.result, comparator)
+            .thenComparingLong(indexed -> indexed.index);
+    PriorityQueue<IndexedResult> heap = new PriorityQueue<>(order.reversed());
+
+    long index = 0;
+    for (List<Result> results : resultsPerSearch) {
+      for (Result result : results) {
+        IndexedResult indexed = new IndexedResult(result, index++);
+        if (heap.size() < count) {
+          heap.add(indexed);
+        } else if (order.compare(indexed, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(indexed);
+        }
+      }
+    }
+
+    List<IndexedResult> top = new ArrayList<>(heap);
+    top.sort(order);
+    return top.stream().map(indexed -> indexed.result).collect(toList());
+  }
+
+  private static class IndexedResult {
+
+    private final Result result;
+
+    private final long index;
+
+    IndexedResult(Result result, long index) {
+      this.result = result;
+      this.index = index;
+    }
+  }
+
   public List<ServiceReference> getQueryResponseTransformers() {
     return queryResponseTransformers;
   }
@@ -28,5 +28,13 @@ public interface FilterService {
    */
   Filter buildMetacardIdFilter(String id);
 
-  Filter getModifiedDateFilter(Date lastCheckDate);
+  /**
+   * Build a filter for matching metacards modified after {@code lastCheckDate} and no later than
+   * {@code checkDate}, so consecutive intervals neither overlap nor leave a gap
+   *
+   * @param lastCheckDate start of the interval
+   * @param checkDate end of the interval
+   * @return filter
+   */
+  Filter getModifiedDateFilter(Date lastCheckDate, Date checkDate);
 }
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.email;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.codice.ddf.platform.email.SmtpClient;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers emails in the background. Recipients are split into batches that are each sent over a
+ * single SMTP connection. A batch that cannot be delivered because of a connection problem is
+ * retried with exponential backoff; recipients the server rejects are not retried.
+ *
+ * <p>At most {@link #MAX_PENDING_BATCHES} batches wait for delivery at once. Batches submitted
+ * beyond that are dropped and counted as such, so a slow mail server cannot exhaust memory.
+ */
+class EmailDeliveryQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EmailDeliveryQueue.class);
+
+  private static final int DELIVERY_THREADS = 2;
+
+  private static final int MAX_PENDING_BATCHES = 1000;
+
+  private static final int BATCH_SIZE = 50;
+
+  private static final int MAX_ATTEMPTS = 4;
+
+  private static final long INITIAL_BACKOFF_SECONDS = 5;
+
+  private final SmtpClient smtpClient;
+
+  private final ScheduledExecutorService executor;
+
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+
+  private final AtomicLong sent = new AtomicLong();
+
+  private final AtomicLong failed = new AtomicLong();
+
+  private final AtomicLong retried = new AtomicLong();
+
+  private final AtomicLong dropped = new AtomicLong();
+
+  EmailDeliveryQueue(SmtpClient smtpClient) {
+    this(smtpClient, createExecutor());
+  }
+
+  @VisibleForTesting
+  EmailDeliveryQueue(SmtpClient smtpClient, ScheduledExecutorService executor) {
+    notNull(smtpClient, "smtpClient must be non-null");
+    notNull(executor, "executor must be non-null");
+    this.smtpClient = smtpClient;
+    this.executor = executor;
+  }
+
+  private static ScheduledExecutorService createExecutor() {
+    ScheduledThreadPoolExecutor scheduledExecutor =
+        new ScheduledThreadPoolExecutor(
+            DELIVERY_THREADS, StandardThreadFactoryBuilder.newThreadFactory("emailDeliveryThread"));
+    scheduledExecutor.setRemoveOnCancelPolicy(true);
+    return scheduledExecutor;
+  }
+
+  /** Queues one email with the same subject and body for each recipient. */
+  void submit(String fromEmail, String subject, String body, Collection<String> recipients) {
+    for (List<String> batchRecipients :
+        Lists.partition(new ArrayList<>(recipients), BATCH_SIZE)) {
+      Batch batch = new Batch(fromEmail, subject, body, batchRecipients);
+      if (pendingBatches.incrementAndGet() > MAX_PENDING_BATCHES) {
+        drop(batch, "the delivery queue is full");
+      } else {
+        schedule(batch, 0L);
+      }
+    }
+  }
+
+  long getSentCount() {
+    return sent.get();
+  }
+
+  long getFailedCount() {
+    return failed.get();
+  }
+
+  long getRetriedCount() {
+    return retried.get();
+  }
+
+  long getDroppedCount() {
+    return dropped.get();
+  }
+
+  int getPendingBatchCount() {
+    return pendingBatches.get();
+  }
+
+  void shutdown() {
+    List<Runnable> undelivered = executor.shutdownNow();
+    if (!undelivered.isEmpty()) {
+      LOGGER.debug("Discarding {} undelivered email batches on shutdown", undelivered.size());
+    }
+  }
+
+  private void schedule(Batch batch, long delaySeconds) {
+    try {
+      executor.schedule(() -> deliver(batch), delaySeconds, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      drop(batch, "the delivery queue is shut down");
+    }
+  }
+
+  private void drop(Batch batch, String reason) {
+    pendingBatches.decrementAndGet();
+    dropped.addAndGet(batch.recipients.size());
+    LOGGER.warn("Unable to queue emails to {} because {}", batch.recipients, reason);
+  }
+
+  private void deliver(Batch batch) {
+    batch.attempts++;
+
+    Session session = smtpClient.createSession();
+    Transport transport = null;
+    try {
+      transport = session.getTransport(new InternetAddress(batch.fromEmail));
+      transport.connect();
+
+      Iterator<String> recipients = batch.recipients.iterator();
+      while (recipients.hasNext()) {
+        String recipient = recipients.next();
+        try {
+          MimeMessage mimeMessage = batch.createMessage(session, recipient);
+          transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+          sent.incrementAndGet();
+        } catch (SendFailedException | AddressException e) {
+          LOGGER.warn("unable to send email to {}", recipient, e);
+          failed.incrementAndGet();
+        }
+        recipients.remove();
+      }
+    } catch (AddressException e) {
+      fail(batch, e);
+      return;
+    } catch (MessagingException e) {
+      retryOrFail(batch, e);
+      return;
+    } finally {
+      close(transport);
+    }
+
+    pendingBatches.decrementAndGet();
+    LOGGER.debug(
+        "Email delivery: sent={} failed={} retried={} dropped={} pendingBatches={}",
+        sent.get(),
+        failed.get(),
+        retried.get(),
+        dropped.get(),
+        pendingBatches.get());
+  }
+
+  private static void close(Transport transport) {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        LOGGER.debug("Unable to close the SMTP connection", e);
+      }
+    }
+  }
+
+  private void retryOrFail(Batch batch, MessagingException e) {
+    if (batch.attempts < MAX_ATTEMPTS) {
+      long backoffSeconds = INITIAL_BACKOFF_SECONDS << (batch.attempts - 1);
+      LOGGER.debug(
+          "Unable to deliver emails to {}, retrying in {} seconds",
+          batch.recipients,
+          backoffSeconds,
+          e);
+      retried.addAndGet(batch.recipients.size());
+      schedule(batch, backoffSeconds);
+    } else {
+      fail(batch, e);
+    }
+  }
+
+  private void fail(Batch batch, MessagingException e) {
+    LOGGER.warn(
+        "unable to send emails to {} after {} attempts", batch.recipients, batch.attempts, e);
+    failed.addAndGet(batch.recipients.size());
+    pendingBatches.decrementAndGet();
+  }
+
+  /** The emails that remain to be sent; only touched by the thread delivering it. */
+  private static class Batch {
+
+    private final String fromEmail;
+
+    private final String subject;
+
+    private final String body;
+
+    private final List<String> recipients;
+
+    private int attempts;
+
+    private Batch(String fromEmail, String subject, String body, List<String> recipients) {
+      this.fromEmail = fromEmail;
+      this.subject = subject;
+      this.body = body;
+      this.recipients = new ArrayList<>(recipients);
+    }
+
+    private MimeMessage createMessage(Session session, String recipient)
+        throws MessagingException {
+      MimeMessage mimeMessage = new MimeMessage(session);
+      mimeMessage.setFrom(new InternetAddress(fromEmail));
+      mimeMessage.addRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+      mimeMessage.setSubject(subject);
+      mimeMessage.setText(body);
+      mimeMessage.saveChanges();
+      return mimeMessage;
+    }
+  }
+}
@@ -17,11 +17,7 @@ import static org.apache.commons.lang3.Validate.notBlank;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.util.Map;
-import javax.mail.Message;
-import javax.mail.MessagingException;
-import javax.mail.Session;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
+import java.util.Set;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceMetacardImpl;
 import org.codice.ddf.catalog.ui.query.monitor.api.MetacardFormatter;
@@ -31,7 +27,11 @@ import org.codice.ddf.platform.email.SmtpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Sends an email for each workspace to the owner of the workspace. */
+/**
+ * Sends an email for each workspace to the subscribers of the workspace. The emails are formatted
+ * once per workspace and delivered in the background, so a slow mail server does not hold up the
+ * workspace query monitor.
+ */
 public class EmailNotifier implements QueryUpdateSubscriber {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EmailNotifier.class);
@@ -46,7 +46,7 @@ public class EmailNotifier implements QueryUpdateSubscriber {
 
   private SubscriptionsPersistentStore subscriptionsPersistentStore;
 
-  private SmtpClient smtpClient;
+  private final EmailDeliveryQueue emailDeliveryQueue;
 
   /**
    * The {@code bodyTemplate} and {@code subjectTemplate} may contain the tags supported by the
@@ -80,7 +80,12 @@ public class EmailNotifier implements QueryUpdateSubscriber {
     this.fromEmail = fromEmail;
     this.metacardFormatter = metacardFormatter;
     this.subscriptionsPersistentStore = subscriptionsPersistentStore;
-    this.smtpClient = smtpClient;
+    this.emailDeliveryQueue = new EmailDeliveryQueue(smtpClient);
+  }
+
+  /** Stops delivering emails; emails that have not been sent yet are discarded. */
+  public void destroy() {
+    emailDeliveryQueue.shutdown();
   }
 
   /**
@@ -128,38 +133,18 @@ public class EmailNotifier implements QueryUpdateSubscriber {
   }
 
   private void sendEmailsForWorkspace(WorkspaceMetacardImpl workspaceMetacard, Long hitCount) {
-    subscriptionsPersistentStore
-        .getEmails(workspaceMetacard.getId())
-        .forEach(email -> sendEmailForWorkspace(workspaceMetacard, hitCount, email));
-  }
-
-  private void sendEmailForWorkspace(
-      WorkspaceMetacardImpl workspaceMetacard, Long hitCount, String email) {
+    Set<String> emails = subscriptionsPersistentStore.getEmails(workspaceMetacard.getId());
+    if (emails.isEmpty()) {
+      return;
+    }
 
     String emailBody = metacardFormatter.format(bodyTemplate, workspaceMetacard, hitCount);
 
     String subject = metacardFormatter.format(subjectTemplate, workspaceMetacard, hitCount);
 
-    Session session = smtpClient.createSession();
-
-    try {
-      MimeMessage mimeMessage = new MimeMessage(session);
+    LOGGER.trace("Queueing {} emails", emails.size());
 
-      mimeMessage.setFrom(new InternetAddress(fromEmail));
-
-      mimeMessage.addRecipient(Message.RecipientType.TO, new InternetAddress(email));
-
-      mimeMessage.setSubject(subject);
-
-      mimeMessage.setText(emailBody);
-
-      LOGGER.trace("Attempting to send email");
-
-      smtpClient.send(mimeMessage);
-
-    } catch (MessagingException e) {
-      LOGGER.warn("unable to send email to {}", email, e);
-    }
+    emailDeliveryQueue.submit(fromEmail, subject, emailBody, emails);
   }
 
   @Override
@@ -178,6 +163,16 @@ public class EmailNotifier implements QueryUpdateSubscriber {
         + '\''
         + ", subscriptionsPersistentStore="
         + subscriptionsPersistentStore
+        + ", sent="
+        + emailDeliveryQueue.getSentCount()
+        + ", failed="
+        + emailDeliveryQueue.getFailedCount()
+        + ", retried="
+        + emailDeliveryQueue.getRetriedCount()
+        + ", dropped="
+        + emailDeliveryQueue.getDroppedCount()
+        + ", pendingBatches="
+        + emailDeliveryQueue.getPendingBatchCount()
         + '}';
   }
 }
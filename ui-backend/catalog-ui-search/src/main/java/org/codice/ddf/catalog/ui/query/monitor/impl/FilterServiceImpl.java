@@ -43,8 +43,10 @@ public class FilterServiceImpl implements FilterService {
   }
 
   @Override
-  public Filter getModifiedDateFilter(Date lastCheckDate) {
-    return filterBuilder.attribute(Metacard.MODIFIED).after().date(lastCheckDate);
+  public Filter getModifiedDateFilter(Date lastCheckDate, Date checkDate) {
+    return filterBuilder.allOf(
+        filterBuilder.attribute(Metacard.MODIFIED).after().date(lastCheckDate),
+        filterBuilder.not(filterBuilder.attribute(Metacard.MODIFIED).after().date(checkDate)));
   }
 
   @Override
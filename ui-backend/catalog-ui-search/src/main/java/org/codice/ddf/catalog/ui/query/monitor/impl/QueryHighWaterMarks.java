@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.impl;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.PersistentItem;
+import org.codice.ddf.persistence.PersistentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers, per saved query, the time up to which its results have already been counted and
+ * notified. The marks are kept in the {@link PersistentStore} so that a restart neither repeats
+ * nor skips notifications.
+ */
+public class QueryHighWaterMarks {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryHighWaterMarks.class);
+
+  static final String HIGH_WATER_MARK_TYPE = "query_monitor";
+
+  static final String HIGH_WATER_MARK_PROPERTY = "highWaterMark";
+
+  private static final String ID = "id";
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final PersistentStore persistentStore;
+
+  /** @param persistentStore must be non-null */
+  public QueryHighWaterMarks(PersistentStore persistentStore) {
+    notNull(persistentStore, "persistentStore must be non-null");
+    this.persistentStore = persistentStore;
+  }
+
+  /**
+   * @return the high-water mark of every query that has one, keyed by query id. Empty if the marks
+   *     cannot be read.
+   */
+  public Map<String, Date> load() {
+    Map<String, Date> highWaterMarks = new HashMap<>();
+    try {
+      List<Map<String, Object>> page;
+      int startIndex = 0;
+      do {
+        page = persistentStore.get(HIGH_WATER_MARK_TYPE, "", startIndex, PAGE_SIZE);
+        page.stream().map(PersistentItem::stripSuffixes).forEach(item -> add(highWaterMarks, item));
+        startIndex += page.size();
+      } while (page.size() == PAGE_SIZE);
+    } catch (PersistenceException e) {
+      LOGGER.debug("Unable to read query high-water marks", e);
+    }
+    return highWaterMarks;
+  }
+
+  /** Moves the high-water mark of each of the given queries to {@code highWaterMark}. */
+  public void update(Collection<String> queryIds, Date highWaterMark) {
+    for (String queryId : queryIds) {
+      PersistentItem item = new PersistentItem();
+      item.addIdProperty(queryId);
+      item.addProperty(HIGH_WATER_MARK_PROPERTY, highWaterMark.getTime());
+      try {
+        persistentStore.add(HIGH_WATER_MARK_TYPE, item);
+      } catch (PersistenceException e) {
+        LOGGER.debug("Unable to store the high-water mark of query {}", queryId, e);
+      }
+    }
+  }
+
+  /**
+   * Removes the high-water marks that are older than {@code cutoff}. Such marks no longer affect
+   * what is counted, and the marks of deleted queries would otherwise be kept forever.
+   */
+  public void removeOlderThan(Date cutoff) {
+    String ecql = HIGH_WATER_MARK_PROPERTY + " < " + cutoff.getTime();
+    try {
+      int removed;
+      do {
+        removed = persistentStore.delete(HIGH_WATER_MARK_TYPE, ecql, 0, PAGE_SIZE);
+      } while (removed == PAGE_SIZE);
+    } catch (PersistenceException e) {
+      LOGGER.debug("Unable to remove query high-water marks older than {}", cutoff, e);
+    }
+  }
+
+  private static void add(Map<String, Date> highWaterMarks, Map<String, Object> item) {
+    Object id = item.get(ID);
+    Object highWaterMark = item.get(HIGH_WATER_MARK_PROPERTY);
+    if (id != null && highWaterMark instanceof Number) {
+      highWaterMarks.put(id.toString(), new Date(((Number) highWaterMark).longValue()));
+    }
+  }
+}
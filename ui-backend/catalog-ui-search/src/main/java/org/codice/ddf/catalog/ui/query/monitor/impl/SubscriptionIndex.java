@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.impl;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the subscriptions, indexed both from ID to emails and from email to IDs. Reads
+ * do not lock; updates are serialized so the two directions always agree.
+ */
+class SubscriptionIndex {
+
+  private final Map<String, Set<String>> emailsById = new ConcurrentHashMap<>();
+
+  private final Map<String, Set<String>> idsByEmail = new ConcurrentHashMap<>();
+
+  Set<String> getEmails(String id) {
+    return emailsById.getOrDefault(id, Collections.emptySet());
+  }
+
+  Set<String> getIds(String email) {
+    Set<String> ids = idsByEmail.get(email);
+    return ids == null ? Collections.emptySet() : ImmutableSet.copyOf(ids);
+  }
+
+  /** Replaces the emails of {@code id}. An empty set removes the ID. */
+  synchronized void put(String id, Set<String> emails) {
+    Set<String> previous =
+        emails.isEmpty() ? emailsById.remove(id) : emailsById.put(id, ImmutableSet.copyOf(emails));
+
+    if (previous != null) {
+      for (String email : previous) {
+        if (!emails.contains(email)) {
+          idsByEmail.computeIfPresent(
+              email,
+              (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+              });
+        }
+      }
+    }
+
+    for (String email : emails) {
+      idsByEmail.computeIfAbsent(email, key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  void remove(String id) {
+    put(id, Collections.emptySet());
+  }
+}
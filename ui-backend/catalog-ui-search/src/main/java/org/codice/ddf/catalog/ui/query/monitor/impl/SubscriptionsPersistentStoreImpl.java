@@ -17,6 +17,7 @@ import static org.apache.commons.lang3.Validate.notBlank;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -24,8 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.codice.ddf.catalog.ui.subscription.SubscriptionsPersistentStore;
@@ -39,6 +42,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Associate sets of emails with an ID. This implementation will preserve any other properties
  * stored under the ID.
+ *
+ * <p>Changes to the emails of an ID are serialized by a lock striped on the ID, so changes to
+ * different IDs and all reads proceed concurrently.
+ *
+ * <p>Reads are answered from a {@link SubscriptionIndex} that is loaded from the {@link
+ * PersistentStore} on first use, updated as subscriptions change, and reloaded every {@link
+ * #RECONCILE_INTERVAL_MINUTES} minutes to pick up changes made elsewhere. If the index cannot be
+ * loaded, reads fall back to querying the store.
  */
 public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistentStore {
 
@@ -54,10 +65,24 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
 
   @VisibleForTesting static final int PAGE_SIZE = 1000;
 
-  private static final Lock LOCK = new ReentrantLock();
+  private static final int LOCK_STRIPES = 64;
+
+  private static final Striped<Lock> LOCKS = Striped.lock(LOCK_STRIPES);
+
+  private static final long RECONCILE_INTERVAL_MINUTES = 5;
 
   private final PersistentStore persistentStore;
 
+  /**
+   * Writers hold the read lock while they update the store and the index, so a reload, which holds
+   * the write lock, never replaces the index with a copy that misses a concurrent change.
+   */
+  private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+  private volatile SubscriptionIndex index;
+
+  private volatile long indexLoadedAt;
+
   /** @param persistentStore must be non-null */
   public SubscriptionsPersistentStoreImpl(PersistentStore persistentStore) {
     notNull(persistentStore, "persistentStore must be non-null");
@@ -65,15 +90,10 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
   }
 
   private List<Map<String, Object>> query(String query) throws PersistenceException {
-    LOCK.lock();
-    try {
-      List<Map<String, Object>> results =
-          persistentStore.get(SUBSCRIPTIONS_TYPE, query, START_INDEX, PAGE_SIZE);
-      assert results.size() <= 1;
-      return results;
-    } finally {
-      LOCK.unlock();
-    }
+    List<Map<String, Object>> results =
+        persistentStore.get(SUBSCRIPTIONS_TYPE, query, START_INDEX, PAGE_SIZE);
+    assert results.size() <= 1;
+    return results;
   }
 
   private List<Map<String, Object>> get(String id) throws PersistenceException {
@@ -87,40 +107,36 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
     notNull(emails, "emails must be non-null");
     emails.forEach(email -> notBlank(email, "emails in set must be non-blank"));
 
-    LOCK.lock();
+    final Lock lock = LOCKS.get(id);
+    lock.lock();
+    indexLock.readLock().lock();
     try {
       List<Map<String, Object>> results = get(id);
 
+      PersistentItem item;
       if (!results.isEmpty()) {
-        PersistentItem item = convert(results.get(0));
+        item = convert(results.get(0));
 
         if (item.containsKey(EMAIL_PROPERTY + PersistentItem.TEXT_SUFFIX)) {
           Set<String> newValue = new HashSet<>(emails);
-          Object value = item.get(EMAIL_PROPERTY + PersistentItem.TEXT_SUFFIX);
-          if (value instanceof String) {
-            newValue.add((String) value);
-          } else if (value instanceof Set) {
-            ((Set) value)
-                .stream()
-                .filter(String.class::isInstance)
-                .forEach(obj -> newValue.add((String) obj));
-          }
+          newValue.addAll(getEmails(item));
           item.addProperty(EMAIL_PROPERTY, newValue);
         } else {
           item.addProperty(EMAIL_PROPERTY, emails);
         }
-        persistentStore.add(SUBSCRIPTIONS_TYPE, item);
       } else {
-        PersistentItem persistentItem = new PersistentItem();
-        persistentItem.addIdProperty(id);
-        persistentItem.addProperty(EMAIL_PROPERTY, emails);
-        persistentStore.add(SUBSCRIPTIONS_TYPE, persistentItem);
+        item = new PersistentItem();
+        item.addIdProperty(id);
+        item.addProperty(EMAIL_PROPERTY, emails);
       }
+      persistentStore.add(SUBSCRIPTIONS_TYPE, item);
+      updateIndex(id, getEmails(item));
 
     } catch (PersistenceException e) {
       LOGGER.warn("unable to add emails to workspace: workspaceId={} emails={}", id, emails, e);
     } finally {
-      LOCK.unlock();
+      indexLock.readLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -165,16 +181,14 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
     return item;
   }
 
+  /** Must be called while holding the lock of {@code id} and the read lock of the index. */
   private void add(String id, PersistentItem item) {
-    LOCK.lock();
     try {
       persistentStore.add(SUBSCRIPTIONS_TYPE, item);
+      updateIndex(id, getEmails(item));
     } catch (PersistenceException e) {
       LOGGER.warn(
           "unable to add PersistentItem to the PersistentStore: id={} item={}", id, item, e);
-
-    } finally {
-      LOCK.unlock();
     }
   }
 
@@ -182,7 +196,9 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
   public void removeEmails(String id, Set<String> emails) {
     notBlank(id, "id must be non-blank");
 
-    LOCK.lock();
+    final Lock lock = LOCKS.get(id);
+    lock.lock();
+    indexLock.readLock().lock();
     try {
       List<Map<String, Object>> results = get(id);
 
@@ -195,7 +211,8 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
     } catch (PersistenceException e) {
       LOGGER.warn("unable to delete emails from workspace: id={}", id, e);
     } finally {
-      LOCK.unlock();
+      indexLock.readLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -212,9 +229,12 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
   public Set<String> getSubscriptions(String email) {
     notBlank(email, "email must be non-blank");
 
-    LOCK.lock();
-    try {
+    SubscriptionIndex currentIndex = getIndex();
+    if (currentIndex != null) {
+      return currentIndex.getIds(email);
+    }
 
+    try {
       List<Map<String, Object>> results = query(queryEmail(email));
 
       List<Object> mapValues =
@@ -238,8 +258,6 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
       return merge(emailsFromSet, emailsFromString);
     } catch (PersistenceException e) {
       LOGGER.warn("unable to get workspace ids: email={}", email, e);
-    } finally {
-      LOCK.unlock();
     }
 
     return Collections.emptySet();
@@ -249,13 +267,17 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
   public void removeSubscriptions(String id) {
     final String ecql = queryId(id);
 
-    LOCK.lock();
+    final Lock lock = LOCKS.get(id);
+    lock.lock();
+    indexLock.readLock().lock();
     try {
       persistentStore.delete(SUBSCRIPTIONS_TYPE, ecql, START_INDEX, PAGE_SIZE);
+      updateIndex(id, Collections.emptySet());
     } catch (PersistenceException e) {
       LOGGER.debug("Could not delete subscriptions for query {}", ecql, e);
     } finally {
-      LOCK.unlock();
+      indexLock.readLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -264,9 +286,12 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
   public Set<String> getEmails(String id) {
     notBlank(id, "id must be non-blank");
 
-    LOCK.lock();
-    try {
+    SubscriptionIndex currentIndex = getIndex();
+    if (currentIndex != null) {
+      return currentIndex.getEmails(id);
+    }
 
+    try {
       List<Map<String, Object>> results = get(id);
 
       List<Object> mapValues =
@@ -290,13 +315,86 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
       return merge(emailsFromSet, emailsFromString);
     } catch (PersistenceException e) {
       LOGGER.warn("unable to get workspace emails: id={}", id, e);
-    } finally {
-      LOCK.unlock();
     }
 
     return Collections.emptySet();
   }
 
+  /** @return the emails of an item as it is written to the store */
+  private Set<String> getEmails(PersistentItem item) {
+    Object value = item.get(EMAIL_PROPERTY + PersistentItem.TEXT_SUFFIX);
+    if (value instanceof Collection) {
+      return streamToStrings(((Collection<?>) value).stream().map(Object.class::cast));
+    }
+    return streamToStrings(Stream.of(value));
+  }
+
+  /** Must be called while holding the lock of {@code id} and the read lock of the index. */
+  private void updateIndex(String id, Set<String> emails) {
+    SubscriptionIndex currentIndex = index;
+    if (currentIndex != null) {
+      currentIndex.put(id, emails);
+    }
+  }
+
+  /**
+   * @return the index, loading it first if it has not been loaded or is due to be reconciled with
+   *     the store, or {@code null} if it has never been loaded successfully
+   */
+  private SubscriptionIndex getIndex() {
+    SubscriptionIndex currentIndex = index;
+    if (currentIndex != null && System.nanoTime() - indexLoadedAt < reconcileIntervalNanos()) {
+      return currentIndex;
+    }
+
+    // readers keep using the current index while another thread reloads it
+    Lock writeLock = indexLock.writeLock();
+    if (currentIndex != null ? writeLock.tryLock() : lock(writeLock)) {
+      try {
+        if (index == currentIndex) {
+          loadIndex();
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+    return index;
+  }
+
+  private static boolean lock(Lock lock) {
+    lock.lock();
+    return true;
+  }
+
+  private static long reconcileIntervalNanos() {
+    return TimeUnit.MINUTES.toNanos(RECONCILE_INTERVAL_MINUTES);
+  }
+
+  /** Must be called while holding the write lock of the index. */
+  private void loadIndex() {
+    SubscriptionIndex loadedIndex = new SubscriptionIndex();
+    try {
+      List<Map<String, Object>> page;
+      int startIndex = START_INDEX;
+      do {
+        page = persistentStore.get(SUBSCRIPTIONS_TYPE, "", startIndex, PAGE_SIZE);
+        for (Map<String, Object> result : page) {
+          PersistentItem item = convert(result);
+          Object id = PersistentItem.stripSuffixes(item).get(ID);
+          if (id != null) {
+            loadedIndex.put(id.toString(), getEmails(item));
+          }
+        }
+        startIndex += page.size();
+      } while (page.size() == PAGE_SIZE);
+    } catch (PersistenceException e) {
+      LOGGER.debug("Unable to load the subscriptions, trying again on the next read", e);
+      return;
+    }
+    index = loadedIndex;
+    indexLoadedAt = System.nanoTime();
+  }
+
   /**
    * Convert a stream of objects into a set of strings.
    *
@@ -320,7 +418,15 @@ public class SubscriptionsPersistentStoreImpl implements SubscriptionsPersistent
 
   @Override
   public final void removeAllEmails(String id) {
-    removeEmails(id, getEmails(id));
+    notBlank(id, "id must be non-blank");
+
+    final Lock lock = LOCKS.get(id);
+    lock.lock();
+    try {
+      removeEmails(id, getEmails(id));
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
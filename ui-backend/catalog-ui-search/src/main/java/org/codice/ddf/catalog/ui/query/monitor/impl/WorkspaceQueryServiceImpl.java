@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.catalog.ui.query.monitor.impl;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 import static org.quartz.CronScheduleBuilder.cronSchedule;
@@ -31,26 +32,33 @@ import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import java.io.Serializable;
-import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codice.ddf.catalog.ui.metacard.query.data.metacard.QueryMetacardImpl;
 import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceMetacardImpl;
@@ -59,7 +67,7 @@ import org.codice.ddf.catalog.ui.query.monitor.api.QueryUpdateSubscriber;
 import org.codice.ddf.catalog.ui.query.monitor.api.SecurityService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceQueryService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceService;
-import org.codice.ddf.platform.util.ForkJoinPoolFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.geotools.filter.text.cql2.CQLException;
 import org.geotools.filter.text.ecql.ECQL;
 import org.opengis.filter.And;
@@ -81,6 +89,10 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private static final String TRIGGER_NAME = "WorkspaceQueryTrigger";
 
+  private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 16;
+
+  private static final int DEFAULT_MAX_CONCURRENT_QUERIES_PER_SOURCE = 4;
+
   private final QueryUpdateSubscriber queryUpdateSubscriber;
 
   private final WorkspaceService workspaceService;
@@ -96,6 +108,11 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private FilterService filterService;
 
+  private final QueryHighWaterMarks queryHighWaterMarks;
+
+  /** Parsed query filters, keyed by query id, reused until the query metacard is modified. */
+  private final Map<String, ParsedQuery> parsedQueries = new ConcurrentHashMap<>();
+
   private long queryTimeoutMinutes;
 
   private Integer queryTimeInterval;
@@ -104,6 +121,17 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private Subject subject;
 
+  private final ThreadPoolExecutor queryExecutor =
+      new ThreadPoolExecutor(
+          DEFAULT_MAX_CONCURRENT_QUERIES,
+          DEFAULT_MAX_CONCURRENT_QUERIES,
+          1L,
+          TimeUnit.MINUTES,
+          new LinkedBlockingQueue<>(),
+          StandardThreadFactoryBuilder.newThreadFactory("workspaceQueryThread"));
+
+  private int maxConcurrentQueriesPerSource = DEFAULT_MAX_CONCURRENT_QUERIES_PER_SOURCE;
+
   /**
    * @param queryUpdateSubscriber must be non-null
    * @param workspaceService must be non-null
@@ -112,6 +140,7 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
    * @param schedulerSupplier must be non-null
    * @param securityService must be non-null
    * @param filterService must be non-null
+   * @param queryHighWaterMarks must be non-null
    */
   public WorkspaceQueryServiceImpl(
       QueryUpdateSubscriber queryUpdateSubscriber,
@@ -120,7 +149,8 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
       FilterBuilder filterBuilder,
       Supplier<Optional<Scheduler>> schedulerSupplier,
       SecurityService securityService,
-      FilterService filterService)
+      FilterService filterService,
+      QueryHighWaterMarks queryHighWaterMarks)
       throws SchedulerException {
 
     notNull(queryUpdateSubscriber, "queryUpdateSubscriber must be non-null");
@@ -130,6 +160,7 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
     notNull(schedulerSupplier, "scheduleSupplier must be non-null");
     notNull(securityService, "securityService must be non-null");
     notNull(filterService, "filterService must be non-null");
+    notNull(queryHighWaterMarks, "queryHighWaterMarks must be non-null");
 
     this.queryUpdateSubscriber = queryUpdateSubscriber;
     this.workspaceService = workspaceService;
@@ -137,6 +168,9 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
     this.filterBuilder = filterBuilder;
     this.securityService = securityService;
     this.filterService = filterService;
+    this.queryHighWaterMarks = queryHighWaterMarks;
+
+    queryExecutor.allowCoreThreadTimeOut(true);
 
     Optional<Scheduler> schedulerOptional = schedulerSupplier.get();
 
@@ -195,12 +229,40 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
     this.queryTimeoutMinutes = queryTimeoutMinutes;
   }
 
+  /** @param maxConcurrentQueries maximum number of queries run at once (must be positive) */
+  @SuppressWarnings("unused")
+  public void setMaxConcurrentQueries(Integer maxConcurrentQueries) {
+    notNull(maxConcurrentQueries, "maxConcurrentQueries must be non-null");
+    isTrue(maxConcurrentQueries > 0, "maxConcurrentQueries must be positive");
+    LOGGER.debug("Setting maxConcurrentQueries : {}", maxConcurrentQueries);
+    if (maxConcurrentQueries > queryExecutor.getMaximumPoolSize()) {
+      queryExecutor.setMaximumPoolSize(maxConcurrentQueries);
+      queryExecutor.setCorePoolSize(maxConcurrentQueries);
+    } else {
+      queryExecutor.setCorePoolSize(maxConcurrentQueries);
+      queryExecutor.setMaximumPoolSize(maxConcurrentQueries);
+    }
+  }
+
+  /**
+   * @param maxConcurrentQueriesPerSource maximum number of monitor queries run at once against a
+   *     single source (must be positive)
+   */
+  @SuppressWarnings("unused")
+  public void setMaxConcurrentQueriesPerSource(Integer maxConcurrentQueriesPerSource) {
+    notNull(maxConcurrentQueriesPerSource, "maxConcurrentQueriesPerSource must be non-null");
+    isTrue(maxConcurrentQueriesPerSource > 0, "maxConcurrentQueriesPerSource must be positive");
+    LOGGER.debug("Setting maxConcurrentQueriesPerSource : {}", maxConcurrentQueriesPerSource);
+    this.maxConcurrentQueriesPerSource = maxConcurrentQueriesPerSource;
+  }
+
   public void setSubject(Subject subject) {
     this.subject = subject;
   }
 
   public void destroy() {
     LOGGER.trace("Shutting down");
+    queryExecutor.shutdownNow();
     try {
       scheduler.shutdown();
     } catch (SchedulerException e) {
@@ -210,81 +272,219 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   /** Main entry point, should be called by a scheduler. */
   public void run() {
-    securityService
-        .getSystemSubject()
-        .execute(
-            () -> {
-              LOGGER.trace("running workspace query service");
+    securityService.getSystemSubject().execute(this::runWorkspaceQueries);
+  }
+
+  /**
+   * Counts, for each workspace, the records modified since its queries were last counted. The
+   * high-water mark of a query only moves once its count has been handed to the subscribers, so
+   * a run that fails or times out is picked up again by the next one.
+   */
+  private void runWorkspaceQueries() {
+    LOGGER.trace("running workspace query service");
+
+    final Date runDate = new Date();
+
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        workspaceService.getQueryMetacards();
 
-              Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
-                  workspaceService.getQueryMetacards();
+    LOGGER.debug("queryMetacards: size={}", queryMetacards.size());
 
-              LOGGER.debug("queryMetacards: size={}", queryMetacards.size());
+    List<WorkspaceTask> workspaceTasks =
+        createWorkspaceTasks(queryMetacards, queryHighWaterMarks.load(), runDate);
 
-              List<WorkspaceTask> workspaceTasks = createWorkspaceTasks(queryMetacards);
+    LOGGER.debug("workspaceTasks: size={}", workspaceTasks.size());
 
-              LOGGER.debug("workspaceTasks: size={}", workspaceTasks.size());
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
+        executeWorkspaceTasks(workspaceTasks, queryTimeoutMinutes, TimeUnit.MINUTES);
 
-              Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
-                  executeWorkspaceTasks(workspaceTasks, queryTimeoutMinutes, TimeUnit.MINUTES);
+    LOGGER.debug("results: {}", results);
 
-              LOGGER.debug("results: {}", results);
+    queryUpdateSubscriber.notify(results);
 
-              queryUpdateSubscriber.notify(results);
-            });
+    queryHighWaterMarks.update(getCountedQueryIds(workspaceTasks, results.keySet()), runDate);
+
+    queryHighWaterMarks.removeOlderThan(calculateQueryTimeInterval(runDate));
+  }
+
+  /**
+   * A query with several sources is counted by one task per source, so it only counts as counted
+   * once every one of those tasks has succeeded. Otherwise its mark stays put and the changes in
+   * the sources that failed are counted by the next run.
+   */
+  private List<String> getCountedQueryIds(
+      List<WorkspaceTask> workspaceTasks, Set<String> notifiedWorkspaceIds) {
+    Set<String> uncountedQueryIds =
+        workspaceTasks
+            .stream()
+            .flatMap(workspaceTask -> workspaceTask.queryTasks.stream())
+            .filter(queryTask -> !queryTask.succeeded)
+            .flatMap(queryTask -> queryTask.queryIds.stream())
+            .collect(Collectors.toSet());
+
+    return workspaceTasks
+        .stream()
+        .filter(workspaceTask -> notifiedWorkspaceIds.contains(workspaceTask.getWorkspaceId()))
+        .flatMap(workspaceTask -> workspaceTask.queryTasks.stream())
+        .filter(queryTask -> queryTask.succeeded)
+        .flatMap(queryTask -> queryTask.queryIds.stream())
+        .filter(queryId -> !uncountedQueryIds.contains(queryId))
+        .distinct()
+        .collect(Collectors.toList());
   }
 
+  /**
+   * Submits the queries of every workspace up front. Each source gets its own queue, drained by at
+   * most {@link #maxConcurrentQueriesPerSource} workers on the shared query executor, and all
+   * workspaces share a single deadline. Workspaces that do not finish by the deadline are left out
+   * of the results and their remaining queries are skipped.
+   */
   private Map<String, Pair<WorkspaceMetacardImpl, Long>> executeWorkspaceTasks(
       List<WorkspaceTask> workspaceTasks, long timeout, TimeUnit timeoutUnit) {
     Map<String, Pair<WorkspaceMetacardImpl, Long>> results = new ConcurrentHashMap<>();
 
-    workspaceTasks
-        .stream()
-        .map(ForkJoinPoolFactory.getNewForkJoinPool(null, false)::submit)
-        .map(task -> getTaskResult(task, timeout, timeoutUnit))
-        .filter(Objects::nonNull)
-        .forEach(
-            pair ->
-                results.put(
-                    pair.getLeft().getId(), new ImmutablePair<>(pair.getLeft(), pair.getRight())));
+    final long deadline = System.nanoTime() + timeoutUnit.toNanos(timeout);
+    final AtomicBoolean expired = new AtomicBoolean(false);
+
+    Map<String, Queue<QueryTask>> queryTasksBySource = new HashMap<>();
+    for (WorkspaceTask workspaceTask : workspaceTasks) {
+      for (QueryTask queryTask : workspaceTask.queryTasks) {
+        queryTasksBySource
+            .computeIfAbsent(queryTask.sourceId, sourceId -> new ConcurrentLinkedQueue<>())
+            .add(queryTask);
+      }
+    }
+
+    try {
+      for (Queue<QueryTask> sourceQueue : queryTasksBySource.values()) {
+        int workers = Math.min(maxConcurrentQueriesPerSource, sourceQueue.size());
+        for (int i = 0; i < workers; i++) {
+          queryExecutor.execute(() -> drain(sourceQueue, expired));
+        }
+      }
+
+      for (WorkspaceTask workspaceTask : workspaceTasks) {
+        Pair<WorkspaceMetacardImpl, Long> pair =
+            getTaskResult(workspaceTask.result, deadline - System.nanoTime());
+        if (pair != null) {
+          results.put(pair.getLeft().getId(), pair);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted while waiting for workspace queries", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      expired.set(true);
+    }
 
     return results;
   }
 
+  private static void drain(Queue<QueryTask> sourceQueue, AtomicBoolean expired) {
+    QueryTask queryTask;
+    while (!expired.get() && (queryTask = sourceQueue.poll()) != null) {
+      queryTask.run();
+    }
+  }
+
   private Pair<WorkspaceMetacardImpl, Long> getTaskResult(
-      ForkJoinTask<Pair<WorkspaceMetacardImpl, Long>> workspaceTask,
-      long timeout,
-      TimeUnit timeoutUnit) {
+      CompletableFuture<Pair<WorkspaceMetacardImpl, Long>> workspaceResult, long timeoutNanos)
+      throws InterruptedException {
     try {
-      return workspaceTask.get(timeout, timeoutUnit);
+      return workspaceResult.get(Math.max(timeoutNanos, 0L), TimeUnit.NANOSECONDS);
     } catch (TimeoutException e) {
       LOGGER.warn("Timeout", e);
-    } catch (ExecutionException | InterruptedException e) {
-      LOGGER.warn("ForkJoinPool error", e);
-
-      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOGGER.warn("Workspace query error", e);
     }
     return null;
   }
 
   private List<WorkspaceTask> createWorkspaceTasks(
-      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards) {
-    List<WorkspaceTask> workspaceTasks = new ArrayList<>();
+      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards,
+      Map<String, Date> highWaterMarks,
+      Date runDate) {
+    final Date defaultHighWaterMark = calculateQueryTimeInterval(runDate);
+    final Set<String> queryIds = new HashSet<>();
+    final List<WorkspaceTask> workspaceTasks = new ArrayList<>();
 
     for (Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspaceQueryPair :
         queryMetacards.values()) {
-      Map<String, List<QueryMetacardImpl>> queryMetacardsGroupedBySource =
-          groupBySource(workspaceQueryPair.getRight());
-      List<QueryRequest> queryRequests =
-          getQueryRequests(queryMetacardsGroupedBySource.values().stream());
-      if (!queryRequests.isEmpty()) {
-        workspaceTasks.add(new WorkspaceTask(workspaceQueryPair.getLeft(), queryRequests));
+      final WorkspaceTask workspaceTask = new WorkspaceTask(workspaceQueryPair.getLeft());
+
+      groupBySource(workspaceQueryPair.getRight())
+          .forEach(
+              (sourceId, queries) ->
+                  groupByHighWaterMark(queries, highWaterMarks, defaultHighWaterMark)
+                      .forEach(
+                          (highWaterMark, queriesSinceMark) ->
+                              addQueryTask(
+                                  workspaceTask,
+                                  sourceId,
+                                  queriesSinceMark,
+                                  filterService.getModifiedDateFilter(highWaterMark, runDate))));
+
+      if (!workspaceTask.queryTasks.isEmpty()) {
+        workspaceTask.start();
+        workspaceTasks.add(workspaceTask);
       }
+
+      workspaceQueryPair.getRight().stream().map(QueryMetacardImpl::getId).forEach(queryIds::add);
     }
 
+    parsedQueries.keySet().retainAll(queryIds);
+
     return workspaceTasks;
   }
 
+  /**
+   * Queries that were last counted at the same time are sent together. Marks older than the query
+   * time interval are moved up to it so a long outage does not count a backlog of changes.
+   */
+  private Map<Date, List<QueryMetacardImpl>> groupByHighWaterMark(
+      List<QueryMetacardImpl> queryMetacards,
+      Map<String, Date> highWaterMarks,
+      Date defaultHighWaterMark) {
+    final Map<Date, List<QueryMetacardImpl>> groupedByHighWaterMark = new HashMap<>();
+    for (QueryMetacardImpl queryMetacard : queryMetacards) {
+      Date highWaterMark = defaultHighWaterMark;
+      if (queryMetacard.getId() != null) {
+        Date storedHighWaterMark = highWaterMarks.get(queryMetacard.getId());
+        if (storedHighWaterMark != null && storedHighWaterMark.after(defaultHighWaterMark)) {
+          highWaterMark = storedHighWaterMark;
+        }
+      }
+      groupedByHighWaterMark
+          .computeIfAbsent(highWaterMark, date -> new ArrayList<>())
+          .add(queryMetacard);
+    }
+    return groupedByHighWaterMark;
+  }
+
+  private void addQueryTask(
+      WorkspaceTask workspaceTask,
+      String sourceId,
+      List<QueryMetacardImpl> queries,
+      Filter modifiedFilter) {
+    final List<Filter> filters = queryMetacardsToFilters(queries);
+    if (filters.isEmpty()) {
+      return;
+    }
+
+    final QueryRequest queryRequest =
+        queryToQueryRequest(
+            filterToQuery(filterBuilder.allOf(modifiedFilter, filterBuilder.anyOf(filters))),
+            sourceId);
+    final List<String> queryIds =
+        queries
+            .stream()
+            .map(QueryMetacardImpl::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+    workspaceTask.queryTasks.add(new QueryTask(workspaceTask, sourceId, queryIds, queryRequest));
+  }
+
   private Map<String, List<QueryMetacardImpl>> groupBySource(
       List<QueryMetacardImpl> queryMetacards) {
     final Map<String, List<QueryMetacardImpl>> groupedBySource = new HashMap<>();
@@ -311,18 +511,6 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
     };
   }
 
-  private List<QueryRequest> getQueryRequests(
-      Stream<List<QueryMetacardImpl>> queriesGroupedBySource) {
-    final Filter modifiedFilter = filterService.getModifiedDateFilter(calculateQueryTimeInterval());
-    return queriesGroupedBySource
-        .map(this::queryMetacardsToFilters)
-        .map(filterBuilder::anyOf)
-        .map(filter -> filterBuilder.allOf(modifiedFilter, filter))
-        .map(this::filterToQuery)
-        .map(this::queryToQueryRequest)
-        .collect(Collectors.toList());
-  }
-
   private List<Filter> queryMetacardsToFilters(List<QueryMetacardImpl> queriesForSource) {
     return queriesForSource
         .stream()
@@ -331,9 +519,12 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
         .collect(Collectors.toList());
   }
 
-  private QueryRequestImpl queryToQueryRequest(QueryImpl query) {
+  /** Queries without a source are run against the local catalog. */
+  private QueryRequestImpl queryToQueryRequest(QueryImpl query, String sourceId) {
     final Map<String, Serializable> properties = securityService.addSystemSubject(new HashMap<>());
-    return new QueryRequestImpl(query, properties);
+    final Collection<String> sourceIds =
+        UNKNOWN_SOURCE.equals(sourceId) ? null : Collections.singleton(sourceId);
+    return new QueryRequestImpl(query, false, sourceIds, properties);
   }
 
   private QueryImpl filterToQuery(And filter) {
@@ -342,63 +533,121 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
     return query;
   }
 
+  /** Parses the query's CQL, unless it was already parsed for the same version of the query. */
   private Filter metacardToFilter(QueryMetacardImpl queryMetacard) {
+    final String queryId = queryMetacard.getId();
+    final Date modified = queryMetacard.getModifiedDate();
+
+    if (queryId != null) {
+      ParsedQuery parsedQuery = parsedQueries.get(queryId);
+      if (parsedQuery != null && parsedQuery.isVersion(modified)) {
+        return parsedQuery.filter;
+      }
+    }
+
     try {
-      return ECQL.toFilter(queryMetacard.getCql());
+      Filter filter = ECQL.toFilter(queryMetacard.getCql());
+      if (queryId != null && modified != null) {
+        parsedQueries.put(queryId, new ParsedQuery(modified, filter));
+      }
+      return filter;
     } catch (CQLException e) {
       LOGGER.warn("Error parsing CQL", e);
       return null;
     }
   }
 
-  private Date calculateQueryTimeInterval() {
-    return Date.from(Instant.now().minus(queryTimeInterval, ChronoUnit.MINUTES));
+  private Date calculateQueryTimeInterval(Date runDate) {
+    return Date.from(runDate.toInstant().minus(queryTimeInterval, ChronoUnit.MINUTES));
   }
 
-  private class QueryTask extends RecursiveTask<Long> {
+  private static class ParsedQuery {
+    private final Date modified;
+
+    private final Filter filter;
+
+    private ParsedQuery(Date modified, Filter filter) {
+      this.modified = modified;
+      this.filter = filter;
+    }
+
+    private boolean isVersion(Date queryModified) {
+      return modified.equals(queryModified);
+    }
+  }
+
+  private class QueryTask implements Runnable {
+    private final WorkspaceTask workspaceTask;
+
+    private final String sourceId;
+
+    private final List<String> queryIds;
+
     private final QueryRequest queryRequest;
 
-    private QueryTask(QueryRequest queryRequest) {
+    private volatile boolean succeeded;
+
+    private QueryTask(
+        WorkspaceTask workspaceTask,
+        String sourceId,
+        List<String> queryIds,
+        QueryRequest queryRequest) {
+      this.workspaceTask = workspaceTask;
+      this.sourceId = sourceId;
+      this.queryIds = queryIds;
       this.queryRequest = queryRequest;
     }
 
     @Override
-    protected Long compute() {
+    public void run() {
+      if (workspaceTask.result.isDone()) {
+        return;
+      }
       try {
         final QueryResponse response = catalogFramework.query(queryRequest);
-        return response.getHits();
+        succeeded = true;
+        workspaceTask.addHits(response.getHits());
       } catch (UnsupportedQueryException | FederationException | SourceUnavailableException e) {
         LOGGER.warn("Query error", e);
-        return 0L;
+        workspaceTask.addHits(0L);
+      } catch (RuntimeException e) {
+        workspaceTask.result.completeExceptionally(e);
       }
     }
   }
 
-  private class WorkspaceTask extends RecursiveTask<Pair<WorkspaceMetacardImpl, Long>> {
+  private class WorkspaceTask {
     private final WorkspaceMetacardImpl workspaceMetacard;
 
-    private final List<QueryRequest> queryRequests;
+    private final List<QueryTask> queryTasks = new ArrayList<>();
+
+    private final AtomicLong hits = new AtomicLong();
 
-    private WorkspaceTask(
-        WorkspaceMetacardImpl workspaceMetacard, List<QueryRequest> queryRequests) {
+    private final AtomicInteger remaining = new AtomicInteger();
+
+    private final CompletableFuture<Pair<WorkspaceMetacardImpl, Long>> result =
+        new CompletableFuture<>();
+
+    private WorkspaceTask(WorkspaceMetacardImpl workspaceMetacard) {
       notNull(workspaceMetacard, "WorkspaceMetacardImpl must be non-null");
-      notNull(queryRequests, "queryRequests must be non-null");
-      notEmpty(queryRequests, "queryRequests must be non-empty");
       this.workspaceMetacard = workspaceMetacard;
-      this.queryRequests = queryRequests;
     }
 
-    @Override
-    protected Pair<WorkspaceMetacardImpl, Long> compute() {
-      final long result =
-          queryRequests
-              .stream()
-              .map(QueryTask::new)
-              .map(QueryTask::fork)
-              .mapToLong(ForkJoinTask::join)
-              .sum();
-
-      return Pair.of(workspaceMetacard, result);
+    private String getWorkspaceId() {
+      return workspaceMetacard.getId();
+    }
+
+    /** Must be called once all query tasks have been added and before any of them run. */
+    private void start() {
+      notEmpty(queryTasks, "queryTasks must be non-empty");
+      remaining.set(queryTasks.size());
+    }
+
+    private void addHits(long queryHits) {
+      long total = hits.addAndGet(queryHits);
+      if (remaining.decrementAndGet() == 0) {
+        result.complete(Pair.of(workspaceMetacard, total));
+      }
     }
   }
 }
@@ -17,7 +17,9 @@ import static org.apache.commons.lang3.Validate.notNull;
 import static org.codice.ddf.catalog.ui.metacard.query.util.QueryAttributes.QUERY_TAG;
 import static org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceConstants.WORKSPACE_TAG;
 
+import com.google.common.collect.Lists;
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.filter.FilterBuilder;
@@ -34,8 +36,10 @@ import ddf.catalog.util.impl.QueryFunction;
 import ddf.catalog.util.impl.ResultIterable;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -68,6 +72,9 @@ public class WorkspaceServiceImpl implements WorkspaceService {
 
   private static final String ID_FIELD = "id_txt";
 
+  /** Keeps the number of clauses in each query id filter well below common search engine limits. */
+  private static final int QUERY_ID_BATCH_SIZE = 100;
+
   private final CatalogFramework catalogFramework;
 
   private final WorkspaceTransformerImpl workspaceTransformer;
@@ -144,12 +151,38 @@ public class WorkspaceServiceImpl implements WorkspaceService {
       return Collections.emptyList();
     }
 
-    Query query = new QueryImpl(getQueriesFilter(queryIds));
-    QueryRequest queryRequest = new QueryRequestImpl(query);
+    return getQueryMetacards(queryIds, loadQueryMetacards(queryIds));
+  }
 
-    return ResultIterable.resultIterable(catalogFramework::query, queryRequest)
+  /**
+   * Fetches the query metacards with the given ids, {@link #QUERY_ID_BATCH_SIZE} ids per catalog
+   * query.
+   *
+   * @return the query metacards found, keyed by id
+   */
+  private Map<String, Metacard> loadQueryMetacards(Collection<String> queryIds) {
+    Map<String, Metacard> queryMetacards = new HashMap<>();
+
+    for (List<String> batch : Lists.partition(new ArrayList<>(queryIds), QUERY_ID_BATCH_SIZE)) {
+      QueryRequest queryRequest = new QueryRequestImpl(new QueryImpl(getQueriesFilter(batch)));
+
+      ResultIterable.resultIterable(catalogFramework::query, queryRequest)
+          .stream()
+          .map(Result::getMetacard)
+          .filter(Objects::nonNull)
+          .forEach(metacard -> queryMetacards.putIfAbsent(metacard.getId(), metacard));
+    }
+
+    return queryMetacards;
+  }
+
+  /** Picks the query metacards of a workspace out of those loaded, in the workspace's order. */
+  private List<QueryMetacardImpl> getQueryMetacards(
+      List<String> queryIds, Map<String, Metacard> loadedQueryMetacards) {
+    return queryIds
         .stream()
-        .map(Result::getMetacard)
+        .distinct()
+        .map(loadedQueryMetacards::get)
         .filter(Objects::nonNull)
         .map(QueryMetacardImpl::new)
         .collect(Collectors.toList());
@@ -299,12 +332,26 @@ public class WorkspaceServiceImpl implements WorkspaceService {
 
   @Override
   public Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> getQueryMetacards() {
+    List<WorkspaceMetacardImpl> workspaceMetacards = getWorkspaceMetacards();
+
+    Set<String> queryIds =
+        workspaceMetacards
+            .stream()
+            .map(WorkspaceMetacardImpl::getQueries)
+            .flatMap(List::stream)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    Map<String, Metacard> loadedQueryMetacards =
+        queryIds.isEmpty() ? Collections.emptyMap() : loadQueryMetacards(queryIds);
+
     Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
         new HashMap<>();
-    for (WorkspaceMetacardImpl workspaceMetacard : getWorkspaceMetacards()) {
+    for (WorkspaceMetacardImpl workspaceMetacard : workspaceMetacards) {
       queryMetacards.put(
           workspaceMetacard.getId(),
-          new ImmutablePair<>(workspaceMetacard, getQueryMetacards(workspaceMetacard)));
+          new ImmutablePair<>(
+              workspaceMetacard,
+              getQueryMetacards(workspaceMetacard.getQueries(), loadedQueryMetacards)));
     }
     return queryMetacards;
   }
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.suggestion;
+
+/**
+ * Classifies a suggestion query in a single pass by the coordinate systems it could possibly be
+ * written in. Most queries are place names that no coordinate processor will match, and checking
+ * the few character features each processor's patterns depend on is much cheaper than running
+ * those patterns.
+ *
+ * <p>Each {@code mayBe} method is a necessary condition for the corresponding processor to find
+ * anything: when it returns {@code false} the processor is certain to add no suggestion.
+ */
+final class CoordinateShape {
+
+  private final int digitRuns;
+
+  private final boolean hasSpace;
+
+  private final boolean hasDigitBeforeLetter;
+
+  private final boolean hasNorthOrSouth;
+
+  private final boolean hasEastOrWest;
+
+  private CoordinateShape(
+      int digitRuns,
+      boolean hasSpace,
+      boolean hasDigitBeforeLetter,
+      boolean hasNorthOrSouth,
+      boolean hasEastOrWest) {
+    this.digitRuns = digitRuns;
+    this.hasSpace = hasSpace;
+    this.hasDigitBeforeLetter = hasDigitBeforeLetter;
+    this.hasNorthOrSouth = hasNorthOrSouth;
+    this.hasEastOrWest = hasEastOrWest;
+  }
+
+  static CoordinateShape of(String query) {
+    int digitRuns = 0;
+    boolean hasSpace = false;
+    boolean hasDigitBeforeLetter = false;
+    boolean hasNorthOrSouth = false;
+    boolean hasEastOrWest = false;
+
+    boolean previousIsDigit = false;
+    int length = query == null ? 0 : query.length();
+    for (int i = 0; i < length; i++) {
+      char c = query.charAt(i);
+      boolean isDigit = c >= '0' && c <= '9';
+      if (isDigit) {
+        if (!previousIsDigit) {
+          digitRuns++;
+        }
+      } else if (isAsciiLetter(c)) {
+        hasDigitBeforeLetter |= previousIsDigit;
+        char upper = (char) (c & ~0x20);
+        hasNorthOrSouth |= upper == 'N' || upper == 'S';
+        hasEastOrWest |= upper == 'E' || upper == 'W';
+      } else if (c == ' ') {
+        hasSpace = true;
+      }
+      previousIsDigit = isDigit;
+    }
+
+    return new CoordinateShape(
+        digitRuns, hasSpace, hasDigitBeforeLetter, hasNorthOrSouth, hasEastOrWest);
+  }
+
+  /** A Lat/Lon literal is a pair of decimal numbers, each with at least one run of digits. */
+  boolean mayBeLatLon() {
+    return digitRuns >= 2;
+  }
+
+  /** A DMS literal has degrees, minutes and seconds for each axis and a direction for each. */
+  boolean mayBeDms() {
+    return digitRuns >= 6 && hasNorthOrSouth && hasEastOrWest;
+  }
+
+  /** An MGRS literal starts with a zone number directly followed by a latitude band letter. */
+  boolean mayBeMgrs() {
+    return hasDigitBeforeLetter;
+  }
+
+  /** A UTM or UPS literal has an easting and a northing separated from what precedes by spaces. */
+  boolean mayBeUtmUps() {
+    return digitRuns >= 2 && hasSpace;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+}
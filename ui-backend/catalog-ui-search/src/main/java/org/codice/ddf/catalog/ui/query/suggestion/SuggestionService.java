@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.suggestion;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.ui.query.geofeature.FeatureService;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the place name suggestions for the search location input. The gazetteer is queried on
+ * the given executor while the query is checked for coordinate literals, and the gazetteer is only
+ * waited for until a deadline so that coordinate suggestions are never held back by a slow
+ * gazetteer.
+ *
+ * <p>The query is classified once with {@link CoordinateShape}, and only the coordinate processors
+ * whose literals it could contain are run.
+ */
+public class SuggestionService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionService.class);
+
+  private static final int MAX_FEATURE_NAMES = 10;
+
+  private static final long DEFAULT_DEADLINE_MILLIS = 2000;
+
+  private final FeatureService featureService;
+
+  private final LatLonCoordinateProcessor latLonCoordinateProcessor;
+
+  private final DmsCoordinateProcessor dmsCoordinateProcessor;
+
+  private final MgrsCoordinateProcessor mgrsCoordinateProcessor;
+
+  private final UtmUpsCoordinateProcessor utmUpsCoordinateProcessor;
+
+  private final ExecutorService executor;
+
+  private long deadlineMillis = DEFAULT_DEADLINE_MILLIS;
+
+  public SuggestionService(
+      FeatureService featureService,
+      LatLonCoordinateProcessor latLonCoordinateProcessor,
+      DmsCoordinateProcessor dmsCoordinateProcessor,
+      MgrsCoordinateProcessor mgrsCoordinateProcessor,
+      UtmUpsCoordinateProcessor utmUpsCoordinateProcessor,
+      ExecutorService executor) {
+    this.featureService = featureService;
+    this.latLonCoordinateProcessor = latLonCoordinateProcessor;
+    this.dmsCoordinateProcessor = dmsCoordinateProcessor;
+    this.mgrsCoordinateProcessor = mgrsCoordinateProcessor;
+    this.utmUpsCoordinateProcessor = utmUpsCoordinateProcessor;
+    this.executor = executor;
+  }
+
+  /**
+   * @param query the text typed so far
+   * @return the coordinate literal suggestions followed by the gazetteer suggestions, or only the
+   *     coordinate suggestions if the gazetteer does not answer in time
+   */
+  public List<Suggestion> getSuggestions(String query) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    Future<List<Suggestion>> featureNames = submitFeatureNameQuery(query);
+
+    List<Suggestion> suggestions = new LinkedList<>();
+    CoordinateShape shape = CoordinateShape.of(query);
+    if (shape.mayBeUtmUps()) {
+      utmUpsCoordinateProcessor.enhanceResults(suggestions, query);
+    }
+    if (shape.mayBeMgrs()) {
+      mgrsCoordinateProcessor.enhanceResults(suggestions, query);
+    }
+    if (shape.mayBeDms()) {
+      dmsCoordinateProcessor.enhanceResults(suggestions, query);
+    }
+    if (shape.mayBeLatLon()) {
+      latLonCoordinateProcessor.enhanceResults(suggestions, query);
+    }
+
+    if (featureNames != null) {
+      suggestions.addAll(getFeatureNames(featureNames, deadline, query));
+    }
+    return suggestions;
+  }
+
+  public void setDeadlineMillis(long deadlineMillis) {
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  private Future<List<Suggestion>> submitFeatureNameQuery(String query) {
+    try {
+      return executor.submit(
+          withCurrentSubject(
+              () -> featureService.getSuggestedFeatureNames(query, MAX_FEATURE_NAMES)));
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to query the gazetteer for suggestions", e);
+      return null;
+    }
+  }
+
+  /** Runs the task as the subject of the calling thread, which a catalog gazetteer needs. */
+  private static <T> Callable<T> withCurrentSubject(Callable<T> task) {
+    Subject subject = ThreadContext.getSubject();
+    return subject == null ? task : subject.associateWith(task);
+  }
+
+  private static List<Suggestion> getFeatureNames(
+      Future<List<Suggestion>> featureNames, long deadline, String query) {
+    try {
+      return featureNames.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      LOGGER.debug("Gazetteer suggestions for [{}] were not ready in time", query);
+      // A query that has started is left to finish so that its result is cached for next time
+      featureNames.cancel(false);
+    } catch (ExecutionException e) {
+      LOGGER.debug("Gazetteer suggestion query failed", e);
+    } catch (InterruptedException e) {
+      featureNames.cancel(true);
+      Thread.currentThread().interrupt();
+    }
+    return Collections.emptyList();
+  }
+}
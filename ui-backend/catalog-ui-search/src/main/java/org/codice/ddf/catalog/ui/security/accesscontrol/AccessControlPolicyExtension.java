@@ -15,6 +15,11 @@ package org.codice.ddf.catalog.ui.security.accesscontrol;
 
 import static ddf.security.permission.CollectionPermission.READ_ACTION;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import ddf.catalog.data.impl.types.SecurityAttributes;
@@ -30,12 +35,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import org.apache.commons.collections4.SetUtils;
 import org.apache.shiro.authz.Permission;
 import org.codice.ddf.catalog.ui.security.Constants;
 
@@ -43,7 +48,11 @@ public class AccessControlPolicyExtension implements PolicyExtension {
 
   // Marker interface to clean up method signature for predicate
   public interface SecurityPredicate
-      extends BiFunction<Map<String, Set<String>>, Map<String, Set<String>>, Boolean> {}
+      extends BiFunction<SubjectPermissions, Map<String, Set<String>>, Boolean> {}
+
+  private static final int MAX_CACHED_SUBJECTS = 1000;
+
+  private static final long SUBJECT_EXPIRATION_MINUTES = 30;
 
   private static final Set<String> ACCESS_CONTROL_IMPLIED =
       new ImmutableSet.Builder<String>()
@@ -68,18 +77,31 @@ public class AccessControlPolicyExtension implements PolicyExtension {
 
   private final SecurityPredicate hasAccessIndividualsReadOnly;
 
-  private final Predicate<Map<String, Set<String>>> isSystem;
+  private final Predicate<SubjectPermissions> isSystem;
+
+  /**
+   * Compiled permissions of recently seen subjects, keyed by the attribute values they hold. A
+   * subject whose attributes change gets a new entry and the old one expires.
+   */
+  private final LoadingCache<Map<String, Set<String>>, SubjectPermissions> subjects =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_SUBJECTS)
+          .expireAfterAccess(SUBJECT_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .recordStats()
+          .build(
+              new CacheLoader<Map<String, Set<String>>, SubjectPermissions>() {
+                @Override
+                public SubjectPermissions load(Map<String, Set<String>> values) {
+                  return SubjectPermissions.of(values);
+                }
+              });
 
   public AccessControlPolicyExtension(
       AccessControlSecurityConfiguration config, SubjectIdentity subjectIdentity) {
     isOwner = predicate(subjectIdentity.getIdentityAttribute(), Core.METACARD_OWNER);
 
     isSystem =
-        (s) -> {
-          Set<String> subject =
-              s.getOrDefault(config.getSystemUserAttribute(), Collections.emptySet());
-          return subject.contains(config.getSystemUserAttributeValue());
-        };
+        (s) -> s.contains(config.getSystemUserAttribute(), config.getSystemUserAttributeValue());
 
     hasAccessAdministrators =
         predicate(subjectIdentity.getIdentityAttribute(), Security.ACCESS_ADMINISTRATORS);
@@ -108,20 +130,15 @@ public class AccessControlPolicyExtension implements PolicyExtension {
   }
 
   private SecurityPredicate predicate(String subjectAttribute, String metacardAttribute) {
-    return (s, m) -> {
-      Set<String> subject = s.getOrDefault(subjectAttribute, Collections.emptySet());
-      Set<String> metacard = m.getOrDefault(metacardAttribute, Collections.emptySet());
-      subject = subject.stream().map(String::toLowerCase).collect(Collectors.toSet());
-      metacard = metacard.stream().map(String::toLowerCase).collect(Collectors.toSet());
-      return !SetUtils.intersection(metacard, subject).isEmpty();
-    };
+    return (s, m) ->
+        s.containsAnyIgnoreCase(
+            subjectAttribute, m.getOrDefault(metacardAttribute, Collections.emptySet()));
   }
 
   private KeyValueCollectionPermission isPermitted(
       CollectionPermission s,
       KeyValueCollectionPermission match,
       KeyValueCollectionPermission allPerms) {
-    Map<String, Set<String>> subject = getPermissions(s.getPermissionList());
     Map<String, Set<String>> metacard = getPermissions(allPerms.getPermissionList());
 
     // There is nothing to imply if the incoming permission set doesn't contain _ALL_ ACL attributes
@@ -129,6 +146,8 @@ public class AccessControlPolicyExtension implements PolicyExtension {
       return match; // Simply imply nothing early on (essentially a no-op in this extension)
     }
 
+    SubjectPermissions subject = subjects.getUnchecked(getPermissions(s.getPermissionList()));
+
     // To be able to have viewing access to the metacard, you must satisfy the following criteria
     SecurityPredicate subjectImpliesACL =
         (sub, mc) ->
@@ -184,4 +203,9 @@ public class AccessControlPolicyExtension implements PolicyExtension {
       KeyValueCollectionPermission allPermissionsCollection) {
     return isPermitted(subject, matchOne, allPermissionsCollection);
   }
+
+  @VisibleForTesting
+  CacheStats getSubjectCacheStats() {
+    return subjects.stats();
+  }
 }
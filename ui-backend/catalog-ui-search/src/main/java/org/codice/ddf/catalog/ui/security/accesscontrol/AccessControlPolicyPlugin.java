@@ -30,55 +30,40 @@ import ddf.catalog.plugin.impl.PolicyResponseImpl;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class AccessControlPolicyPlugin implements PolicyPlugin {
 
-  private Map<String, Set<String>> getAccessAdministratorPermission(Metacard metacard) {
-    return ImmutableMap.of(
-        Security.ACCESS_ADMINISTRATORS, AccessControlUtil.getAccessAdministrators(metacard));
-  }
-
-  private Map<String, Set<String>> getIndividualPermission(Metacard metacard) {
-    return ImmutableMap.of(
-        Security.ACCESS_INDIVIDUALS, AccessControlUtil.getAccessIndividuals(metacard));
-  }
-
-  private Map<String, Set<String>> getReadOnlyIndividualPermission(Metacard metacard) {
-    return ImmutableMap.of(
-        Security.ACCESS_INDIVIDUALS_READ, AccessControlUtil.getAccessReadOnlyIndividuals(metacard));
-  }
-
-  private Map<String, Set<String>> getGroupPermission(Metacard metacard) {
-    return ImmutableMap.of(Security.ACCESS_GROUPS, AccessControlUtil.getAccessGroups(metacard));
-  }
-
-  private Map<String, Set<String>> getReadOnlyGroupPermission(Metacard metacard) {
-    return ImmutableMap.of(
-        Security.ACCESS_GROUPS_READ, AccessControlUtil.getAccessReadOnlyGroups(metacard));
-  }
-
-  private Map<String, Set<String>> getOwner(Metacard metacard) {
-    return ImmutableMap.of(Core.METACARD_OWNER, AccessControlUtil.getOwnerOrEmptySet(metacard));
+  private static void putIfNotEmpty(
+      Map<String, Set<String>> policy, String attribute, Set<String> values) {
+    if (!values.isEmpty()) {
+      policy.put(attribute, values);
+    }
   }
 
+  // Called for every query result, so the policy is built directly rather than merged from maps
   private Map<String, Set<String>> getPolicyForMetacard(Metacard metacard) {
-    return Stream.of(
-            getOwner(metacard),
-            getAccessAdministratorPermission(metacard),
-            getGroupPermission(metacard),
-            getReadOnlyGroupPermission(metacard),
-            getReadOnlyIndividualPermission(metacard),
-            getIndividualPermission(metacard))
-        .map(Map::entrySet)
-        .flatMap(Collection::stream)
-        .filter(entry -> !entry.getValue().isEmpty())
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Sets::union));
+    Map<String, Set<String>> policy = new HashMap<>();
+    putIfNotEmpty(policy, Core.METACARD_OWNER, AccessControlUtil.getOwnerOrEmptySet(metacard));
+    putIfNotEmpty(
+        policy,
+        Security.ACCESS_ADMINISTRATORS,
+        AccessControlUtil.getAccessAdministrators(metacard));
+    putIfNotEmpty(policy, Security.ACCESS_GROUPS, AccessControlUtil.getAccessGroups(metacard));
+    putIfNotEmpty(
+        policy, Security.ACCESS_GROUPS_READ, AccessControlUtil.getAccessReadOnlyGroups(metacard));
+    putIfNotEmpty(
+        policy,
+        Security.ACCESS_INDIVIDUALS_READ,
+        AccessControlUtil.getAccessReadOnlyIndividuals(metacard));
+    putIfNotEmpty(
+        policy, Security.ACCESS_INDIVIDUALS, AccessControlUtil.getAccessIndividuals(metacard));
+    return policy;
   }
 
   private Map<String, Set<String>> getPolicy(Metacard metacard) {
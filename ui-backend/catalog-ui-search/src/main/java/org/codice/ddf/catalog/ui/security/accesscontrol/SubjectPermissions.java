@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.security.accesscontrol;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The key-value permissions of a subject, copied once into sets keyed by attribute. The values
+ * are also kept lowercased so that a check against a metacard only has to look up each of the
+ * metacard's values.
+ */
+public final class SubjectPermissions {
+
+  private final Map<String, Set<String>> values;
+
+  private final Map<String, Set<String>> lowercaseValues;
+
+  private SubjectPermissions(
+      Map<String, Set<String>> values, Map<String, Set<String>> lowercaseValues) {
+    this.values = values;
+    this.lowercaseValues = lowercaseValues;
+  }
+
+  static SubjectPermissions of(Map<String, Set<String>> values) {
+    ImmutableMap.Builder<String, Set<String>> exact = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Set<String>> lowercase = ImmutableMap.builder();
+    for (Map.Entry<String, Set<String>> entry : values.entrySet()) {
+      exact.put(entry.getKey(), ImmutableSet.copyOf(entry.getValue()));
+      ImmutableSet.Builder<String> lowercaseSet = ImmutableSet.builder();
+      entry.getValue().forEach(value -> lowercaseSet.add(value.toLowerCase()));
+      lowercase.put(entry.getKey(), lowercaseSet.build());
+    }
+    return new SubjectPermissions(exact.build(), lowercase.build());
+  }
+
+  /** @return whether the subject holds exactly {@code value} for {@code attribute} */
+  boolean contains(String attribute, String value) {
+    return values.getOrDefault(attribute, Collections.emptySet()).contains(value);
+  }
+
+  /**
+   * @return whether the subject holds any of {@code candidates} for {@code attribute}, ignoring
+   *     case
+   */
+  boolean containsAnyIgnoreCase(String attribute, Set<String> candidates) {
+    Set<String> subject = lowercaseValues.get(attribute);
+    if (subject == null) {
+      return false;
+    }
+    for (String candidate : candidates) {
+      if (subject.contains(candidate.toLowerCase())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -92,6 +92,41 @@ public class CqlQueriesImpl implements CqlQueries {
   public CqlQueryResponse executeCqlQuery(CqlRequest cqlRequest)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException,
           CqlParseException {
+    return executeCqlQuery(cqlRequest, false);
+  }
+
+  /**
+   * Executes the query like {@link #executeCqlQuery(CqlRequest)}.
+   *
+   * @param lazyResults if {@code true} the UI results are not converted up front, allowing them to
+   *     be streamed one at a time with a {@link
+   *     org.codice.ddf.catalog.ui.query.cql.CqlQueryResponseWriter}
+   */
+  public CqlQueryResponseImpl executeCqlQuery(CqlRequest cqlRequest, boolean lazyResults)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException,
+          CqlParseException {
+    QueryResponse response = executeRawCqlQuery(cqlRequest);
+
+    return new CqlQueryResponseImpl(
+        cqlRequest.getId(),
+        response.getRequest(),
+        response,
+        cqlRequest.getSourceResponseString(),
+        cqlRequest.isNormalize(),
+        filterAdapter,
+        actionRegistry,
+        descriptors,
+        lazyResults);
+  }
+
+  /**
+   * Executes the query and returns the combined catalog response without the UI decoration (GeoJSON
+   * metacards, actions, match counts) added by {@link #executeCqlQuery(CqlRequest)}. Intended for
+   * callers that only need the results, such as exports.
+   */
+  public QueryResponse executeRawCqlQuery(CqlRequest cqlRequest)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException,
+          CqlParseException {
     QueryRequest request = cqlRequest.createQueryRequest(catalogFramework.getId(), filterBuilder);
     Stopwatch stopwatch = Stopwatch.createStarted();
 
@@ -178,29 +213,18 @@ public class CqlQueriesImpl implements CqlQueries {
 
     properties.put("statusBySource", (Serializable) statusBySource);
 
-    QueryResponse response =
-        new QueryResponseImpl(
-            request,
-            results,
-            true,
-            responses
-                .stream()
-                .filter(Objects::nonNull)
-                .map(QueryResponse::getHits)
-                .findFirst()
-                .orElse(-1L),
-            properties,
-            processingDetails);
-
-    return new CqlQueryResponseImpl(
-        cqlRequest.getId(),
+    return new QueryResponseImpl(
         request,
-        response,
-        cqlRequest.getSourceResponseString(),
-        cqlRequest.isNormalize(),
-        filterAdapter,
-        actionRegistry,
-        descriptors);
+        results,
+        true,
+        responses
+            .stream()
+            .filter(Objects::nonNull)
+            .map(QueryResponse::getHits)
+            .findFirst()
+            .orElse(-1L),
+        properties,
+        processingDetails);
   }
 
   private List<Result> retrieveHitCount(QueryRequest request, List<QueryResponse> responses)
@@ -13,25 +13,44 @@
  */
 package org.codice.ddf.catalog.ui.ws;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ddf.security.audit.SecurityLogger;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
 import org.codice.ddf.security.servlet.web.socket.WebSocket;
 import org.codice.ddf.security.servlet.web.socket.WebSocketAuthenticationException;
 import org.codice.gsonsupport.GsonTypeAdapters.DateLongFormatTypeAdapter;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
 import org.eclipse.jetty.websocket.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 // An implementation of http://www.jsonrpc.org/specification over websockets
+//
+// Methods run on an executor so that a slow call does not hold up the other messages of its
+// session. Each session runs at most MAX_RUNNING_CALLS at once; further calls wait in order, and
+// the method `$/cancelRequest` aborts a waiting or running call by its id.
 public class JsonRpc implements WebSocket {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(JsonRpc.class);
+
   public static final String VERSION = "2.0";
 
   public static final int PARSE_ERROR = -32700;
@@ -40,10 +59,21 @@ public class JsonRpc implements WebSocket {
   public static final int INVALID_PARAMS = 32602;
   public static final int INTERNAL_ERROR = -32603;
   public static final int NOT_LOGGED_IN_ERROR = -32000;
+  public static final int TOO_MANY_REQUESTS = -32001;
+  public static final int REQUEST_CANCELLED = -32800;
+
+  public static final String CANCEL_REQUEST = "$/cancelRequest";
 
   private static final String JSON_RPC = "jsonrpc";
   private static final String METHOD = "method";
   private static final String ID = "id";
+  private static final String PARAMS = "params";
+
+  private static final int MAX_RUNNING_CALLS = 4;
+  private static final int MAX_WAITING_CALLS = 64;
+
+  // Returned by a handler whose response is sent later
+  private static final Object PENDING = new Object();
 
   private static final int WS_MAX_TEXT_MSG_SIZE = 1_000_000;
 
@@ -57,10 +87,20 @@ public class JsonRpc implements WebSocket {
 
   private final Map<String, Function> methods;
 
+  private final ExecutorService executor;
+
+  private final Map<Session, SessionCalls> sessions = new ConcurrentHashMap<>();
+
   private SecurityLogger securityLogger;
 
+  /** Creates an instance that runs each method on the thread that received its message. */
   public JsonRpc(Map<String, Function> methods) {
+    this(methods, MoreExecutors.newDirectExecutorService());
+  }
+
+  public JsonRpc(Map<String, Function> methods, ExecutorService executor) {
     this.methods = methods;
+    this.executor = executor;
   }
 
   public static Error error(int code, String message) {
@@ -102,7 +142,10 @@ public class JsonRpc implements WebSocket {
 
   @Override
   public void onClose(Session session, int statusCode, String reason) {
-    // no action required on close
+    SessionCalls calls = sessions.remove(session);
+    if (calls != null) {
+      calls.cancelAll();
+    }
   }
 
   @Override
@@ -120,7 +163,7 @@ public class JsonRpc implements WebSocket {
 
   @Override
   public void onMessage(Session session, String message) throws IOException {
-    handleMessage(session, message, this::callMethod);
+    handleMessage(session, message, (messageMap, id) -> callMethod(session, messageMap, id));
   }
 
   private void handleMessage(
@@ -138,6 +181,12 @@ public class JsonRpc implements WebSocket {
       result = exception.error;
     }
 
+    if (result != PENDING) {
+      send(session, id, result);
+    }
+  }
+
+  private static void send(Session session, Object id, Object result) {
     session.getRemote().sendStringByFuture(GSON.toJson(response(id, result)));
   }
 
@@ -182,7 +231,7 @@ public class JsonRpc implements WebSocket {
     }
   }
 
-  private Object callMethod(Map message, Object id) throws JsonRpcException {
+  private Object callMethod(Session session, Map message, Object id) throws JsonRpcException {
     if (!message.containsKey(METHOD)) {
       throw new JsonRpcException(id, invalid(String.format("required key `%s` missing", METHOD)));
     }
@@ -194,29 +243,174 @@ public class JsonRpc implements WebSocket {
 
     String method = (String) message.get(METHOD);
 
-    if (!methods.containsKey(method)) {
+    if (!methods.containsKey(method) && !CANCEL_REQUEST.equals(method)) {
       throw new JsonRpcException(
           id, error(METHOD_NOT_FOUND, String.format("method `%s` not found", method)));
     }
 
-    Object params = message.get("params");
+    Object params = message.get(PARAMS);
 
     if (params != null && !(params instanceof List || params instanceof Map)) {
       throw new JsonRpcException(
           id, invalidParams("parameters must be a structured value", params));
     }
 
-    try {
-      return methods.get(method).apply(params);
-    } catch (RuntimeException e) {
-      throw new JsonRpcException(id, error(INTERNAL_ERROR, "Internal Error"));
+    if (CANCEL_REQUEST.equals(method)) {
+      return cancel(session, id, params);
+    }
+
+    Function function = methods.get(method);
+    SessionCalls calls = sessions.computeIfAbsent(session, SessionCalls::new);
+    if (!calls.add(new Call(id, withCurrentSubject(() -> function.apply(params))))) {
+      throw new JsonRpcException(
+          id, error(TOO_MANY_REQUESTS, "Too many requests are pending for this session"));
     }
+    return PENDING;
+  }
+
+  private Object cancel(Session session, Object id, Object params) throws JsonRpcException {
+    Object cancelId;
+    if (params instanceof Map && ((Map) params).containsKey(ID)) {
+      cancelId = ((Map) params).get(ID);
+    } else if (params instanceof List && ((List) params).size() == 1) {
+      cancelId = ((List) params).get(0);
+    } else {
+      throw new JsonRpcException(id, invalidParams("must pass the id of one request", params));
+    }
+
+    SessionCalls calls = sessions.get(session);
+    return calls != null && calls.cancel(cancelId);
+  }
+
+  /** Runs the task as the subject of the calling thread, which the catalog needs for access. */
+  private static <T> Callable<T> withCurrentSubject(Callable<T> task) {
+    Subject subject = ThreadContext.getSubject();
+    return subject == null ? task : subject.associateWith(task);
   }
 
   public void setSecurityLogger(SecurityLogger securityLogger) {
     this.securityLogger = securityLogger;
   }
 
+  /** A method call that waits for, or holds, one of the running slots of its session. */
+  private static class Call {
+    private final Object id;
+    private final Callable<Object> task;
+
+    // Guarded by the SessionCalls the call belongs to
+    private Thread runner;
+    private boolean cancelled;
+
+    private Call(Object id, Callable<Object> task) {
+      this.id = id;
+      this.task = task;
+    }
+  }
+
+  /** The calls of one session that have not been answered yet. */
+  private class SessionCalls {
+    private final Session session;
+    private final List<Call> running = new ArrayList<>();
+    private final Deque<Call> waiting = new ArrayDeque<>();
+
+    private SessionCalls(Session session) {
+      this.session = session;
+    }
+
+    /** @return {@code false} if too many calls are already waiting */
+    private boolean add(Call call) {
+      synchronized (this) {
+        if (running.size() >= MAX_RUNNING_CALLS) {
+          return waiting.size() < MAX_WAITING_CALLS && waiting.add(call);
+        }
+        running.add(call);
+      }
+      execute(call);
+      return true;
+    }
+
+    private synchronized boolean cancel(Object id) {
+      boolean found = false;
+      for (Call call : running) {
+        if (Objects.equals(call.id, id) && !call.cancelled) {
+          stop(call);
+          send(session, call.id, error(REQUEST_CANCELLED, "Request cancelled"));
+          found = true;
+        }
+      }
+      for (Call call : waiting) {
+        if (Objects.equals(call.id, id)) {
+          send(session, call.id, error(REQUEST_CANCELLED, "Request cancelled"));
+          found = true;
+        }
+      }
+      waiting.removeIf(call -> Objects.equals(call.id, id));
+      return found;
+    }
+
+    private synchronized void cancelAll() {
+      waiting.clear();
+      running.forEach(this::stop);
+    }
+
+    // Called with the lock held
+    private void stop(Call call) {
+      call.cancelled = true;
+      if (call.runner != null) {
+        call.runner.interrupt();
+      }
+    }
+
+    private void execute(Call call) {
+      try {
+        executor.execute(() -> run(call));
+      } catch (RejectedExecutionException e) {
+        LOGGER.debug("Unable to run the method for request {}", call.id, e);
+        synchronized (this) {
+          running.remove(call);
+        }
+        send(session, call.id, error(INTERNAL_ERROR, "Internal Error"));
+      }
+    }
+
+    private void run(Call call) {
+      Object result = null;
+      boolean cancelled;
+      synchronized (this) {
+        call.runner = Thread.currentThread();
+        cancelled = call.cancelled;
+      }
+
+      try {
+        if (!cancelled) {
+          result = call.task.call();
+        }
+      } catch (Exception e) {
+        LOGGER.debug("Error while calling the method for request {}", call.id, e);
+        result = error(INTERNAL_ERROR, "Internal Error");
+      }
+
+      Call next;
+      synchronized (this) {
+        call.runner = null;
+        // Clear an interrupt from a cancellation so that it does not reach the next task
+        Thread.interrupted();
+        if (!call.cancelled) {
+          send(session, call.id, result);
+        }
+        running.remove(call);
+        next = waiting.poll();
+        if (next != null) {
+          running.add(next);
+        }
+      }
+
+      if (next != null) {
+        execute(next);
+      }
+    }
+  }
+
   private static class JsonRpcException extends RuntimeException {
     private final Object messageId;
     private final Error error;
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.operation.CreateStorageRequest;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.source.IngestException;
+import ddf.mime.MimeTypeMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.codice.ddf.catalog.ui.splitter.SplitterLocator;
+import org.codice.ddf.catalog.ui.splitter.StorableResource;
+import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
+import org.codice.ddf.rest.api.CatalogService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ListApplicationTest {
+
+  private static final String BAD_ITEM = "bad";
+
+  private CatalogFramework catalogFramework;
+
+  private ExecutorService importExecutor;
+
+  private ListApplication listApplication;
+
+  private final List<Integer> requestSizes = new CopyOnWriteArrayList<>();
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private List<String> ids;
+
+  private List<String> errorMessages;
+
+  @Before
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.create(any(CreateStorageRequest.class)))
+        .thenAnswer(invocation -> create(invocation.getArgument(0)));
+
+    UuidGenerator uuidGenerator = mock(UuidGenerator.class);
+    when(uuidGenerator.generateUuid()).thenReturn("uuid");
+
+    importExecutor = Executors.newFixedThreadPool(8);
+    listApplication =
+        new ListApplication(
+            mock(MimeTypeMapper.class),
+            catalogFramework,
+            uuidGenerator,
+            mock(SplitterLocator.class),
+            mock(CatalogService.class),
+            importExecutor);
+
+    ids = new ArrayList<>();
+    errorMessages = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    importExecutor.shutdownNow();
+    importExecutor.awaitTermination(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testItemsAreStoredInBatchesOfFifty() {
+    listApplication.storeInBatches(items(120), new MetacardImpl(), ids, errorMessages);
+
+    assertThat(requestSizes.stream().sorted().collect(Collectors.toList()), contains(20, 50, 50));
+    assertThat(ids, is(names(120)));
+    assertThat(errorMessages, hasSize(0));
+  }
+
+  @Test
+  public void testAtMostFourBatchesArePending() {
+    listApplication.setImportBatchSize(1);
+
+    listApplication.storeInBatches(items(20), new MetacardImpl(), ids, errorMessages);
+
+    assertThat(maxInFlight.get(), lessThanOrEqualTo(4));
+    assertThat(requestSizes, hasSize(20));
+    assertThat(ids, is(names(20)));
+  }
+
+  @Test
+  public void testFailedBatchIsRetriedOneItemAtATime() {
+    List<StorableResource> items = items(3).collect(Collectors.toList());
+    items.add(1, item(BAD_ITEM));
+
+    listApplication.storeInBatches(items.stream(), new MetacardImpl(), ids, errorMessages);
+
+    // One failed request for the whole batch, then one request per item
+    assertThat(requestSizes, contains(4, 1, 1, 1, 1));
+    assertThat(ids, is(names(3)));
+    assertThat(errorMessages, hasSize(1));
+  }
+
+  @Test
+  public void testErrorItemsAreNotStored() {
+    StorableResource error = mock(StorableResource.class);
+    when(error.isError()).thenReturn(true);
+    when(error.getErrorMessage()).thenReturn("unreadable");
+
+    listApplication.storeInBatches(
+        Stream.concat(Stream.of(error), items(2)), new MetacardImpl(), ids, errorMessages);
+
+    assertThat(ids, is(names(2)));
+    assertThat(errorMessages, contains("unreadable"));
+  }
+
+  private CreateResponse create(CreateStorageRequest request) throws Exception {
+    List<ContentItem> contentItems = request.getContentItems();
+    requestSizes.add(contentItems.size());
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(10);
+      if (contentItems.size() > 1
+          && contentItems.stream().anyMatch(item -> BAD_ITEM.equals(item.getFilename()))) {
+        throw new IngestException("The batch has a bad item");
+      }
+      if (BAD_ITEM.equals(contentItems.get(0).getFilename())) {
+        throw new IngestException("Bad item");
+      }
+
+      List<Metacard> created = new ArrayList<>();
+      for (ContentItem contentItem : contentItems) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(contentItem.getFilename());
+        created.add(metacard);
+      }
+      CreateResponse response = mock(CreateResponse.class);
+      when(response.getCreatedMetacards()).thenReturn(created);
+      return response;
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private static List<String> names(int count) {
+    return IntStream.range(0, count).mapToObj(i -> "item" + i).collect(Collectors.toList());
+  }
+
+  private static Stream<StorableResource> items(int count) {
+    return names(count).stream().map(ListApplicationTest::item);
+  }
+
+  private static StorableResource item(String filename) {
+    StorableResource storableResource = mock(StorableResource.class);
+    try {
+      when(storableResource.getInputStream())
+          .thenAnswer(
+              invocation -> new ByteArrayInputStream(filename.getBytes(StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    when(storableResource.getFilename()).thenReturn(filename);
+    when(storableResource.getMimeType()).thenReturn(Optional.of("text/plain"));
+    return storableResource;
+  }
+}
@@ -13,13 +13,23 @@
  */
 package org.codice.ddf.catalog.ui.metacard;
 
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
@@ -37,6 +47,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.ws.rs.NotFoundException;
 import org.codice.ddf.catalog.ui.metacard.edit.AttributeChange;
 import org.codice.ddf.catalog.ui.metacard.edit.MetacardChanges;
@@ -45,6 +57,8 @@ import org.codice.ddf.security.Security;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
+import spark.Request;
+import spark.Response;
 
 public class MetacardApplicationTest {
   private static final String ID = "000000000";
@@ -103,6 +117,101 @@ public class MetacardApplicationTest {
     assertThat(metacard.getCreatedDate(), is(Date.from(Instant.parse(DATE_B))));
   }
 
+  @Test
+  public void testResponseIsTaggedWithAHashOfItsBody() {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+
+    String body = MetacardApplication.withEntityTag(request, response, "{\"color\":[\"red\"]}");
+    MetacardApplication.withEntityTag(request, response, "{\"color\":[\"red\"]}");
+    MetacardApplication.withEntityTag(request, response, "{\"color\":[\"blue\"]}");
+
+    assertThat(body, is("{\"color\":[\"red\"]}"));
+    ArgumentCaptor<String> entityTags = ArgumentCaptor.forClass(String.class);
+    verify(response, times(3)).header(eq(ETAG), entityTags.capture());
+    assertThat(entityTags.getAllValues().get(0), startsWith("\""));
+    assertThat(entityTags.getAllValues().get(0), endsWith("\""));
+    assertThat(entityTags.getAllValues().get(1), is(entityTags.getAllValues().get(0)));
+    assertThat(entityTags.getAllValues().get(2), is(not(entityTags.getAllValues().get(0))));
+    verify(response, never()).status(anyInt());
+  }
+
+  @Test
+  public void testMatchingEntityTagIsNotModified() {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    MetacardApplication.withEntityTag(request, response, "{}");
+    ArgumentCaptor<String> entityTag = ArgumentCaptor.forClass(String.class);
+    verify(response).header(eq(ETAG), entityTag.capture());
+
+    when(request.headers(IF_NONE_MATCH)).thenReturn(entityTag.getValue());
+
+    assertThat(MetacardApplication.withEntityTag(request, response, "{}"), is(""));
+    verify(response).status(304);
+  }
+
+  @Test
+  public void testEntityTagInAListIsNotModified() {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    MetacardApplication.withEntityTag(request, response, "{}");
+    ArgumentCaptor<String> entityTag = ArgumentCaptor.forClass(String.class);
+    verify(response).header(eq(ETAG), entityTag.capture());
+
+    when(request.headers(IF_NONE_MATCH)).thenReturn("\"other\", W/" + entityTag.getValue());
+
+    assertThat(MetacardApplication.withEntityTag(request, response, "{}"), is(""));
+    verify(response).status(304);
+  }
+
+  @Test
+  public void testAnyEntityTagIsNotModified() {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    when(request.headers(IF_NONE_MATCH)).thenReturn("*");
+
+    assertThat(MetacardApplication.withEntityTag(request, response, "{}"), is(""));
+    verify(response).status(304);
+  }
+
+  @Test
+  public void testOtherEntityTagsAreModified() {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    when(request.headers(IF_NONE_MATCH)).thenReturn("\"first\", W/\"second\"");
+
+    assertThat(MetacardApplication.withEntityTag(request, response, "{}"), is("{}"));
+    verify(response, never()).status(anyInt());
+  }
+
+  @Test
+  public void testValidatingTooManyMetacardsIsABadRequest() throws Exception {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    when(mockUtil.safeGetBody(request)).thenReturn(idsJson(251));
+
+    app.validateMetacards(request, response, metacards -> metacards);
+
+    verify(response).status(400);
+    verify(mockUtil, never())
+        .getMetacardsWithTagByAttributes(any(), any(), any(String.class), any());
+  }
+
+  @Test
+  public void testValidatingTheMaximumNumberOfMetacardsIsAllowed() throws Exception {
+    Request request = mock(Request.class);
+    Response response = mock(Response.class);
+    when(mockUtil.safeGetBody(request)).thenReturn(idsJson(250));
+    doReturn(generateCatalogStateWithTitle())
+        .when(mockUtil)
+        .getMetacardsWithTagByAttributes(any(), any(), any(String.class), any());
+
+    app.validateMetacards(request, response, metacards -> metacards);
+
+    verify(response, never()).status(anyInt());
+    verify(mockUtil).getMetacardsWithTagByAttributes(any(), any(), any(String.class), any());
+  }
+
   private static List<MetacardChanges> generateTitleChange() {
     return generateChangeTestData(
         attributeChange -> {
@@ -150,6 +259,12 @@ public class MetacardApplicationTest {
     return Collections.singletonMap(ID, result);
   }
 
+  private static String idsJson(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> "\"" + i + "\"")
+        .collect(Collectors.joining(",", "[", "]"));
+  }
+
   private static Instant doParseDate(InvocationOnMock in) {
     Serializable arg = in.getArgument(0);
     if (!(arg instanceof String)) {
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.Query;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.geotools.filter.visitor.DefaultFilterVisitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.sort.SortOrder;
+import spark.Request;
+
+public class RetrieveWorkspacesRequestTest {
+
+  private Request request;
+
+  private FilterBuilder filterBuilder;
+
+  @Before
+  public void setUp() {
+    request = mock(Request.class);
+    filterBuilder = new GeotoolsFilterBuilder();
+  }
+
+  @Test
+  public void testDefaultsReturnEverything() {
+    RetrieveWorkspacesRequest workspacesRequest =
+        new RetrieveWorkspacesRequest(request, filterBuilder);
+
+    assertThat(workspacesRequest.isPaged(), is(false));
+    assertThat(workspacesRequest.getFields(), is(empty()));
+
+    Query query = workspacesRequest.getQueryRequest().getQuery();
+    assertThat(query.getStartIndex(), is(1));
+    assertThat(query.getSortBy().getPropertyName().getPropertyName(), is(Core.MODIFIED));
+    assertThat(query.getSortBy().getSortOrder(), is(SortOrder.DESCENDING));
+  }
+
+  @Test
+  public void testCursorResumesAfterTheLastWorkspace() {
+    when(request.queryParams("count")).thenReturn("2");
+    RetrieveWorkspacesRequest firstPage = new RetrieveWorkspacesRequest(request, filterBuilder);
+    String cursor =
+        firstPage.getNextCursor(
+            ImmutableList.of(
+                workspace("a", Core.MODIFIED, new Date(2000)),
+                workspace("b", Core.MODIFIED, new Date(1000))));
+    assertThat(cursor, notNullValue());
+
+    when(request.queryParams("cursor")).thenReturn(cursor);
+    RetrieveWorkspacesRequest secondPage = new RetrieveWorkspacesRequest(request, filterBuilder);
+    Query query = secondPage.getQueryRequest().getQuery();
+
+    assertThat(secondPage.isPaged(), is(true));
+    assertThat(query.getStartIndex(), is(1));
+    assertThat(query.getPageSize(), is(2));
+    assertThat(
+        comparisons(query),
+        hasItems(
+            "null " + Core.MODIFIED,
+            Core.MODIFIED + " < " + new Date(1000),
+            Core.MODIFIED + " = " + new Date(1000),
+            Core.ID + " > b"));
+    assertThat(comparisons(query), not(hasItems(Core.MODIFIED + " > " + new Date(1000))));
+  }
+
+  @Test
+  public void testAscendingCursorResumesAfterTheLastTitle() {
+    when(request.queryParams("count")).thenReturn("1");
+    when(request.queryParams("attr")).thenReturn(Core.TITLE);
+    when(request.queryParams("sort_by")).thenReturn("asc");
+    String cursor =
+        new RetrieveWorkspacesRequest(request, filterBuilder)
+            .getNextCursor(ImmutableList.of(workspace("a", Core.TITLE, "Rivers")));
+
+    when(request.queryParams("cursor")).thenReturn(cursor);
+    Query query =
+        new RetrieveWorkspacesRequest(request, filterBuilder).getQueryRequest().getQuery();
+
+    assertThat(
+        comparisons(query),
+        hasItems(Core.TITLE + " > Rivers", Core.TITLE + " = Rivers", Core.ID + " > a"));
+  }
+
+  @Test
+  public void testCursorAfterAWorkspaceWithoutSortValueOnlyMatchesLaterIds() {
+    when(request.queryParams("count")).thenReturn("1");
+    String cursor =
+        new RetrieveWorkspacesRequest(request, filterBuilder)
+            .getNextCursor(ImmutableList.of(workspace("a", Core.MODIFIED, null)));
+
+    when(request.queryParams("cursor")).thenReturn(cursor);
+    Query query =
+        new RetrieveWorkspacesRequest(request, filterBuilder).getQueryRequest().getQuery();
+
+    assertThat(comparisons(query), containsInAnyOrder("null " + Core.MODIFIED, Core.ID + " > a"));
+  }
+
+  @Test
+  public void testLastPageHasNoCursor() {
+    when(request.queryParams("count")).thenReturn("10");
+
+    assertThat(
+        new RetrieveWorkspacesRequest(request, filterBuilder)
+            .getNextCursor(ImmutableList.of(workspace("a", Core.MODIFIED, new Date()))),
+        is(nullValue()));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testInvalidCursor() {
+    when(request.queryParams("cursor")).thenReturn("not a cursor");
+
+    new RetrieveWorkspacesRequest(request, filterBuilder);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testCursorOfAnotherSortAttributeIsInvalid() {
+    when(request.queryParams("cursor")).thenReturn(encode("Rivers") + "." + encode("a"));
+
+    new RetrieveWorkspacesRequest(request, filterBuilder);
+  }
+
+  @Test
+  public void testSortAndFields() {
+    when(request.queryParams("attr")).thenReturn(Core.TITLE);
+    when(request.queryParams("sort_by")).thenReturn("asc");
+    when(request.queryParams("fields")).thenReturn("title, metacard.owner,");
+
+    RetrieveWorkspacesRequest workspacesRequest =
+        new RetrieveWorkspacesRequest(request, filterBuilder);
+
+    Query query = workspacesRequest.getQueryRequest().getQuery();
+    assertThat(query.getSortBy().getPropertyName().getPropertyName(), is(Core.TITLE));
+    assertThat(query.getSortBy().getSortOrder(), is(SortOrder.ASCENDING));
+    assertThat(workspacesRequest.getFields(), containsInAnyOrder("title", "metacard.owner"));
+  }
+
+  @Test
+  public void testUnsortableAttributeFallsBackToModified() {
+    when(request.queryParams("attr")).thenReturn("workspace.lists");
+
+    Query query =
+        new RetrieveWorkspacesRequest(request, filterBuilder).getQueryRequest().getQuery();
+
+    assertThat(query.getSortBy().getPropertyName().getPropertyName(), is(Core.MODIFIED));
+  }
+
+  private static Metacard workspace(String id, String attribute, @Nullable Serializable value) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    if (value != null) {
+      metacard.setAttribute(attribute, value);
+    }
+    return metacard;
+  }
+
+  private static String encode(String value) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Describes the comparisons of the cursor filter, such as {@code "id > b"}. */
+  private static Set<String> comparisons(Query query) {
+    Set<String> comparisons = new HashSet<>();
+    query.accept(
+        new DefaultFilterVisitor() {
+          @Override
+          public Object visit(PropertyIsLessThan filter, Object data) {
+            comparisons.add(describe(filter.getExpression1(), " < ", filter.getExpression2()));
+            return data;
+          }
+
+          @Override
+          public Object visit(PropertyIsGreaterThan filter, Object data) {
+            comparisons.add(describe(filter.getExpression1(), " > ", filter.getExpression2()));
+            return data;
+          }
+
+          @Override
+          public Object visit(PropertyIsEqualTo filter, Object data) {
+            comparisons.add(describe(filter.getExpression1(), " = ", filter.getExpression2()));
+            return data;
+          }
+
+          @Override
+          public Object visit(PropertyIsNull filter, Object data) {
+            comparisons.add("null " + ((PropertyName) filter.getExpression()).getPropertyName());
+            return data;
+          }
+        },
+        null);
+    return comparisons;
+  }
+
+  private static String describe(Object property, String operator, Object literal) {
+    return ((PropertyName) property).getPropertyName() + operator + ((Literal) literal).getValue();
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceTransformer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class TransformedWorkspaceCacheTest {
+
+  private static final String ID = "workspaceId";
+
+  private static final List<String> ATTRIBUTES =
+      ImmutableList.of(Core.ID, Core.TITLE, Core.DESCRIPTION, Core.METACARD_MODIFIED);
+
+  private WorkspaceTransformer transformer;
+
+  private TransformedWorkspaceCache cache;
+
+  @Before
+  public void setUp() {
+    transformer = mock(WorkspaceTransformer.class);
+    when(transformer.transform(any(Metacard.class)))
+        .thenAnswer(invocation -> json(invocation.getArgument(0)));
+    when(transformer.transform(any(Metacard.class), any(Metacard.class)))
+        .thenAnswer(invocation -> json(invocation.getArgument(1)));
+    cache = new TransformedWorkspaceCache(transformer);
+  }
+
+  @Test
+  public void testUnmodifiedWorkspaceIsTransformedOnce() {
+    Map<String, Object> first =
+        cache.transform(workspace(new Date(1000), "Rivers"), ImmutableSet.of());
+    Map<String, Object> second =
+        cache.transform(workspace(new Date(1000), "Rivers"), ImmutableSet.of());
+
+    assertThat(second, is(first));
+    verify(transformer, times(1)).transform(any(Metacard.class));
+  }
+
+  @Test
+  public void testModifiedWorkspaceIsTransformedAgain() {
+    cache.transform(workspace(new Date(1000), "Rivers"), ImmutableSet.of());
+    Map<String, Object> json =
+        cache.transform(workspace(new Date(2000), "Lakes"), ImmutableSet.of());
+
+    assertThat(json.get(Core.TITLE), is("Lakes"));
+    verify(transformer, times(2)).transform(any(Metacard.class));
+  }
+
+  @Test
+  public void testWorkspaceWithoutModifiedDateIsAlwaysTransformed() {
+    cache.transform(workspace(null, "Rivers"), ImmutableSet.of());
+    cache.transform(workspace(null, "Rivers"), ImmutableSet.of());
+
+    verify(transformer, times(2)).transform(any(Metacard.class));
+  }
+
+  @Test
+  public void testFieldsProjectTheWorkspace() {
+    MetacardImpl workspace = workspace(new Date(1000), "Rivers");
+    workspace.setDescription("water");
+
+    Map<String, Object> json = cache.transform(workspace, ImmutableSet.of(Core.TITLE));
+
+    ArgumentCaptor<Metacard> projected = ArgumentCaptor.forClass(Metacard.class);
+    verify(transformer).transform(eq(workspace), projected.capture());
+    verify(transformer, never()).transform(any(Metacard.class));
+    assertThat(projected.getValue().getId(), is(ID));
+    assertThat(projected.getValue().getTitle(), is("Rivers"));
+    assertThat(projected.getValue().getAttribute(Core.DESCRIPTION), is(nullValue()));
+    assertThat(json, is(ImmutableMap.of(Core.ID, ID, Core.TITLE, "Rivers")));
+  }
+
+  @Test
+  public void testEachSetOfFieldsIsCachedSeparately() {
+    Metacard workspace = workspace(new Date(1000), "Rivers");
+
+    cache.transform(workspace, ImmutableSet.of(Core.TITLE));
+    cache.transform(workspace, ImmutableSet.of(Core.TITLE));
+    Map<String, Object> json = cache.transform(workspace, ImmutableSet.of());
+
+    verify(transformer, times(1)).transform(eq(workspace), any(Metacard.class));
+    verify(transformer, times(1)).transform(any(Metacard.class));
+    assertThat(json.get(Core.METACARD_MODIFIED), is(new Date(1000)));
+  }
+
+  private static MetacardImpl workspace(@Nullable Date modified, String title) {
+    MetacardImpl workspace = new MetacardImpl();
+    workspace.setId(ID);
+    workspace.setTitle(title);
+    if (modified != null) {
+      workspace.setAttribute(Core.METACARD_MODIFIED, modified);
+    }
+    return workspace;
+  }
+
+  /** Mimics the transformer by copying the attributes of the metacard into a map. */
+  private static Map<String, Object> json(Metacard metacard) {
+    ImmutableMap.Builder<String, Object> json = ImmutableMap.builder();
+    for (String name : ATTRIBUTES) {
+      if (metacard.getAttribute(name) != null) {
+        json.put(name, metacard.getAttribute(name).getValue());
+      }
+    }
+    return json.build();
+  }
+}
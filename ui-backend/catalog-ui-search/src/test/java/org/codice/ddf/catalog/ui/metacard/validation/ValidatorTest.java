@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard.validation;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.validation.AttributeValidator;
+import ddf.catalog.validation.AttributeValidatorRegistry;
+import ddf.catalog.validation.ReportingMetacardValidator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.codice.ddf.catalog.ui.enumeration.ServiceGeneration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidatorTest {
+
+  private static final String ATTRIBUTE = "title";
+
+  private AttributeValidatorRegistry firstRegistry;
+
+  private AttributeValidatorRegistry secondRegistry;
+
+  private Set<AttributeValidator> firstValidators;
+
+  private ReportingMetacardValidator metacardValidator;
+
+  private ServiceGeneration registryGeneration;
+
+  private Validator validator;
+
+  @Before
+  public void setUp() {
+    AttributeValidator attributeValidator = mock(AttributeValidator.class);
+    when(attributeValidator.validate(any(Attribute.class))).thenReturn(Optional.empty());
+    firstValidators = new HashSet<>(Collections.singleton(attributeValidator));
+
+    AttributeValidator otherValidator = mock(AttributeValidator.class);
+    when(otherValidator.validate(any(Attribute.class))).thenReturn(Optional.empty());
+
+    firstRegistry = mock(AttributeValidatorRegistry.class);
+    when(firstRegistry.getValidators(ATTRIBUTE)).thenReturn(firstValidators);
+    secondRegistry = mock(AttributeValidatorRegistry.class);
+    when(secondRegistry.getValidators(ATTRIBUTE))
+        .thenReturn(new HashSet<>(Collections.singleton(otherValidator)));
+
+    metacardValidator = mock(ReportingMetacardValidator.class);
+    when(metacardValidator.validateMetacard(any(Metacard.class))).thenReturn(Optional.empty());
+
+    registryGeneration = new ServiceGeneration();
+    validator =
+        new Validator(
+            ImmutableList.of(metacardValidator),
+            ImmutableList.of(firstRegistry, secondRegistry),
+            MoreExecutors.newDirectExecutorService(),
+            registryGeneration);
+  }
+
+  @Test
+  public void testValidateAttributeDoesNotModifyRegistrySets() {
+    validator.validateAttribute(ATTRIBUTE, "value");
+
+    assertThat(firstValidators, hasSize(1));
+  }
+
+  @Test
+  public void testAttributeValidatorsAreResolvedOnce() {
+    validator.validateAttribute(ATTRIBUTE, "first");
+    validator.validateAttribute(ATTRIBUTE, "second");
+
+    verify(firstRegistry, times(1)).getValidators(ATTRIBUTE);
+    verify(secondRegistry, times(1)).getValidators(ATTRIBUTE);
+  }
+
+  @Test
+  public void testBindingRegistryResolvesValidatorsAgain() {
+    validator.validateAttribute(ATTRIBUTE, "first");
+    registryGeneration.bindService(mock(AttributeValidatorRegistry.class));
+    validator.validateAttribute(ATTRIBUTE, "second");
+
+    verify(firstRegistry, times(2)).getValidators(ATTRIBUTE);
+  }
+
+  @Test
+  public void testGetValidationsKeyedById() {
+    MetacardImpl first = new MetacardImpl();
+    first.setId("first");
+    MetacardImpl second = new MetacardImpl();
+    second.setId("second");
+
+    Map<String, List<ViolationResult>> validations =
+        validator.getValidations(ImmutableList.of(first, second));
+
+    assertThat(validations.keySet(), contains("first", "second"));
+    assertThat(validations.get("first").isEmpty(), is(true));
+    verify(metacardValidator, times(2)).validateMetacard(any(Metacard.class));
+  }
+}
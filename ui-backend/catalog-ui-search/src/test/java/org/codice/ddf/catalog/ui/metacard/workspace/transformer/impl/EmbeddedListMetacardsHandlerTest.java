@@ -103,7 +103,8 @@ public class EmbeddedListMetacardsHandlerTest {
     final Map<String, Object> metacardMap = new HashMap<>();
     metacardMap.put("other", "otherAttributes");
 
-    when(workspaceTransformer.xmlToMetacard(anyString())).thenReturn(mock(Metacard.class));
+    when(workspaceTransformer.embeddedValueToMetacard(anyString()))
+        .thenReturn(mock(Metacard.class));
     when(workspaceTransformer.transform(any(Metacard.class), any(Metacard.class)))
         .thenReturn(metacardMap);
 
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.metacard.workspace.transformer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import org.codice.ddf.catalog.ui.metacard.workspace.ListMetacardImpl;
+import org.codice.ddf.catalog.ui.metacard.workspace.ListMetacardTypeImpl;
+import org.junit.Test;
+
+public class EmbeddedMetacardCodecTest {
+
+  @Test
+  public void testRoundTripListMetacard() {
+    ListMetacardImpl list = new ListMetacardImpl("Places <&> things");
+    list.setId("123");
+    list.setAttribute(ListMetacardTypeImpl.LIST_CQL, "title = 'a&b' AND x < 5");
+    list.setAttribute(
+        new AttributeImpl(
+            ListMetacardTypeImpl.LIST_BOOKMARKS, Arrays.<Serializable>asList("1", "2")));
+
+    String encoded = EmbeddedMetacardCodec.encode(list);
+    assertThat(encoded, notNullValue());
+    assertThat(EmbeddedMetacardCodec.isEncoded(encoded), is(true));
+
+    Metacard decoded = EmbeddedMetacardCodec.decode(encoded);
+    assertThat(decoded.getId(), is("123"));
+    assertThat(decoded.getTitle(), is("Places <&> things"));
+    assertThat(
+        decoded.getAttribute(ListMetacardTypeImpl.LIST_CQL).getValue(),
+        is("title = 'a&b' AND x < 5"));
+    assertThat(
+        decoded.getAttribute(ListMetacardTypeImpl.LIST_BOOKMARKS).getValues(),
+        is(Arrays.<Serializable>asList("1", "2")));
+    assertThat(
+        decoded
+            .getMetacardType()
+            .getAttributeDescriptor(ListMetacardTypeImpl.LIST_BOOKMARKS)
+            .isMultiValued(),
+        is(true));
+  }
+
+  @Test
+  public void testRoundTripTypedValues() {
+    MetacardType type =
+        new MetacardTypeImpl(
+            "codec-test-type",
+            ImmutableSet.of(
+                descriptor("date", BasicTypes.DATE_TYPE),
+                descriptor("long", BasicTypes.LONG_TYPE),
+                descriptor("boolean", BasicTypes.BOOLEAN_TYPE),
+                descriptor("binary", BasicTypes.BINARY_TYPE)));
+    Metacard metacard = new MetacardImpl(type);
+    metacard.setAttribute(new AttributeImpl("date", new Date(1000L)));
+    metacard.setAttribute(new AttributeImpl("long", 5L));
+    metacard.setAttribute(new AttributeImpl("boolean", true));
+    metacard.setAttribute(new AttributeImpl("binary", new byte[] {1, 2, 3}));
+
+    Metacard decoded = EmbeddedMetacardCodec.decode(EmbeddedMetacardCodec.encode(metacard));
+
+    assertThat(decoded.getAttribute("date").getValue(), is(new Date(1000L)));
+    assertThat(decoded.getAttribute("long").getValue(), is(5L));
+    assertThat(decoded.getAttribute("boolean").getValue(), is(true));
+    assertThat(decoded.getAttribute("binary").getValue(), is(new byte[] {1, 2, 3}));
+  }
+
+  @Test
+  public void testObjectValuesAreNotEncoded() {
+    MetacardType type =
+        new MetacardTypeImpl(
+            "codec-test-type", ImmutableSet.of(descriptor("object", BasicTypes.OBJECT_TYPE)));
+    Metacard metacard = new MetacardImpl(type);
+    metacard.setAttribute(new AttributeImpl("object", new Date()));
+
+    assertThat(EmbeddedMetacardCodec.encode(metacard), nullValue());
+  }
+
+  @Test
+  public void testLegacyXmlIsNotEncoded() {
+    assertThat(
+        EmbeddedMetacardCodec.isEncoded("<metacard xmlns=\"urn:catalog:metacard\"/>"), is(false));
+  }
+
+  @Test(expected = WorkspaceTransformException.class)
+  public void testUnsupportedVersion() {
+    EmbeddedMetacardCodec.decode("<embedded-metacard version=\"99\">{}</embedded-metacard>");
+  }
+
+  private static AttributeDescriptor descriptor(String name, AttributeType<?> type) {
+    return new AttributeDescriptorImpl(name, false, true, false, false, type);
+  }
+}
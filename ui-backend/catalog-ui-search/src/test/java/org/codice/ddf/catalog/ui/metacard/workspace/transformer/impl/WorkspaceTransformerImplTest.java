@@ -20,8 +20,12 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
@@ -43,10 +47,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.io.IOUtils;
 import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceKeyTransformation;
+import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceTransformation;
 import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceTransformer;
 import org.codice.ddf.catalog.ui.metacard.workspace.transformer.WorkspaceValueTransformation;
 import org.codice.ddf.catalog.ui.util.EndpointUtil;
@@ -191,6 +200,10 @@ public class WorkspaceTransformerImplTest {
 
   private WorkspaceTransformer workspaceTransformer;
 
+  private CatalogFramework mockCatalogFramework;
+
+  private InputTransformer mockInputTransformer;
+
   private MetacardImpl metacard;
 
   private static AttributeDescriptor dummyAttributeDescriptor(String name, AttributeType<?> type) {
@@ -199,13 +212,13 @@ public class WorkspaceTransformerImplTest {
 
   @Before
   public void setUp() throws CatalogTransformerException, IOException {
-    final CatalogFramework mockCatalogFramework = Mockito.mock(CatalogFramework.class);
+    mockCatalogFramework = Mockito.mock(CatalogFramework.class);
 
     doReturn(new BinaryContentImpl(IOUtils.toInputStream("<xml></xml>", Charset.defaultCharset())))
         .when(mockCatalogFramework)
         .transform(any(Metacard.class), any(String.class), any(Map.class));
 
-    final InputTransformer mockInputTransformer = Mockito.mock(InputTransformer.class);
+    mockInputTransformer = Mockito.mock(InputTransformer.class);
 
     doReturn(new MetacardImpl(DUMMY_METACARD_TYPE))
         .when(mockInputTransformer)
@@ -258,6 +271,67 @@ public class WorkspaceTransformerImplTest {
     assertThat(json, not(hasKey(METACARD_KEY_TO_REMOVE)));
   }
 
+  @Test
+  public void testBoundTransformationIsDispatched() {
+    final List<WorkspaceTransformation> transformations = new ArrayList<>();
+    final WorkspaceTransformerImpl transformer =
+        new WorkspaceTransformerImpl(
+            mockCatalogFramework,
+            mockInputTransformer,
+            Mockito.mock(EndpointUtil.class),
+            transformations);
+    metacard.setAttribute(KEY_TRANSFORMATION_METACARD_KEY, KEY_TRANSFORMATION_VALUE);
+    assertThat(transformer.transform(metacard), hasKey(KEY_TRANSFORMATION_METACARD_KEY));
+
+    transformations.add(KEY_TRANSFORMATION);
+    transformer.bindTransformation(KEY_TRANSFORMATION);
+    assertThat(
+        transformer.transform(metacard),
+        hasEntry(KEY_TRANSFORMATION_JSON_KEY, KEY_TRANSFORMATION_VALUE));
+
+    transformations.remove(KEY_TRANSFORMATION);
+    transformer.unbindTransformation(KEY_TRANSFORMATION);
+    assertThat(transformer.transform(metacard), hasKey(KEY_TRANSFORMATION_METACARD_KEY));
+  }
+
+  @Test
+  public void testTransformationBoundWhileTheTableIsBuiltIsDispatched() {
+    final List<WorkspaceTransformation> transformations = new CopyOnWriteArrayList<>();
+    final AtomicReference<WorkspaceTransformerImpl> transformer = new AtomicReference<>();
+    // Binds KEY_TRANSFORMATION the first time the dispatch table reads this transformation
+    transformations.add(
+        new WorkspaceKeyTransformation() {
+          private boolean bound;
+
+          @Override
+          public String getMetacardKey() {
+            if (!bound) {
+              bound = true;
+              transformations.add(KEY_TRANSFORMATION);
+              transformer.get().bindTransformation(KEY_TRANSFORMATION);
+            }
+            return "otherMetacardKey";
+          }
+
+          @Override
+          public String getJsonKey() {
+            return "otherJsonKey";
+          }
+        });
+    transformer.set(
+        new WorkspaceTransformerImpl(
+            mockCatalogFramework,
+            mockInputTransformer,
+            Mockito.mock(EndpointUtil.class),
+            transformations));
+    metacard.setAttribute(KEY_TRANSFORMATION_METACARD_KEY, KEY_TRANSFORMATION_VALUE);
+
+    assertThat(transformer.get().transform(metacard), hasKey(KEY_TRANSFORMATION_METACARD_KEY));
+    assertThat(
+        transformer.get().transform(metacard),
+        hasEntry(KEY_TRANSFORMATION_JSON_KEY, KEY_TRANSFORMATION_VALUE));
+  }
+
   @Test
   public void testMapToMetacardDirectMapping() {
     workspaceTransformer.transformIntoMetacard(
@@ -292,4 +366,26 @@ public class WorkspaceTransformerImplTest {
         ImmutableMap.of(JSON_KEY_TO_REMOVE, KEY_TRANSFORMATION_VALUE), metacard);
     assertThat(metacard.getAttribute(JSON_KEY_TO_REMOVE), nullValue());
   }
+
+  @Test
+  public void testEmbeddedValueRoundTripSkipsXml() throws Exception {
+    metacard.setAttribute(UNTRANSFORMED_KEY, UNTRANSFORMED_VALUE);
+
+    final String embedded = workspaceTransformer.metacardToEmbeddedValue(metacard);
+    final Metacard decoded = workspaceTransformer.embeddedValueToMetacard(embedded);
+
+    assertThat(decoded.getAttribute(UNTRANSFORMED_KEY).getValue(), is(UNTRANSFORMED_VALUE));
+    verify(mockCatalogFramework, never())
+        .transform(any(Metacard.class), any(String.class), any(Map.class));
+    verify(mockInputTransformer, never()).transform(any(InputStream.class));
+  }
+
+  @Test
+  public void testEmbeddedXmlIsParsedOnce() throws Exception {
+    final Metacard first = workspaceTransformer.embeddedValueToMetacard("<xml></xml>");
+    final Metacard second = workspaceTransformer.embeddedValueToMetacard("<xml></xml>");
+
+    assertThat(first, not(sameInstance(second)));
+    verify(mockInputTransformer, times(1)).transform(any(InputStream.class));
+  }
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.codice.ddf.catalog.ui.query.utility.CqlResult;
+import org.codice.ddf.catalog.ui.transformer.TransformerDescriptors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CqlQueryResponseWriterTest {
+
+  private static final Gson GSON =
+      new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
+
+  private FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private FilterAdapter filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  private ActionRegistry actionRegistry;
+
+  private TransformerDescriptors descriptors;
+
+  private QueryRequest request;
+
+  private QueryResponseImpl queryResponse;
+
+  @Before
+  public void setUp() {
+    actionRegistry = mock(ActionRegistry.class);
+    when(actionRegistry.list(any())).thenReturn(Collections.emptyList());
+    descriptors = mock(TransformerDescriptors.class);
+    when(descriptors.getBlackListedMetacardTransformerIds()).thenReturn(Collections.emptySet());
+
+    request =
+        new QueryRequestImpl(
+            new QueryImpl(filterBuilder.attribute("title").is().like().text("test")));
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id" + i);
+      metacard.setTitle("test title " + i);
+      results.add(new ResultImpl(metacard));
+    }
+    queryResponse = new QueryResponseImpl(request, results, 3L);
+  }
+
+  @Test
+  public void testStreamedOutputMatchesSerializedResponse() throws Exception {
+    CqlQueryResponseImpl eager = createResponse(false);
+    CqlQueryResponseImpl lazy = createResponse(true);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    new CqlQueryResponseWriter(GSON).write(lazy, outputStream);
+
+    JsonObject expected = withoutCachedDates(GSON.toJson(eager));
+    JsonObject actual =
+        withoutCachedDates(new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+    assertThat(actual, is(expected));
+    assertThat(actual.getAsJsonArray("results").size(), is(3));
+  }
+
+  @Test
+  public void testLazyResultsMaterializedOnDemand() {
+    CqlQueryResponseImpl lazy = createResponse(true);
+
+    List<CqlResult> results = lazy.getResults();
+    assertThat(results.size(), is(3));
+    assertThat(lazy.getResults(), is(sameInstance(results)));
+  }
+
+  private CqlQueryResponseImpl createResponse(boolean lazyResults) {
+    return new CqlQueryResponseImpl(
+        "queryId",
+        request,
+        queryResponse,
+        "source",
+        true,
+        filterAdapter,
+        actionRegistry,
+        descriptors,
+        lazyResults);
+  }
+
+  /** The cached date defaults to the time of conversion, so it is not stable between responses. */
+  private static JsonObject withoutCachedDates(String json) {
+    JsonObject response = new JsonParser().parse(json).getAsJsonObject();
+    JsonArray results = response.getAsJsonArray("results");
+    for (JsonElement result : results) {
+      result.getAsJsonObject().getAsJsonObject("metacard").remove("cached");
+    }
+    return response;
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.QueryImpl;
+import org.junit.Test;
+
+public class QuerySpatialContextTest {
+
+  private static final String QUERY_POLYGON = "POLYGON ((0 0, 0 2, 2 2, 2 0, 0 0))";
+
+  private FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private FilterAdapter filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  @Test
+  public void testNonSpatialQuery() {
+    QuerySpatialContext context =
+        QuerySpatialContext.create(
+            new QueryImpl(filterBuilder.attribute("title").is().like().text("test")),
+            filterAdapter);
+
+    assertThat(context.distanceInMeters("POINT (1 1)"), is(nullValue()));
+  }
+
+  @Test
+  public void testDistanceFromQueryCenter() {
+    QuerySpatialContext context = spatialContext();
+
+    assertThat(context.distanceInMeters("POINT (1 1)"), is(closeTo(0.0, 0.001)));
+    assertThat(context.distanceInMeters("POINT (10 10)"), is(greaterThan(1000.0)));
+  }
+
+  @Test
+  public void testRepeatedLocationReturnsSameDistance() {
+    QuerySpatialContext context = spatialContext();
+
+    Double first = context.distanceInMeters("POINT (5 5)");
+    assertThat(context.distanceInMeters("POINT (5 5)"), is(first));
+  }
+
+  @Test
+  public void testBlankOrInvalidLocation() {
+    QuerySpatialContext context = spatialContext();
+
+    assertThat(context.distanceInMeters(null), is(nullValue()));
+    assertThat(context.distanceInMeters(" "), is(nullValue()));
+    assertThat(context.distanceInMeters("NOT WKT"), is(nullValue()));
+    assertThat(context.distanceInMeters("NOT WKT"), is(nullValue()));
+  }
+
+  private QuerySpatialContext spatialContext() {
+    return QuerySpatialContext.create(
+        new QueryImpl(filterBuilder.attribute("anyGeo").is().intersecting().wkt(QUERY_POLYGON)),
+        filterAdapter);
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.delegate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class SearchTermMatcherTest {
+
+  @Test
+  public void testExactTerms() {
+    Map<String, Integer> matches =
+        count(terms("alpha", "Beta"), "Alpha beta, ALPHA.gamma", "alphabet");
+
+    assertThat(matches, hasEntry("alpha", 2));
+    assertThat(matches, hasEntry("beta", 1));
+    assertThat(matches, hasEntry("*", 5));
+    assertThat(matches, is(aMapWithSize(3)));
+  }
+
+  @Test
+  public void testWildcardTerms() {
+    Map<String, Integer> matches = count(terms("alph*", "*ta", "a*b*c"), "alphabet beta abxc ac");
+
+    assertThat(matches, hasEntry("alph*", 1));
+    assertThat(matches, hasEntry("*ta", 1));
+    assertThat(matches, hasEntry("a*b*c", 1));
+  }
+
+  @Test
+  public void testRegexWildcardTermFallsBackToSearchTerm() {
+    Map<String, Integer> matches = count(terms("a(b)*"), "abxx ab");
+
+    assertThat(matches, hasEntry("a(b)*", 2));
+    assertThat(matches, hasEntry("*", 2));
+  }
+
+  @Test
+  public void testAllTermsIgnored() {
+    Map<String, Integer> matches = count(terms("*"), "one two");
+
+    assertThat(matches, hasEntry("*", 2));
+    assertThat(matches, is(aMapWithSize(1)));
+  }
+
+  @Test
+  public void testDuplicateTermsCountedPerTerm() {
+    Map<String, Integer> matches = count(terms("one", "one"), "one two");
+
+    assertThat(matches, hasEntry("one", 2));
+  }
+
+  @Test
+  public void testNoTextScanned() {
+    assertThat(count(terms("one")), is(aMapWithSize(0)));
+  }
+
+  @Test
+  public void testTokenCountsMatchSplitting() throws IOException {
+    List<SearchTerm> terms = terms("a", "b*", "");
+    String[] values = {
+      "", "a", " a", "a ", "  ", "\n", "a\n\nb", "a\r\nb\rc", ".a..b.", "\ta\tbb\t", "x\n \ny"
+    };
+    for (String value : values) {
+      assertThat(value, count(terms, value), is(splitCount(terms, value)));
+    }
+    assertThat(count(terms, values), is(splitCount(terms, values)));
+  }
+
+  private static List<SearchTerm> terms(String... terms) {
+    return Arrays.stream(terms).map(SearchTerm::new).collect(Collectors.toList());
+  }
+
+  private static Map<String, Integer> count(List<SearchTerm> terms, String... values) {
+    SearchTermMatcher.Counter counter = SearchTermMatcher.compile(terms).newCounter();
+    for (String value : values) {
+      counter.scan(value);
+    }
+    return counter.toMap();
+  }
+
+  /** Counts matches by lower-casing, reading and splitting each line with a regular expression. */
+  private static Map<String, Integer> splitCount(List<SearchTerm> terms, String... values)
+      throws IOException {
+    Map<String, Integer> matches = new HashMap<>();
+    int totalTokens = 0;
+    for (String value : values) {
+      BufferedReader reader = new BufferedReader(new StringReader(value.toLowerCase()));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        for (String token : line.split("[\\s\\p{Punct}]+")) {
+          totalTokens++;
+          for (SearchTerm term : terms) {
+            if (!"*".equals(term.getTerm()) && term.match(token)) {
+              matches.merge(term.getTerm(), 1, Integer::sum);
+            }
+          }
+        }
+      }
+      matches.put("*", totalTokens);
+    }
+    return matches;
+  }
+}
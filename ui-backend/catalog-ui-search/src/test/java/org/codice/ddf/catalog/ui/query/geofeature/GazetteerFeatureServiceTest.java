@@ -13,13 +13,17 @@
  */
 package org.codice.ddf.catalog.ui.query.geofeature;
 
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.COUNTRY_FEATURE_CODES;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -99,6 +103,30 @@ public class GazetteerFeatureServiceTest {
     assertEquals("name1", results.get(0).getName());
   }
 
+  @Test
+  public void testRepeatedSuggestionQueryIsCached() throws GeoEntryQueryException {
+    doReturn(SUGGESTED_NAMES).when(geoEntryQueryable).getSuggestedNames(anyString(), anyInt());
+
+    gazetteerFeatureService.getSuggestedFeatureNames(TEST_QUERY, 2);
+    List<Suggestion> results = gazetteerFeatureService.getSuggestedFeatureNames(TEST_QUERY, 2);
+    gazetteerFeatureService.getSuggestedFeatureNames(TEST_QUERY, 5);
+
+    assertEquals("id1", results.get(0).getId());
+    verify(geoEntryQueryable, times(1)).getSuggestedNames(TEST_QUERY, 2);
+    verify(geoEntryQueryable, times(1)).getSuggestedNames(TEST_QUERY, 5);
+  }
+
+  @Test
+  public void testFailedSuggestionQueryIsNotCached() throws GeoEntryQueryException {
+    doThrow(GeoEntryQueryException.class)
+        .doReturn(SUGGESTED_NAMES)
+        .when(geoEntryQueryable)
+        .getSuggestedNames(anyString(), anyInt());
+
+    assertThat(gazetteerFeatureService.getSuggestedFeatureNames(TEST_QUERY, 2).isEmpty(), is(true));
+    assertThat(gazetteerFeatureService.getSuggestedFeatureNames(TEST_QUERY, 2).size(), is(1));
+  }
+
   @Test
   public void testGetCityFeatureById() throws GeoEntryQueryException {
     doReturn(GEO_ENTRY_1).when(geoEntryQueryable).queryById(TEST_QUERY);
@@ -154,4 +182,55 @@ public class GazetteerFeatureServiceTest {
     assertThat(geometry.getGeometryType(), is("Polygon"));
     assertThat(geometry.equalsExact((Geometry) expectedFeature.getDefaultGeometry()), is(true));
   }
+
+  @Test
+  public void testFeatureIsCached() throws GeoEntryQueryException {
+    doReturn(GEO_ENTRY_1).when(geoEntryQueryable).queryById(TEST_QUERY);
+
+    SimpleFeature first = gazetteerFeatureService.getFeatureById(TEST_QUERY);
+    SimpleFeature second = gazetteerFeatureService.getFeatureById(TEST_QUERY);
+
+    assertThat(second, is(first));
+    verify(geoEntryQueryable, times(1)).queryById(TEST_QUERY);
+  }
+
+  @Test
+  public void testSimplifiedCountryFeature() throws GeoEntryQueryException, FeatureQueryException {
+    GeoEntry countryEntry =
+        new GeoEntry.Builder()
+            .name("Canada")
+            .latitude(55.0)
+            .longitude(-100.0)
+            .featureCode(COUNTRY_FEATURE_CODES.iterator().next())
+            .countryCode("CA")
+            .population(10000000)
+            .alternateNames("")
+            .build();
+    doReturn(countryEntry).when(geoEntryQueryable).queryById(TEST_QUERY);
+
+    // A square outline with many nearly collinear points along its southern edge
+    List<Coordinate> coordinates = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      coordinates.add(new Coordinate(-104.0 + i * 0.08, 50.0 + (i % 2) * 0.001));
+    }
+    coordinates.add(new Coordinate(-96.0, 58.0));
+    coordinates.add(new Coordinate(-104.0, 58.0));
+    coordinates.add(new Coordinate(-104.0, 50.0));
+    GeometryFactory geometryFactory = new GeometryFactory();
+    Polygon countryPolygon =
+        geometryFactory.createPolygon(coordinates.toArray(new Coordinate[0]));
+    SimpleFeature country =
+        GazetteerFeatureService.getSimpleFeatureBuilder(countryPolygon)
+            .buildFeature(countryEntry.getName());
+    doReturn(Arrays.asList(country)).when(featureQueryable).query("CA", null, 1);
+
+    SimpleFeature full = gazetteerFeatureService.getFeatureById(TEST_QUERY);
+    SimpleFeature simplified = gazetteerFeatureService.getFeatureById(TEST_QUERY, 0.05);
+
+    assertThat(((Geometry) full.getDefaultGeometry()).getNumPoints(), is(104));
+    assertThat(((Geometry) simplified.getDefaultGeometry()).getNumPoints() < 10, is(true));
+    assertThat(simplified.getID(), is(full.getID()));
+    assertThat(gazetteerFeatureService.getFeatureById(TEST_QUERY, 0.05), is(simplified));
+    verify(geoEntryQueryable, times(1)).queryById(TEST_QUERY);
+  }
 }
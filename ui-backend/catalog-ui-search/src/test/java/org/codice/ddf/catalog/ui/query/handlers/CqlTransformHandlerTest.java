@@ -23,16 +23,22 @@ import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.security.audit.SecurityLogger;
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +46,6 @@ import javax.activation.MimeType;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.HttpHeaders;
-import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponseImpl;
 import org.codice.ddf.catalog.ui.query.cql.CqlRequestImpl;
 import org.codice.ddf.catalog.ui.util.CqlQueriesImpl;
 import org.codice.ddf.catalog.ui.util.EndpointUtil;
@@ -65,7 +70,6 @@ public class CqlTransformHandlerTest {
   @Mock private EndpointUtil mockEndpointUtil;
   @Mock private CqlQueriesImpl mockCqlQueryUtil;
   @Mock private Request mockRequest;
-  @Mock private CqlQueryResponseImpl mockCqlQueryResponse;
   @Mock private QueryResponse mockQueryResponse;
   @Mock private QueryResponseTransformer mockQueryResponseTransformer;
   @Mock private ServletOutputStream mockServletOutputStream;
@@ -165,14 +169,13 @@ public class CqlTransformHandlerTest {
             mockBundleContext,
             mockEndpointUtil,
             mockCqlQueryUtil,
-            securityLogger);
+            securityLogger,
+            MoreExecutors.newDirectExecutorService());
 
     when(mockEndpointUtil.safeGetBody(mockRequest)).thenReturn(SAFE_BODY);
 
-    when(mockCqlQueryUtil.executeCqlQuery(any(CqlRequestImpl.class)))
-        .thenReturn(mockCqlQueryResponse);
-
-    when(mockCqlQueryResponse.getQueryResponse()).thenReturn(mockQueryResponse);
+    when(mockCqlQueryUtil.executeRawCqlQuery(any(CqlRequestImpl.class)))
+        .thenReturn(mockQueryResponse);
 
     when(mockBundleContext.getService(mockServiceReference))
         .thenReturn(mockQueryResponseTransformer);
@@ -204,4 +207,39 @@ public class CqlTransformHandlerTest {
         matchesPattern(ATTACHMENT_REGEX));
     assertThat(mockResponse.type(), is(MIME_TYPE));
   }
+
+  @Test
+  public void testTopResultsAcrossSearches() {
+    Result a = result("a", 3);
+    Result b = result("b", 1);
+    Result c = result("c", 2);
+    Result d = result("d", 1);
+
+    List<Result> top =
+        CqlTransformHandler.topResults(
+            ImmutableList.of(ImmutableList.of(a, b), ImmutableList.of(c, d)),
+            Comparator.comparing(Result::getRelevanceScore),
+            3);
+
+    assertThat(top, is(Arrays.asList(b, d, c)));
+  }
+
+  @Test
+  public void testTopResultsWithoutCount() {
+    List<Result> top =
+        CqlTransformHandler.topResults(
+            ImmutableList.of(ImmutableList.of(result("a", 1))),
+            Comparator.comparing(Result::getRelevanceScore),
+            0);
+
+    assertThat(top.isEmpty(), is(true));
+  }
+
+  private static Result result(String id, double relevance) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    ResultImpl result = new ResultImpl(metacard);
+    result.setRelevanceScore(relevance);
+    return result;
+  }
 }
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.email;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Provider;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.URLName;
+import javax.mail.internet.InternetAddress;
+import org.codice.ddf.platform.email.SmtpClient;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EmailDeliveryQueueTest {
+
+  private static final String FROM_EMAIL = "from@example.com";
+
+  private ScheduledExecutorService executor;
+
+  /** The deliveries handed to the executor that have not been run yet. */
+  private List<Runnable> scheduled;
+
+  private List<Long> delays;
+
+  private EmailDeliveryQueue queue;
+
+  @Before
+  public void setUp() {
+    FakeTransport.reset();
+
+    Session session = Session.getInstance(new Properties());
+    session.setProvider(
+        new Provider(
+            Provider.Type.TRANSPORT, "smtp", FakeTransport.class.getName(), "Codice", "1.0"));
+    SmtpClient smtpClient = mock(SmtpClient.class);
+    when(smtpClient.createSession()).thenReturn(session);
+
+    scheduled = new ArrayList<>();
+    delays = new ArrayList<>();
+    executor = mock(ScheduledExecutorService.class);
+    when(executor.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.SECONDS)))
+        .thenAnswer(
+            invocation -> {
+              scheduled.add(invocation.getArgument(0));
+              delays.add(invocation.getArgument(1));
+              return mock(ScheduledFuture.class);
+            });
+
+    queue = new EmailDeliveryQueue(smtpClient, executor);
+  }
+
+  @Test
+  public void testRecipientsAreSentInBatchesOverOneConnectionEach() {
+    List<String> recipients = recipients(120);
+
+    queue.submit(FROM_EMAIL, "subject", "body", recipients);
+    assertThat(delays, contains(0L, 0L, 0L));
+    runScheduled();
+
+    assertThat(
+        FakeTransport.connections.stream().map(List::size).collect(Collectors.toList()),
+        contains(50, 50, 20));
+    assertThat(
+        FakeTransport.connections
+            .stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toSet()),
+        is(new HashSet<>(recipients)));
+    assertThat(queue.getSentCount(), is(120L));
+    assertThat(queue.getPendingBatchCount(), is(0));
+  }
+
+  @Test
+  public void testBatchIsRetriedWithBackoffUntilItIsDelivered() {
+    FakeTransport.failingConnects = 2;
+
+    queue.submit(FROM_EMAIL, "subject", "body", recipients(3));
+    runScheduled();
+
+    assertThat(delays, contains(0L, 5L, 10L));
+    assertThat(FakeTransport.connections, contains(recipients(3)));
+    assertThat(queue.getRetriedCount(), is(6L));
+    assertThat(queue.getSentCount(), is(3L));
+    assertThat(queue.getFailedCount(), is(0L));
+    assertThat(queue.getPendingBatchCount(), is(0));
+  }
+
+  @Test
+  public void testBatchFailsAfterTheLastAttempt() {
+    FakeTransport.failingConnects = Integer.MAX_VALUE;
+
+    queue.submit(FROM_EMAIL, "subject", "body", recipients(3));
+    runScheduled();
+
+    assertThat(delays, contains(0L, 5L, 10L, 20L));
+    assertThat(queue.getSentCount(), is(0L));
+    assertThat(queue.getFailedCount(), is(3L));
+    assertThat(queue.getPendingBatchCount(), is(0));
+  }
+
+  @Test
+  public void testRejectedRecipientIsNotRetried() {
+    FakeTransport.rejected.add("recipient1@example.com");
+
+    queue.submit(FROM_EMAIL, "subject", "body", recipients(3));
+    runScheduled();
+
+    assertThat(delays, contains(0L));
+    assertThat(queue.getSentCount(), is(2L));
+    assertThat(queue.getFailedCount(), is(1L));
+    assertThat(queue.getRetriedCount(), is(0L));
+  }
+
+  @Test
+  public void testBatchesBeyondTheLimitAreDropped() {
+    for (int i = 0; i < 1001; i++) {
+      queue.submit(FROM_EMAIL, "subject", "body", ImmutableList.of("recipient@example.com"));
+    }
+
+    assertThat(scheduled.size(), is(1000));
+    assertThat(queue.getPendingBatchCount(), is(1000));
+    assertThat(queue.getDroppedCount(), is(1L));
+
+    scheduled.remove(0).run();
+    queue.submit(FROM_EMAIL, "subject", "body", ImmutableList.of("recipient@example.com"));
+
+    assertThat(scheduled.size(), is(1000));
+    assertThat(queue.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void testShutdownDiscardsUndeliveredBatches() {
+    queue.submit(FROM_EMAIL, "subject", "body", recipients(3));
+
+    queue.shutdown();
+
+    verify(executor).shutdownNow();
+  }
+
+  @Test
+  public void testBatchesSubmittedAfterShutdownAreDropped() {
+    EmailDeliveryQueue deliveryQueue = new EmailDeliveryQueue(mock(SmtpClient.class));
+    deliveryQueue.shutdown();
+
+    deliveryQueue.submit(FROM_EMAIL, "subject", "body", recipients(3));
+
+    assertThat(deliveryQueue.getDroppedCount(), is(3L));
+    assertThat(deliveryQueue.getPendingBatchCount(), is(0));
+    assertThat(FakeTransport.connections, is(empty()));
+  }
+
+  /** Runs the scheduled deliveries, including the retries they schedule, in order. */
+  private void runScheduled() {
+    while (!scheduled.isEmpty()) {
+      scheduled.remove(0).run();
+    }
+  }
+
+  private static List<String> recipients(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> "recipient" + i + "@example.com")
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * An SMTP transport that records the recipients sent over each connection. JavaMail creates it
+   * by reflection, so it is configured through static fields.
+   */
+  public static class FakeTransport extends Transport {
+
+    private static List<List<String>> connections;
+
+    private static Set<String> rejected;
+
+    private static int failingConnects;
+
+    public FakeTransport(Session session, URLName urlName) {
+      super(session, urlName);
+    }
+
+    private static void reset() {
+      connections = new ArrayList<>();
+      rejected = new HashSet<>();
+      failingConnects = 0;
+    }
+
+    @Override
+    protected boolean protocolConnect(String host, int port, String user, String password)
+        throws MessagingException {
+      if (failingConnects > 0) {
+        failingConnects--;
+        throw new MessagingException("connection refused");
+      }
+      connections.add(new ArrayList<>());
+      return true;
+    }
+
+    @Override
+    public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+      String recipient = ((InternetAddress) addresses[0]).getAddress();
+      if (rejected.contains(recipient)) {
+        throw new SendFailedException("rejected", null, null, null, addresses);
+      }
+      connections.get(connections.size() - 1).add(recipient);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.impl;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Not;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.temporal.After;
+
+public class FilterServiceImplTest {
+
+  private final FilterServiceImpl filterService = new FilterServiceImpl(new GeotoolsFilterBuilder());
+
+  @Test
+  public void testModifiedDateFilterIncludesTheCheckDate() {
+    Date lastCheckDate = new Date(1000L);
+    Date checkDate = new Date(2000L);
+
+    Filter filter = filterService.getModifiedDateFilter(lastCheckDate, checkDate);
+
+    assertThat(filter, instanceOf(And.class));
+    List<Filter> children = ((And) filter).getChildren();
+    assertThat(children.size(), is(2));
+    assertModifiedAfter(children.get(0));
+    // The upper bound is "not after" rather than "before" so the check date itself is included
+    assertThat(children.get(1), instanceOf(Not.class));
+    assertModifiedAfter(((Not) children.get(1)).getFilter());
+  }
+
+  private static void assertModifiedAfter(Filter filter) {
+    assertThat(filter, instanceOf(After.class));
+    After after = (After) filter;
+    assertThat(((PropertyName) after.getExpression1()).getPropertyName(), is(Metacard.MODIFIED));
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.monitor.impl;
+
+import static org.codice.ddf.catalog.ui.query.monitor.impl.QueryHighWaterMarks.HIGH_WATER_MARK_PROPERTY;
+import static org.codice.ddf.catalog.ui.query.monitor.impl.QueryHighWaterMarks.HIGH_WATER_MARK_TYPE;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.PersistentItem;
+import org.codice.ddf.persistence.PersistentStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class QueryHighWaterMarksTest {
+
+  private PersistentStore persistentStore;
+
+  private QueryHighWaterMarks queryHighWaterMarks;
+
+  @Before
+  public void setup() {
+    persistentStore = mock(PersistentStore.class);
+    queryHighWaterMarks = new QueryHighWaterMarks(persistentStore);
+  }
+
+  @Test
+  public void testLoad() throws PersistenceException {
+    when(persistentStore.get(eq(HIGH_WATER_MARK_TYPE), anyString(), anyInt(), anyInt()))
+        .thenReturn(Arrays.asList(item("query1", 1000L), item("query2", 2000L)));
+
+    Map<String, Date> highWaterMarks = queryHighWaterMarks.load();
+
+    assertThat(highWaterMarks, is(aMapWithSize(2)));
+    assertThat(highWaterMarks, hasEntry("query1", new Date(1000L)));
+    assertThat(highWaterMarks, hasEntry("query2", new Date(2000L)));
+  }
+
+  @Test
+  public void testLoadWithPersistenceException() throws PersistenceException {
+    when(persistentStore.get(eq(HIGH_WATER_MARK_TYPE), anyString(), anyInt(), anyInt()))
+        .thenThrow(PersistenceException.class);
+
+    assertThat(queryHighWaterMarks.load(), is(aMapWithSize(0)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testUpdate() throws PersistenceException {
+    queryHighWaterMarks.update(Collections.singletonList("query1"), new Date(3000L));
+
+    ArgumentCaptor<Map> itemCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(persistentStore).add(eq(HIGH_WATER_MARK_TYPE), itemCaptor.capture());
+
+    Map<String, Object> item = PersistentItem.stripSuffixes(itemCaptor.getValue());
+    assertThat(item, hasEntry("id", (Object) "query1"));
+    assertThat(item, hasEntry(HIGH_WATER_MARK_PROPERTY, (Object) 3000L));
+  }
+
+  @Test
+  public void testRemoveOlderThan() throws PersistenceException {
+    when(persistentStore.delete(eq(HIGH_WATER_MARK_TYPE), anyString(), anyInt(), anyInt()))
+        .thenReturn(1000, 10);
+
+    queryHighWaterMarks.removeOlderThan(new Date(4000L));
+
+    verify(persistentStore, times(2))
+        .delete(HIGH_WATER_MARK_TYPE, HIGH_WATER_MARK_PROPERTY + " < 4000", 0, 1000);
+  }
+
+  @Test
+  public void testRemoveOlderThanWithPersistenceException() throws PersistenceException {
+    when(persistentStore.delete(eq(HIGH_WATER_MARK_TYPE), anyString(), anyInt(), anyInt()))
+        .thenThrow(PersistenceException.class);
+
+    queryHighWaterMarks.removeOlderThan(new Date(4000L));
+
+    verify(persistentStore).delete(eq(HIGH_WATER_MARK_TYPE), anyString(), anyInt(), anyInt());
+  }
+
+  private static Map<String, Object> item(String id, long highWaterMark) {
+    Map<String, Object> item = new HashMap<>();
+    item.put("id", id);
+    item.put(HIGH_WATER_MARK_PROPERTY + PersistentItem.LONG_SUFFIX, highWaterMark);
+    return item;
+  }
+}
@@ -18,6 +18,7 @@ import static org.codice.ddf.catalog.ui.query.monitor.impl.SubscriptionsPersiste
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -123,6 +124,21 @@ public class SubscriptionsPersistentStoreImplTest {
     assertThat(store.getEmails(IDSTRING), is(Collections.emptySet()));
   }
 
+  @Test
+  public void testGetSubscriptions() {
+    store.addEmails(IDSTRING, new HashSet<>(Arrays.asList(EMAIL1, EMAIL2)));
+    store.addEmail("otherId", EMAIL1);
+
+    assertThat(
+        store.getSubscriptions(EMAIL1), is(new HashSet<>(Arrays.asList(IDSTRING, "otherId"))));
+    assertThat(store.getSubscriptions(EMAIL2), is(Collections.singleton(IDSTRING)));
+
+    store.removeEmail(IDSTRING, EMAIL1);
+
+    assertThat(store.getSubscriptions(EMAIL1), is(Collections.singleton("otherId")));
+    assertThat(store.getEmails(IDSTRING), is(Collections.singleton(EMAIL2)));
+  }
+
   private static class MemoryPersistentStore implements PersistentStore {
 
     private Map<String, Map<String, Object>> map = new HashMap<>();
@@ -172,6 +188,9 @@ public class SubscriptionsPersistentStoreImplTest {
     @Override
     public List<Map<String, Object>> get(String type, String ecql, int startIndex, int pageSize)
         throws PersistenceException {
+      if (ecql.isEmpty()) {
+        return new ArrayList<>(map.values());
+      }
       String id = ecql.split("=")[1].replaceAll("'", "");
       if (map.containsKey(id)) {
         return Collections.singletonList(map.get(id));
@@ -13,30 +13,45 @@
  */
 package org.codice.ddf.catalog.ui.query.monitor.impl;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -95,7 +110,9 @@ public class WorkspaceQueryServiceTest {
           }
         };
     FilterService filterService = mock(FilterService.class);
-    when(filterService.getModifiedDateFilter(any())).thenReturn(mock(Filter.class));
+    when(filterService.getModifiedDateFilter(any(), any())).thenReturn(mock(Filter.class));
+    QueryHighWaterMarks queryHighWaterMarks = mock(QueryHighWaterMarks.class);
+    when(queryHighWaterMarks.load()).thenReturn(Collections.emptyMap());
 
     when(filterBuilder.anyOf(Mockito.any(Filter.class))).thenReturn(mock(Or.class));
     when(filterBuilder.allOf(Mockito.<Filter>anyVararg())).thenReturn(mock(And.class));
@@ -108,7 +125,8 @@ public class WorkspaceQueryServiceTest {
             filterBuilder,
             schedulerSupplier,
             securityService,
-            filterService);
+            filterService,
+            queryHighWaterMarks);
 
     workspaceQueryServiceImpl.setQueryTimeInterval(60);
     String ecql = "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 10000 AND 30000";
@@ -119,6 +137,7 @@ public class WorkspaceQueryServiceTest {
     QueryMetacardImpl queryMetacardWithSource = mock(QueryMetacardImpl.class);
     when(queryMetacardWithSource.getSources()).thenReturn(Collections.singletonList("SomeSource"));
     when(queryMetacardWithSource.getCql()).thenReturn(ecql);
+    when(queryMetacardWithSource.getId()).thenReturn("1");
 
     Attribute id1 = mock(Attribute.class);
     when(id1.getValue()).thenReturn("1");
@@ -127,6 +146,7 @@ public class WorkspaceQueryServiceTest {
     QueryMetacardImpl queryMetacardWithoutSource = mock(QueryMetacardImpl.class);
     when(queryMetacardWithoutSource.getSources()).thenReturn(Collections.emptyList());
     when(queryMetacardWithoutSource.getCql()).thenReturn(ecql);
+    when(queryMetacardWithoutSource.getId()).thenReturn("2");
 
     Attribute id2 = mock(Attribute.class);
     when(id2.getValue()).thenReturn("2");
@@ -318,5 +338,258 @@ public class WorkspaceQueryServiceTest {
 
     assertThat(
         queryUpdateSubscriberArgument.get(workspaceId).getRight(), is(hitCount1 + hitCount2));
+
+    ArgumentCaptor<Collection> queryIdsCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(queryHighWaterMarks).update(queryIdsCaptor.capture(), any(Date.class));
+    assertThat((Collection<String>) queryIdsCaptor.getValue(), containsInAnyOrder("1", "2"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testQueryIsNotCountedWhileOneOfItsSourcesFails() throws Exception {
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest request = invocation.getArgument(0);
+              if (request.getSourceIds().contains("failingSource")) {
+                throw new SourceUnavailableException("failingSource is down");
+              }
+              return queryResponse(1L);
+            });
+    QueryHighWaterMarks queryHighWaterMarks = queryHighWaterMarks();
+
+    runWorkspaceQueries(
+        catalogFramework,
+        queryHighWaterMarks,
+        workspace(
+            "workspace",
+            queryMetacard("multiSource", "workingSource", "failingSource"),
+            queryMetacard("singleSource", "workingSource")));
+
+    ArgumentCaptor<Collection> queryIdsCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(queryHighWaterMarks).update(queryIdsCaptor.capture(), any(Date.class));
+    assertThat((Collection<String>) queryIdsCaptor.getValue(), contains("singleSource"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testQueriesPerSourceAreCapped() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocation -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(20);
+              } finally {
+                inFlight.decrementAndGet();
+              }
+              return queryResponse(1L);
+            });
+
+    List<Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> workspaces = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      workspaces.add(workspace("workspace" + i, queryMetacard("query" + i, "source")));
+    }
+
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
+        runWorkspaceQueries(
+            catalogFramework,
+            queryHighWaterMarks(),
+            service -> service.setMaxConcurrentQueriesPerSource(2),
+            workspaces.toArray(new Pair[0]));
+
+    assertThat(results.size(), is(8));
+    assertThat(maxInFlight.get(), lessThanOrEqualTo(2));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSlowSourceDoesNotHoldUpOtherSources() throws Exception {
+    CountDownLatch fastQueries = new CountDownLatch(4);
+    AtomicBoolean fastQueriesRanFirst = new AtomicBoolean();
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest request = invocation.getArgument(0);
+              if (request.getSourceIds().contains("slowSource")) {
+                // Only answers once every query of the fast source has run
+                fastQueriesRanFirst.set(fastQueries.await(10, TimeUnit.SECONDS));
+              } else {
+                fastQueries.countDown();
+              }
+              return queryResponse(1L);
+            });
+
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
+        runWorkspaceQueries(
+            catalogFramework,
+            queryHighWaterMarks(),
+            service -> {
+              service.setMaxConcurrentQueries(2);
+              service.setMaxConcurrentQueriesPerSource(1);
+            },
+            workspace("slow", queryMetacard("slow", "slowSource")),
+            workspace("fast1", queryMetacard("fast1", "fastSource")),
+            workspace("fast2", queryMetacard("fast2", "fastSource")),
+            workspace("fast3", queryMetacard("fast3", "fastSource")),
+            workspace("fast4", queryMetacard("fast4", "fastSource")));
+
+    assertThat(fastQueriesRanFirst.get(), is(true));
+    assertThat(results.keySet(), containsInAnyOrder("slow", "fast1", "fast2", "fast3", "fast4"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testQueuedQueriesAreSkippedAfterTheDeadline() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocation -> {
+              Uninterruptibles.awaitUninterruptibly(release, 10, TimeUnit.SECONDS);
+              return queryResponse(1L);
+            });
+    QueryHighWaterMarks queryHighWaterMarks = queryHighWaterMarks();
+
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results;
+    try {
+      results =
+          runWorkspaceQueries(
+              catalogFramework,
+              queryHighWaterMarks,
+              service -> {
+                service.setQueryTimeoutMinutes(0L);
+                service.setMaxConcurrentQueriesPerSource(1);
+              },
+              workspace("workspace1", queryMetacard("query1", "source")),
+              workspace("workspace2", queryMetacard("query2", "source")),
+              workspace("workspace3", queryMetacard("query3", "source")));
+    } finally {
+      release.countDown();
+    }
+
+    assertThat(results.isEmpty(), is(true));
+    // The query running at the deadline finishes, but the ones queued behind it never start
+    verify(catalogFramework, after(500).atMost(1)).query(any());
+    ArgumentCaptor<Collection> queryIdsCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(queryHighWaterMarks).update(queryIdsCaptor.capture(), any(Date.class));
+    assertThat(queryIdsCaptor.getValue().isEmpty(), is(true));
+  }
+
+  private static QueryHighWaterMarks queryHighWaterMarks() {
+    QueryHighWaterMarks queryHighWaterMarks = mock(QueryHighWaterMarks.class);
+    when(queryHighWaterMarks.load()).thenReturn(Collections.emptyMap());
+    return queryHighWaterMarks;
+  }
+
+  private static QueryResponse queryResponse(long hits) {
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(hits);
+    return queryResponse;
+  }
+
+  private static QueryMetacardImpl queryMetacard(String id, String... sources) {
+    QueryMetacardImpl queryMetacard = mock(QueryMetacardImpl.class);
+    when(queryMetacard.getId()).thenReturn(id);
+    when(queryMetacard.getSources()).thenReturn(Arrays.asList(sources));
+    when(queryMetacard.getCql()).thenReturn("title LIKE '" + id + "'");
+    return queryMetacard;
+  }
+
+  private static Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspace(
+      String id, QueryMetacardImpl... queryMetacards) {
+    WorkspaceMetacardImpl workspaceMetacard = mock(WorkspaceMetacardImpl.class);
+    when(workspaceMetacard.getId()).thenReturn(id);
+    return new ImmutablePair<>(workspaceMetacard, Arrays.asList(queryMetacards));
+  }
+
+  /** Runs the workspace queries once and returns the results handed to the subscriber. */
+  @SuppressWarnings("unchecked")
+  @SafeVarargs
+  private static Map<String, Pair<WorkspaceMetacardImpl, Long>> runWorkspaceQueries(
+      CatalogFramework catalogFramework,
+      QueryHighWaterMarks queryHighWaterMarks,
+      Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>... workspaces)
+      throws SchedulerException {
+    return runWorkspaceQueries(catalogFramework, queryHighWaterMarks, service -> {}, workspaces);
+  }
+
+  @SuppressWarnings("unchecked")
+  @SafeVarargs
+  private static Map<String, Pair<WorkspaceMetacardImpl, Long>> runWorkspaceQueries(
+      CatalogFramework catalogFramework,
+      QueryHighWaterMarks queryHighWaterMarks,
+      Consumer<WorkspaceQueryServiceImpl> configuration,
+      Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>... workspaces)
+      throws SchedulerException {
+    QueryUpdateSubscriber queryUpdateSubscriber = mock(QueryUpdateSubscriber.class);
+
+    WorkspaceService workspaceService = mock(WorkspaceService.class);
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        new HashMap<>();
+    for (Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspace : workspaces) {
+      queryMetacards.put(workspace.getLeft().getId(), workspace);
+    }
+    when(workspaceService.getQueryMetacards()).thenReturn(queryMetacards);
+
+    FilterBuilder filterBuilder = mock(FilterBuilder.class);
+    when(filterBuilder.anyOf(Mockito.<Filter>anyList())).thenReturn(mock(Or.class));
+    when(filterBuilder.allOf(Mockito.<Filter>anyVararg())).thenReturn(mock(And.class));
+
+    Scheduler scheduler = mock(Scheduler.class);
+    when(scheduler.getContext()).thenReturn(mock(SchedulerContext.class));
+
+    FilterService filterService = mock(FilterService.class);
+    when(filterService.getModifiedDateFilter(any(), any())).thenReturn(mock(Filter.class));
+
+    Subject systemSubject = mock(Subject.class);
+    doAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return null;
+            })
+        .when(systemSubject)
+        .execute(any(Runnable.class));
+    SecurityService securityService =
+        new SecurityService() {
+          @Override
+          public Subject getSystemSubject() {
+            return systemSubject;
+          }
+
+          @Override
+          public Map<String, Serializable> addSystemSubject(Map<String, Serializable> properties) {
+            return properties;
+          }
+        };
+
+    WorkspaceQueryServiceImpl workspaceQueryService =
+        new WorkspaceQueryServiceImpl(
+            queryUpdateSubscriber,
+            workspaceService,
+            catalogFramework,
+            filterBuilder,
+            () -> Optional.of(scheduler),
+            securityService,
+            filterService,
+            queryHighWaterMarks);
+    try {
+      workspaceQueryService.setQueryTimeInterval(60);
+      workspaceQueryService.setQueryTimeoutMinutes(1L);
+      configuration.accept(workspaceQueryService);
+
+      workspaceQueryService.run();
+    } finally {
+      workspaceQueryService.destroy();
+    }
+
+    ArgumentCaptor<Map> resultsCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(queryUpdateSubscriber).notify(resultsCaptor.capture());
+    return (Map<String, Pair<WorkspaceMetacardImpl, Long>>) resultsCaptor.getValue();
   }
 }
@@ -14,6 +14,8 @@
 package org.codice.ddf.catalog.ui.query.monitor.impl;
 
 import static org.codice.ddf.persistence.PersistentStore.PersistenceType.SUBSCRIPTION_TYPE;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -23,6 +25,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,7 +46,11 @@ import ddf.security.SecurityConstants;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.ws.rs.NotFoundException;
+import org.apache.commons.lang3.tuple.Pair;
 import org.codice.ddf.catalog.ui.metacard.query.data.metacard.QueryMetacardImpl;
 import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceConstants;
 import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceMetacardImpl;
@@ -240,6 +248,57 @@ public class WorkspaceServiceImplTest {
     assertThat(queries, hasSize(2));
   }
 
+  @Test
+  public void testGetQueryMetacardsInBatches()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    List<String> queryIds =
+        IntStream.range(0, 150).mapToObj(i -> "queryId" + i).collect(Collectors.toList());
+    WorkspaceMetacardImpl workspace = mock(WorkspaceMetacardImpl.class);
+    doReturn(queryIds).when(workspace).getQueries();
+
+    doReturn(queryResponse).when(catalogFramework).query(any(QueryRequest.class));
+
+    when(queryResponse.getResults())
+        .thenReturn(Arrays.asList(getMockResult("queryId101"), getMockResult("queryId2")));
+
+    List<QueryMetacardImpl> queries = workspaceServiceImpl.getQueryMetacards(workspace);
+
+    assertThat(queries, hasSize(2));
+    verify(catalogFramework, times(2)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testGetQueryMetacardsOfAllWorkspacesInOneQuery()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    WorkspaceMetacardImpl first = mockWorkspace("workspace1", "queryId1", "queryId2");
+    WorkspaceMetacardImpl second = mockWorkspace("workspace2", "queryId3", "queryId1");
+    WorkspaceMetacardImpl withoutQueries = mockWorkspace("workspace3");
+    WorkspaceServiceImpl workspaceService = spy(workspaceServiceImpl);
+    doReturn(Arrays.asList(first, second, withoutQueries))
+        .when(workspaceService)
+        .getWorkspaceMetacards();
+
+    doReturn(queryResponse).when(catalogFramework).query(any(QueryRequest.class));
+
+    when(queryResponse.getResults())
+        .thenReturn(
+            Arrays.asList(
+                getQueryResult("queryId3"),
+                getQueryResult("queryId1"),
+                getQueryResult("queryId2")));
+
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        workspaceService.getQueryMetacards();
+
+    verify(catalogFramework, times(1)).query(any(QueryRequest.class));
+    assertThat(queryMetacards.get("workspace1").getLeft(), is(first));
+    assertThat(
+        queryIds(queryMetacards.get("workspace1").getRight()), contains("queryId1", "queryId2"));
+    assertThat(
+        queryIds(queryMetacards.get("workspace2").getRight()), contains("queryId3", "queryId1"));
+    assertThat(queryMetacards.get("workspace3").getRight(), is(empty()));
+  }
+
   @Test
   public void testGetWorkspaceMetacardFromQueryId()
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
@@ -285,4 +344,21 @@ public class WorkspaceServiceImplTest {
 
     return getMockResult(metacard);
   }
+
+  private WorkspaceMetacardImpl mockWorkspace(String id, String... queryIds) {
+    WorkspaceMetacardImpl workspace = mock(WorkspaceMetacardImpl.class);
+    doReturn(id).when(workspace).getId();
+    doReturn(Arrays.asList(queryIds)).when(workspace).getQueries();
+    return workspace;
+  }
+
+  private Result getQueryResult(String id) {
+    QueryMetacardImpl queryMetacard = new QueryMetacardImpl();
+    queryMetacard.setId(id);
+    return getMockResult(queryMetacard);
+  }
+
+  private static List<String> queryIds(List<QueryMetacardImpl> queryMetacards) {
+    return queryMetacards.stream().map(QueryMetacardImpl::getId).collect(Collectors.toList());
+  }
 }
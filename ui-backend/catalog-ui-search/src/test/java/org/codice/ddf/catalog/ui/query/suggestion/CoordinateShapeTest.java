@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.suggestion;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+public class CoordinateShapeTest {
+
+  @Test
+  public void testPlaceNameMatchesNothing() {
+    CoordinateShape shape = CoordinateShape.of("Phoenix, Arizona");
+    assertThat(shape.mayBeLatLon(), is(false));
+    assertThat(shape.mayBeDms(), is(false));
+    assertThat(shape.mayBeMgrs(), is(false));
+    assertThat(shape.mayBeUtmUps(), is(false));
+  }
+
+  @Test
+  public void testNullQueryMatchesNothing() {
+    CoordinateShape shape = CoordinateShape.of(null);
+    assertThat(shape.mayBeLatLon(), is(false));
+    assertThat(shape.mayBeMgrs(), is(false));
+  }
+
+  @Test
+  public void testLatLon() {
+    CoordinateShape shape = CoordinateShape.of("-12.5, .75");
+    assertThat(shape.mayBeLatLon(), is(true));
+    assertThat(shape.mayBeDms(), is(false));
+    assertThat(shape.mayBeMgrs(), is(false));
+  }
+
+  @Test
+  public void testDms() {
+    CoordinateShape shape = CoordinateShape.of("40°26'46\"N 79°58'56\"W");
+    assertThat(shape.mayBeDms(), is(true));
+    assertThat(shape.mayBeLatLon(), is(true));
+  }
+
+  @Test
+  public void testDmsRequiresBothDirections() {
+    assertThat(CoordinateShape.of("40 26 46 79 58 56 W").mayBeDms(), is(false));
+  }
+
+  @Test
+  public void testMgrs() {
+    CoordinateShape shape = CoordinateShape.of("4qFj123456");
+    assertThat(shape.mayBeMgrs(), is(true));
+    assertThat(shape.mayBeUtmUps(), is(false));
+  }
+
+  @Test
+  public void testUtmUps() {
+    CoordinateShape shape = CoordinateShape.of("18 631054mE 4776851mN");
+    assertThat(shape.mayBeUtmUps(), is(true));
+    assertThat(shape.mayBeMgrs(), is(true));
+  }
+
+  @Test
+  public void testUps() {
+    assertThat(CoordinateShape.of("Z 2426773mE 1530125mN").mayBeUtmUps(), is(true));
+  }
+}
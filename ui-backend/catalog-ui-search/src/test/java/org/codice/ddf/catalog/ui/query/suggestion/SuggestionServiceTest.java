@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.suggestion;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.SubjectCallable;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.ui.query.geofeature.FeatureService;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SuggestionServiceTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private FeatureService featureService;
+
+  private Suggestion place;
+
+  private SuggestionService suggestionService;
+
+  @Before
+  public void setUp() {
+    featureService = mock(FeatureService.class);
+    place = mock(Suggestion.class);
+    MgrsCoordinateProcessor mgrsProcessor = mock(MgrsCoordinateProcessor.class);
+    UtmUpsCoordinateProcessor utmUpsProcessor = mock(UtmUpsCoordinateProcessor.class);
+    suggestionService =
+        new SuggestionService(
+            featureService,
+            new LatLonCoordinateProcessor(),
+            new DmsCoordinateProcessor(),
+            mgrsProcessor,
+            utmUpsProcessor,
+            executor);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.unbindSubject();
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testCoordinateSuggestionsPrecedePlaceNames() {
+    when(featureService.getSuggestedFeatureNames(anyString(), anyInt()))
+        .thenReturn(Collections.singletonList(place));
+
+    List<Suggestion> suggestions = suggestionService.getSuggestions("10 20");
+
+    assertThat(suggestions, hasSize(2));
+    assertThat(suggestions.get(0).getId(), is("LITERAL-LAT-LON"));
+    assertThat(suggestions.get(1), is(place));
+  }
+
+  @Test
+  public void testSlowGazetteerDoesNotHoldBackCoordinates() {
+    when(featureService.getSuggestedFeatureNames(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              release.await();
+              return Collections.singletonList(place);
+            });
+    suggestionService.setDeadlineMillis(50);
+
+    List<Suggestion> suggestions = suggestionService.getSuggestions("10 20");
+
+    assertThat(suggestions, hasSize(1));
+    assertThat(suggestions.get(0).getId(), is("LITERAL-LAT-LON"));
+  }
+
+  @Test
+  public void testPlaceNamesOnly() {
+    when(featureService.getSuggestedFeatureNames(anyString(), anyInt()))
+        .thenReturn(Collections.singletonList(place));
+
+    assertThat(suggestionService.getSuggestions("Phoenix"), contains(place));
+  }
+
+  @Test
+  public void testGazetteerIsQueriedAsTheCallingSubject() {
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Callable.class)))
+        .thenAnswer(invocation -> new SubjectCallable<>(subject, invocation.getArgument(0)));
+    ThreadContext.bind(subject);
+    AtomicReference<Subject> gazetteerSubject = new AtomicReference<>();
+    when(featureService.getSuggestedFeatureNames(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              gazetteerSubject.set(ThreadContext.getSubject());
+              return Collections.singletonList(place);
+            });
+
+    assertThat(suggestionService.getSuggestions("Phoenix"), contains(place));
+    assertThat(gazetteerSubject.get(), is(subject));
+  }
+}
@@ -339,4 +339,51 @@ public class AccessControlPolicyExtensionTest {
 
     assertThat(after, is(ImmutableList.of(OWNER, ADMINISTRATORS, ROLES, INDIVIDUALS, RANDOM)));
   }
+
+  @Test
+  public void testSubjectWithNewAttributesIsReevaluated() {
+    List<Permission> before = ImmutableList.of(INDIVIDUALS, RANDOM);
+
+    CollectionPermission stranger =
+        subjectFrom(
+            makePermission(
+                Constants.EMAIL_ADDRESS_CLAIM_URI,
+                ImmutableSet.of("non-existent-email@connexta.com")));
+    CollectionPermission individual =
+        subjectFrom(
+            makePermission(
+                Constants.EMAIL_ADDRESS_CLAIM_URI, ImmutableSet.of("OWNER@connexta.com")));
+
+    assertThat(
+        extension.isPermittedMatchAll(stranger, coll(before), coll(before)).getPermissionList(),
+        is(before));
+    assertThat(
+        extension.isPermittedMatchAll(individual, coll(before), coll(before)).getPermissionList(),
+        is(ImmutableList.of(RANDOM)));
+    assertThat(
+        extension.isPermittedMatchAll(stranger, coll(before), coll(before)).getPermissionList(),
+        is(before));
+  }
+
+  @Test
+  public void testSubjectWithEqualPermissionsIsCompiledOnce() {
+    List<Permission> before = ImmutableList.of(INDIVIDUALS, RANDOM);
+
+    CollectionPermission first =
+        subjectFrom(
+            new KeyValuePermissionImpl(
+                Constants.EMAIL_ADDRESS_CLAIM_URI, ImmutableSet.of("owner@connexta.com")));
+    CollectionPermission second =
+        subjectFrom(
+            new KeyValuePermissionImpl(
+                Constants.EMAIL_ADDRESS_CLAIM_URI, ImmutableSet.of("owner@connexta.com")));
+
+    extension.isPermittedMatchAll(first, coll(before), coll(before));
+    List<Permission> after =
+        extension.isPermittedMatchAll(second, coll(before), coll(before)).getPermissionList();
+
+    assertThat(after, is(ImmutableList.of(RANDOM)));
+    assertThat(extension.getSubjectCacheStats().missCount(), is(1L));
+    assertThat(extension.getSubjectCacheStats().hitCount(), is(1L));
+  }
 }
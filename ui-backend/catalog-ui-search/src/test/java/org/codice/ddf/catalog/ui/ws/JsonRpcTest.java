@@ -19,6 +19,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
@@ -28,10 +30,16 @@ import com.google.gson.GsonBuilder;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
+import org.junit.After;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -48,6 +56,29 @@ public class JsonRpcTest {
 
   private JsonRpc rpc = new JsonRpc(methods);
 
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final AtomicInteger started = new AtomicInteger();
+
+  private final Function blocking =
+      (value) -> {
+        started.incrementAndGet();
+        try {
+          release.await();
+          return value;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return "interrupted";
+        }
+      };
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
   private static void assertError(Map<String, Object> response, long code) {
     assertThat(response.containsKey("error"), is(true));
     assertThat(response.get("error"), instanceOf(Map.class));
@@ -95,4 +126,53 @@ public class JsonRpcTest {
     assertThat(resp.get("id"), is(6L));
     assertThat(resp.get("result"), is(value));
   }
+
+  @Test
+  public void testCancelRunningCall() throws Exception {
+    JsonRpc asyncRpc = new JsonRpc(ImmutableMap.of("block", blocking), executor);
+    Session session = mock(Session.class);
+    RemoteEndpoint endpoint = mock(RemoteEndpoint.class);
+    doReturn(endpoint).when(session).getRemote();
+
+    asyncRpc.onMessage(session, "{\"method\":\"block\",\"id\":1,\"jsonrpc\":\"2.0\"}");
+    asyncRpc.onMessage(
+        session, "{\"method\":\"$/cancelRequest\",\"id\":2,\"jsonrpc\":\"2.0\",\"params\":[1]}");
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(endpoint, timeout(1000).times(2)).sendStringByFuture(captor.capture());
+    List<Map<String, Object>> responses = parse(captor.getAllValues());
+
+    assertThat(responses.get(0).get("id"), is(1L));
+    assertError(responses.get(0), JsonRpc.REQUEST_CANCELLED);
+    assertThat(responses.get(1).get("id"), is(2L));
+    assertThat(responses.get(1).get("result"), is(true));
+  }
+
+  @Test
+  public void testCallsBeyondSessionLimitWait() throws Exception {
+    JsonRpc asyncRpc = new JsonRpc(ImmutableMap.of("block", blocking), executor);
+    Session session = mock(Session.class);
+    RemoteEndpoint endpoint = mock(RemoteEndpoint.class);
+    doReturn(endpoint).when(session).getRemote();
+
+    for (int id = 0; id < 5; id++) {
+      asyncRpc.onMessage(
+          session, "{\"method\":\"block\",\"id\":" + id + ",\"jsonrpc\":\"2.0\"}");
+    }
+    Thread.sleep(100);
+    assertThat(started.get(), is(4));
+
+    release.countDown();
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(endpoint, timeout(1000).times(5)).sendStringByFuture(captor.capture());
+    assertThat(started.get(), is(5));
+  }
+
+  private static List<Map<String, Object>> parse(List<String> responses) {
+    return responses
+        .stream()
+        .map(response -> GSON.<Map<String, Object>>fromJson(response, MAP_STRING_TO_OBJECT_TYPE))
+        .collect(Collectors.toList());
+  }
 }
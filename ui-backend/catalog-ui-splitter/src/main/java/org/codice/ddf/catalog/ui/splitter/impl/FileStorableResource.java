@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.splitter.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.Nullable;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.catalog.ui.splitter.StorableResource;
+
+/**
+ * A {@link StorableResource} whose content is already in a file, so it is read in place instead of
+ * being copied. The caller owns the file and deletes it once the resource is closed.
+ */
+public class FileStorableResource implements StorableResource {
+
+  private final Path path;
+
+  private final String mimeType;
+
+  private final String filename;
+
+  private final List<InputStream> openInputStreams = new CopyOnWriteArrayList<>();
+
+  public FileStorableResource(Path path, @Nullable String mimeType, String filename) {
+    this.path = path;
+    this.mimeType = mimeType;
+    this.filename = filename;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    InputStream inputStream = Files.newInputStream(path);
+    openInputStreams.add(inputStream);
+    return inputStream;
+  }
+
+  @Override
+  public Optional<Path> getPath() {
+    return Optional.of(path);
+  }
+
+  @Override
+  public Optional<String> getMimeType() {
+    return Optional.ofNullable(mimeType);
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  @Override
+  public boolean isError() {
+    return false;
+  }
+
+  @Override
+  public String getErrorMessage() {
+    return null;
+  }
+
+  @Override
+  public void close() {
+    openInputStreams.forEach(IOUtils::closeQuietly);
+    openInputStreams.clear();
+  }
+}
@@ -16,16 +16,21 @@ package org.codice.ddf.catalog.ui.splitter.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import javax.activation.MimeType;
 import org.apache.commons.io.IOUtils;
@@ -33,7 +38,13 @@ import org.codice.ddf.catalog.ui.splitter.StorableResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Splits a ZIP file into its immediate children. Does not recurse through each child item. */
+/**
+ * Splits a ZIP file into its immediate children. Does not recurse through each child item.
+ *
+ * <p>If the resource is backed by a file, the entries are listed from the central directory and
+ * each one is read in place when it is stored, so they are neither copied nor read in order.
+ * Otherwise the ZIP is streamed and each entry is copied as it is reached.
+ */
 public class ZipSplitter extends AbstractSplitter {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ZipSplitter.class);
@@ -46,6 +57,15 @@ public class ZipSplitter extends AbstractSplitter {
   public Stream<StorableResource> split(
       StorableResource storableResource, Map<String, ? extends Serializable> arguments)
       throws IOException {
+    Optional<Path> path = storableResource.getPath();
+    if (path.isPresent()) {
+      ZipFile zipFile = new ZipFile(path.get().toFile());
+      return zipFile
+          .stream()
+          .map(zipEntry -> (StorableResource) new ZipEntryResource(zipFile, zipEntry))
+          .onClose(() -> IOUtils.closeQuietly(zipFile));
+    }
+
     ZipIterator zipIterator = new ZipIterator(storableResource.getInputStream());
     return StreamSupport.stream(
             Spliterators.spliteratorUnknownSize(zipIterator, Spliterator.NONNULL), false)
@@ -108,4 +128,52 @@ public class ZipSplitter extends AbstractSplitter {
       }
     }
   }
+
+  /** An entry of a {@link ZipFile}, which stays readable until the {@link ZipFile} is closed. */
+  private static class ZipEntryResource implements StorableResource {
+
+    private final ZipFile zipFile;
+
+    private final ZipEntry zipEntry;
+
+    private final List<InputStream> openInputStreams = new CopyOnWriteArrayList<>();
+
+    ZipEntryResource(ZipFile zipFile, ZipEntry zipEntry) {
+      this.zipFile = zipFile;
+      this.zipEntry = zipEntry;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      InputStream inputStream = zipFile.getInputStream(zipEntry);
+      openInputStreams.add(inputStream);
+      return inputStream;
+    }
+
+    @Override
+    public Optional<String> getMimeType() {
+      return Optional.empty();
+    }
+
+    @Override
+    public String getFilename() {
+      return zipEntry.getName();
+    }
+
+    @Override
+    public boolean isError() {
+      return false;
+    }
+
+    @Override
+    public String getErrorMessage() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+      openInputStreams.forEach(IOUtils::closeQuietly);
+      openInputStreams.clear();
+    }
+  }
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.splitter.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.catalog.ui.splitter.StorableResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileStorableResourceTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = temporaryFolder.newFile("list.txt").toPath();
+    Files.write(file, "content".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testResourceIsReadFromItsFile() throws IOException {
+    try (FileStorableResource resource = new FileStorableResource(file, "text/plain", "list.txt")) {
+      assertThat(resource.getPath(), is(Optional.of(file)));
+      assertThat(resource.getMimeType(), is(Optional.of("text/plain")));
+      assertThat(resource.getFilename(), is("list.txt"));
+      assertThat(resource.isError(), is(false));
+      assertThat(read(resource), is("content"));
+      assertThat(read(resource), is("content"));
+    }
+  }
+
+  @Test
+  public void testMimeTypeIsOptional() {
+    FileStorableResource resource = new FileStorableResource(file, null, "list.txt");
+
+    assertThat(resource.getMimeType(), is(Optional.empty()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testCloseClosesOpenStreams() throws IOException {
+    FileStorableResource resource = new FileStorableResource(file, null, "list.txt");
+    InputStream inputStream = resource.getInputStream();
+
+    resource.close();
+
+    inputStream.read();
+  }
+
+  @Test
+  public void testResourcesWithoutAFileHaveNoPath() throws IOException {
+    try (StorableResourceImpl resource = new StorableResourceImpl("content", null, "list.txt")) {
+      assertThat(resource.getPath(), is(Optional.empty()));
+    }
+  }
+
+  private static String read(StorableResource storableResource) throws IOException {
+    return IOUtils.toString(storableResource.getInputStream(), StandardCharsets.UTF_8);
+  }
+}
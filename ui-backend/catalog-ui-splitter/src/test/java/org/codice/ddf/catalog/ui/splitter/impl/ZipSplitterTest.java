@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.splitter.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.catalog.ui.splitter.StorableResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ZipSplitterTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ZipSplitter zipSplitter;
+
+  private Path zip;
+
+  @Before
+  public void setUp() throws IOException {
+    zipSplitter = new ZipSplitter("zip", Collections.emptySet());
+
+    zip = temporaryFolder.newFile("list.zip").toPath();
+    try (OutputStream outputStream = Files.newOutputStream(zip);
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+      for (String name : new String[] {"first.txt", "second.txt", "third.txt"}) {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(("content of " + name).getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+      }
+    }
+  }
+
+  @Test
+  public void testSplitFileBackedZip() throws IOException {
+    try (FileStorableResource resource = new FileStorableResource(zip, null, "list.zip");
+        Stream<StorableResource> entries = zipSplitter.split(resource, Collections.emptyMap())) {
+      assertEntries(entries.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testSplitStreamedZip() throws IOException {
+    try (InputStream inputStream = Files.newInputStream(zip);
+        StorableResourceImpl resource = new StorableResourceImpl(inputStream, null, "list.zip");
+        Stream<StorableResource> entries = zipSplitter.split(resource, Collections.emptyMap())) {
+      assertEntries(entries.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testFileBackedEntriesCanBeReadOutOfOrderAndTwice() throws Exception {
+    try (FileStorableResource resource = new FileStorableResource(zip, null, "list.zip");
+        Stream<StorableResource> entries = zipSplitter.split(resource, Collections.emptyMap())) {
+      List<StorableResource> items = entries.collect(Collectors.toList());
+
+      assertThat(read(items.get(2)), is("content of third.txt"));
+      assertThat(read(items.get(0)), is("content of first.txt"));
+      assertThat(read(items.get(0)), is("content of first.txt"));
+
+      for (StorableResource item : items) {
+        item.close();
+      }
+    }
+  }
+
+  private static void assertEntries(List<StorableResource> items) throws IOException {
+    List<String> filenames = new ArrayList<>();
+    List<String> contents = new ArrayList<>();
+    for (StorableResource item : items) {
+      assertThat(item.isError(), is(false));
+      filenames.add(item.getFilename());
+      contents.add(read(item));
+    }
+
+    assertThat(filenames, contains("first.txt", "second.txt", "third.txt"));
+    assertThat(
+        contents,
+        contains("content of first.txt", "content of second.txt", "content of third.txt"));
+  }
+
+  private static String read(StorableResource storableResource) throws IOException {
+    return IOUtils.toString(storableResource.getInputStream(), StandardCharsets.UTF_8);
+  }
+}
@@ -29,6 +29,10 @@ if ((properties as any).webSocketsEnabled && window.WebSocket) {
   }${location.pathname}ws`
   rpc = new Client(url)
 }
+// error codes sent by the server's JsonRpc dispatcher
+const TOO_MANY_REQUESTS = -32001
+const REQUEST_CANCELLED = -32800
+const CANCEL_REQUEST = '$/cancelRequest'
 export default Backbone.AssociatedModel.extend({
   defaults() {
     return {
@@ -42,6 +46,9 @@ export default Backbone.AssociatedModel.extend({
   sync(method: any, model: any, options: any) {
     if (rpc !== null) {
       let handled = false
+      // the client numbers its calls in order, so this is the query's id
+      const requestId = rpc.ready ? rpc.rpc_id + 1 : undefined
+      const client = rpc
       const promise = rpc
         .call('query', [options.data], options.timeout)
         // @ts-expect-error ts-migrate(7030) FIXME: Not all code paths return a value.
@@ -76,6 +83,21 @@ export default Backbone.AssociatedModel.extend({
                   },
                 })
                 break
+              case TOO_MANY_REQUESTS:
+                options.error({
+                  responseJSON: {
+                    message:
+                      'Too many searches are running, please try again shortly.',
+                  },
+                })
+                break
+              case REQUEST_CANCELLED:
+                options.error({
+                  responseJSON: {
+                    message: 'Stopped',
+                  },
+                })
+                break
               default:
                 // notify user and fallback to http
                 if (rpc !== null) {
@@ -97,6 +119,11 @@ export default Backbone.AssociatedModel.extend({
         abort() {
           if (!handled) {
             handled = true
+            if (requestId !== undefined && client === rpc) {
+              client.call(CANCEL_REQUEST, [requestId]).catch(() => {
+                // the query already finished or the socket closed
+              })
+            }
             options.error({
               responseJSON: {
                 message: 'Stopped',